@@ -1,20 +1,27 @@
 package com.springboot;
 
+import com.springboot.entity.User;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
-import org.springframework.web.filter.CorsFilter;
 
 import java.io.File;
 import java.util.Arrays;
-import java.util.Collections;
+import java.util.List;
 
+import static com.springboot.constant.CorsConstant.*;
 import static com.springboot.constant.FileConstant.USER_FOLDER;
 
 @SpringBootApplication
+// chi quet entity trong com.springboot.entity, entity rieng cua test/benchmark khong lot vao context chung
+@EntityScan(basePackageClasses = User.class)
+@EnableScheduling
 public class SpringJwtAngularApplication {
 
 	public static void main(String[] args) {
@@ -22,20 +29,22 @@ public class SpringJwtAngularApplication {
 		new File(USER_FOLDER).mkdirs();
 	}
 
+	// security (http.cors()) va CorsPreflightFilter cung doc cau hinh nay
 	@Bean
-	public CorsFilter corsFilter(){
+	public UrlBasedCorsConfigurationSource corsConfigurationSource(@Value("${user.cors.allowed-origins:http://localhost:4200}") List<String> allowedOrigins,
+															   @Value("${user.cors.max-age-seconds:7200}") long maxAgeSeconds){
 		UrlBasedCorsConfigurationSource urlBasedCorsConfigurationSource = new UrlBasedCorsConfigurationSource();
 		CorsConfiguration corsConfiguration = new CorsConfiguration();
 		corsConfiguration.setAllowCredentials(true);
-		corsConfiguration.setAllowedOrigins(Collections.singletonList("http://localhost:4200"));
-		corsConfiguration.setAllowedHeaders(Arrays.asList("Origin", "Access-Control-Allow-Origin", "Content-Type",
-				"Accept", "Jwt-Token", "Authorization", "Origin, Accept", "X-Requested-With",
-				"Access-Control-Request-Method", "Access-Control-Request-Headers"));
-		corsConfiguration.setExposedHeaders(Arrays.asList("Origin", "Content-Type", "Accept", "Jwt-Token", "Authorization",
-				"Access-Control-Allow-Origin", "Access-Control-Allow-Origin", "Access-Control-Allow-Credentials"));
-		corsConfiguration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-		urlBasedCorsConfigurationSource.registerCorsConfiguration("/**", corsConfiguration);
-		return new CorsFilter(urlBasedCorsConfigurationSource);
+		corsConfiguration.setAllowedOrigins(allowedOrigins);
+		corsConfiguration.setAllowedHeaders(Arrays.asList(ALLOWED_HEADERS));
+		corsConfiguration.setExposedHeaders(Arrays.asList(EXPOSED_HEADERS));
+		corsConfiguration.setAllowedMethods(Arrays.asList(ALLOWED_METHODS));
+		if (maxAgeSeconds > 0) {
+			corsConfiguration.setMaxAge(maxAgeSeconds);
+		}
+		urlBasedCorsConfigurationSource.registerCorsConfiguration(ALL_PATHS, corsConfiguration);
+		return urlBasedCorsConfigurationSource;
 	}
 
 	@Bean
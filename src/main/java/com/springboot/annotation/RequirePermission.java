@@ -0,0 +1,14 @@
+package com.springboot.annotation;
+
+import com.springboot.enumeration.Permission;
+
+import java.lang.annotation.*;
+
+// quyen can co de goi handler, thay cho @PreAuthorize("hasAuthority(...)")
+// nhieu quyen = phai co du tat ca; mask cua moi method tinh 1 lan luc khoi dong (PermissionInterceptor)
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface RequirePermission {
+    Permission[] value();
+}
@@ -0,0 +1,169 @@
+package com.springboot.audit;
+
+import com.google.common.net.InetAddresses;
+import com.springboot.entity.AuthenticationAuditRecord;
+import com.springboot.enumeration.AuthenticationAuditType;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.springboot.constant.AuthenticationAuditConstant.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+// doc journal theo khoang thoi gian: ten segment cho biet timestamp dau nen bo qua duoc ca file,
+// trong segment tim nhi phan tren checkpoint roi doc tuan tu toi khi vuot qua moc cuoi
+// doc duoc ca segment dang ghi (cung page cache voi writer)
+public class AuditJournalReader {
+    private static final AuthenticationAuditType[] TYPES = AuthenticationAuditType.values();
+
+    private AuditJournalReader() {
+    }
+
+    // username = null thi lay tat ca, khoang [from, to)
+    public static int query(Path folder, long from, long to, String username, Consumer<AuthenticationAuditRecord> consumer) throws IOException {
+        List<Path> segments = listSegments(folder);
+        byte[] usernameBytes = username == null ? null : username.getBytes(UTF_8);
+        int count = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            if (firstTimestamp(segments.get(i)) >= to) {
+                break;
+            }
+            // moi ban ghi cua segment nay khong moi hon ban ghi dau cua segment sau
+            if (i + 1 < segments.size() && firstTimestamp(segments.get(i + 1)) < from) {
+                continue;
+            }
+            count += scan(segments.get(i), from, to, usernameBytes, consumer);
+        }
+        return count;
+    }
+
+    // xoa segment ma moi ban ghi deu cu hon cutoff, khong bao gio xoa segment moi nhat (dang ghi)
+    public static int deleteSegmentsBefore(Path folder, long cutoff) throws IOException {
+        List<Path> segments = listSegments(folder);
+        int deleted = 0;
+        for (int i = 0; i + 1 < segments.size() && firstTimestamp(segments.get(i + 1)) <= cutoff; i++) {
+            Files.deleteIfExists(segments.get(i));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    public static List<Path> listSegments(Path folder) throws IOException {
+        if (Files.notExists(folder)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.filter(file -> file.getFileName().toString().matches("\\d{20}" + SEGMENT_SUFFIX.replace(".", "\\.")))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+    static boolean isValid(MappedByteBuffer buffer) {
+        return buffer.capacity() >= HEADER_SIZE && buffer.getInt(0) == SEGMENT_MAGIC && buffer.getInt(4) == FORMAT_VERSION
+                && buffer.getInt(8) >= 0 && buffer.getInt(8) <= MAX_CHECKPOINTS;
+    }
+
+    static int checkpointOffset(MappedByteBuffer buffer, int index) {
+        return buffer.getInt(HEADER_FIXED_SIZE + index * CHECKPOINT_SIZE + 8);
+    }
+
+    private static long checkpointTimestamp(MappedByteBuffer buffer, int index) {
+        return buffer.getLong(HEADER_FIXED_SIZE + index * CHECKPOINT_SIZE);
+    }
+
+    private static long firstTimestamp(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private static int scan(Path segment, long from, long to, byte[] username, Consumer<AuthenticationAuditRecord> consumer) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (!isValid(buffer)) {
+            return 0;
+        }
+        int position = startOffset(buffer, from);
+        int count = 0;
+        while (position + RECORD_FIXED_SIZE <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length < RECORD_FIXED_SIZE || position + length > buffer.capacity()) {
+                break;
+            }
+            long timestamp = buffer.getLong(position + 4);
+            if (timestamp >= to) {
+                break;
+            }
+            if (timestamp >= from) {
+                int addressLength = buffer.get(position + 13) & 0xFF;
+                int usernameOffset = position + 14 + addressLength;
+                int usernameLength = buffer.get(usernameOffset) & 0xFF;
+                if (username == null || matches(buffer, usernameOffset + 1, usernameLength, username)) {
+                    consumer.accept(new AuthenticationAuditRecord(timestamp, TYPES[buffer.get(position + 12)],
+                            readString(buffer, usernameOffset + 1, usernameLength), readAddress(buffer, position + 14, addressLength)));
+                    count++;
+                }
+            }
+            position += length;
+        }
+        return count;
+    }
+
+    // offset cua checkpoint cuoi cung co timestamp < from
+    private static int startOffset(MappedByteBuffer buffer, long from) {
+        int low = 0;
+        int high = buffer.getInt(8) - 1;
+        int offset = HEADER_SIZE;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (checkpointTimestamp(buffer, middle) < from) {
+                offset = checkpointOffset(buffer, middle);
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return offset;
+    }
+
+    private static boolean matches(MappedByteBuffer buffer, int offset, int length, byte[] expected) {
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(offset + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String readString(MappedByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, UTF_8);
+    }
+
+    private static String readAddress(MappedByteBuffer buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return InetAddresses.toAddrString(InetAddress.getByAddress(bytes));
+    }
+}
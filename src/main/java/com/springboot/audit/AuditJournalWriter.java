@@ -0,0 +1,165 @@
+package com.springboot.audit;
+
+import com.google.common.net.InetAddresses;
+import com.springboot.entity.AuthenticationAuditRecord;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static com.springboot.constant.AuthenticationAuditConstant.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.*;
+
+// ghi noi tiep ban ghi audit vao segment map vao bo nho, day thi mo segment moi dat ten theo timestamp ban ghi dau
+// file duoc map du kich thuoc ngay tu dau (sparse, chi ton dia phan da ghi), phan chua ghi toan 0 nen do dai 0 = het du lieu
+// chi 1 thread duoc dung 1 writer
+public class AuditJournalWriter implements Closeable {
+    private final Path folder;
+    private final int segmentSize;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int checkpointInterval;
+    private int checkpointCount;
+    private int nextCheckpointOffset;
+    // timestamp ghi ra khong giam de segment va checkpoint sap xep theo thoi gian
+    private long lastTimestamp;
+    private boolean dirty;
+
+    public AuditJournalWriter(Path folder, int segmentSize) throws IOException {
+        this.folder = folder;
+        this.segmentSize = Math.max(segmentSize, MIN_SEGMENT_SIZE);
+        Files.createDirectories(folder);
+        recover();
+    }
+
+    public void append(AuthenticationAuditRecord record) throws IOException {
+        byte[] address = addressBytes(record.getRemoteAddress());
+        byte[] username = usernameBytes(record.getUsername());
+        int length = RECORD_FIXED_SIZE + address.length + username.length;
+        long timestamp = Math.max(record.getTimestamp(), lastTimestamp);
+        if (buffer == null || buffer.remaining() < length) {
+            rotate(timestamp);
+        }
+        int position = buffer.position();
+        if (position >= nextCheckpointOffset && checkpointCount < MAX_CHECKPOINTS) {
+            addCheckpoint(timestamp, position);
+        }
+        buffer.putLong(position + 4, timestamp);
+        buffer.put(position + 12, (byte) record.getType().ordinal());
+        buffer.position(position + 13);
+        buffer.put((byte) address.length).put(address);
+        buffer.put((byte) username.length).put(username);
+        // do dai ghi sau cung: reader chi thay ban ghi khi da day du
+        buffer.putInt(position, length);
+        lastTimestamp = timestamp;
+        dirty = true;
+    }
+
+    // dua trang da ghi xuong dia (mat dien), khi process chet thi trang trong page cache van duoc ghi
+    public void force() {
+        if (dirty) {
+            buffer.force();
+            dirty = false;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            force();
+            channel.close();
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    // mo lai segment moi nhat va ghi tiep sau ban ghi cuoi cung
+    private void recover() throws IOException {
+        List<Path> segments = AuditJournalReader.listSegments(folder);
+        if (segments.isEmpty()) {
+            return;
+        }
+        Path segment = segments.get(segments.size() - 1);
+        FileChannel fileChannel = FileChannel.open(segment, READ, WRITE);
+        MappedByteBuffer mapped = fileChannel.map(FileChannel.MapMode.READ_WRITE, 0, fileChannel.size());
+        if (!AuditJournalReader.isValid(mapped)) {
+            // segment hong: de nguyen cho nguoi dieu tra, ban ghi moi sang segment moi
+            fileChannel.close();
+            return;
+        }
+        channel = fileChannel;
+        buffer = mapped;
+        checkpointInterval = checkpointInterval(mapped.capacity());
+        checkpointCount = mapped.getInt(8);
+        int position = checkpointCount == 0 ? HEADER_SIZE : AuditJournalReader.checkpointOffset(mapped, checkpointCount - 1);
+        while (position + RECORD_FIXED_SIZE <= mapped.capacity()) {
+            int length = mapped.getInt(position);
+            if (length < RECORD_FIXED_SIZE || position + length > mapped.capacity()) {
+                break;
+            }
+            lastTimestamp = mapped.getLong(position + 4);
+            position += length;
+        }
+        mapped.position(position);
+        nextCheckpointOffset = HEADER_SIZE + checkpointCount * checkpointInterval;
+    }
+
+    private void rotate(long firstTimestamp) throws IOException {
+        close();
+        long name = firstTimestamp;
+        while (true) {
+            try {
+                channel = FileChannel.open(folder.resolve(String.format(SEGMENT_NAME_FORMAT, name)), CREATE_NEW, READ, WRITE);
+                break;
+            } catch (FileAlreadyExistsException exception) {
+                name++;
+            }
+        }
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        buffer.putInt(0, SEGMENT_MAGIC);
+        buffer.putInt(4, FORMAT_VERSION);
+        buffer.putInt(8, 0);
+        buffer.position(HEADER_SIZE);
+        checkpointInterval = checkpointInterval(segmentSize);
+        checkpointCount = 0;
+        nextCheckpointOffset = HEADER_SIZE;
+    }
+
+    // checkpoint (timestamp, offset) cach deu nhau giup reader nhay toi gan dau khoang thoi gian can tim
+    private void addCheckpoint(long timestamp, int offset) {
+        int entry = HEADER_FIXED_SIZE + checkpointCount * CHECKPOINT_SIZE;
+        buffer.putLong(entry, timestamp);
+        buffer.putInt(entry + 8, offset);
+        checkpointCount++;
+        buffer.putInt(8, checkpointCount);
+        nextCheckpointOffset = HEADER_SIZE + checkpointCount * checkpointInterval;
+    }
+
+    private static int checkpointInterval(int segmentSize) {
+        return (segmentSize - HEADER_SIZE) / MAX_CHECKPOINTS + 1;
+    }
+
+    // dia chi IP luu dang 4 / 16 byte, khong phai IP literal thi bo qua
+    private static byte[] addressBytes(String remoteAddress) {
+        if (remoteAddress == null || !InetAddresses.isInetAddress(remoteAddress)) {
+            return new byte[0];
+        }
+        return InetAddresses.forString(remoteAddress).getAddress();
+    }
+
+    private static byte[] usernameBytes(String username) {
+        byte[] bytes = username == null ? new byte[0] : username.getBytes(UTF_8);
+        if (bytes.length <= MAX_USERNAME_BYTES) {
+            return bytes;
+        }
+        byte[] truncated = new byte[MAX_USERNAME_BYTES];
+        System.arraycopy(bytes, 0, truncated, 0, MAX_USERNAME_BYTES);
+        return truncated;
+    }
+}
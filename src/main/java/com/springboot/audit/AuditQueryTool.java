@@ -0,0 +1,32 @@
+package com.springboot.audit;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+
+import static com.springboot.constant.AuthenticationAuditConstant.QUERY_TOOL_USAGE;
+
+// doc journal ngoai ung dung (khong can khoi dong Spring), moi ban ghi 1 dong: thoi gian, loai, username, IP
+// java -cp app.jar -Dloader.main=com.springboot.audit.AuditQueryTool org.springframework.boot.loader.PropertiesLauncher \
+//      ~/spring-jwt-angular/audit 2024-01-01T00:00:00Z 2024-01-02T00:00:00Z [username]
+public class AuditQueryTool {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println(QUERY_TOOL_USAGE);
+            System.exit(2);
+        }
+        Path folder = Paths.get(args[0]);
+        long from = Instant.parse(args[1]).toEpochMilli();
+        long to = Instant.parse(args[2]).toEpochMilli();
+        String username = args.length > 3 ? args[3] : null;
+        PrintStream out = new PrintStream(new BufferedOutputStream(System.out, 64 * 1024), false);
+        int count = AuditJournalReader.query(folder, from, to, username, record -> out.println(Instant.ofEpochMilli(record.getTimestamp())
+                + "\t" + record.getType() + "\t" + record.getUsername() + "\t" + (record.getRemoteAddress() == null ? "-" : record.getRemoteAddress())));
+        out.flush();
+        System.err.println("records: " + count);
+    }
+}
@@ -0,0 +1,79 @@
+package com.springboot.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+// hang doi vong nhieu producer / 1 consumer khong dung lock (Vyukov bounded MPMC, rut gon cho 1 consumer)
+// moi o co sequence: = vi tri -> trong cho producer, = vi tri + 1 -> co du lieu cho consumer
+// day thi offer tra ve false ngay, producer (request thread) khong bao gio bi chan
+public class AuditRingBuffer<T> {
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final int capacity;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // chi consumer doc/ghi
+    private long head;
+
+    public AuditRingBuffer(int requestedCapacity) {
+        capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        mask = capacity - 1;
+        slots = new AtomicReferenceArray<>(capacity);
+        sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public boolean offer(T value) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots.lazySet(index, value);
+                    // ghi volatile sau cung de consumer thay du lieu cua o
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // o nay chua duoc consumer tra lai: hang doi day
+                return false;
+            } else {
+                // producer khac da lay vi tri nay
+                position = tail.get();
+            }
+        }
+    }
+
+    // chi goi tu 1 thread consumer
+    public int drain(Consumer<T> consumer, int limit) {
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) (head & mask);
+            if (sequences.get(index) != head + 1) {
+                break;
+            }
+            T value = slots.get(index);
+            slots.lazySet(index, null);
+            sequences.lazySet(index, head + capacity);
+            head++;
+            drained++;
+            consumer.accept(value);
+        }
+        return drained;
+    }
+
+    // chi chinh xac khi goi tu thread consumer
+    public boolean isEmpty() {
+        return sequences.get((int) (head & mask)) != head + 1;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+}
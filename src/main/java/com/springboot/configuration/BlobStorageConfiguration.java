@@ -0,0 +1,83 @@
+package com.springboot.configuration;
+
+import com.springboot.storage.BlobStorage;
+import com.springboot.storage.CachingBlobStorage;
+import com.springboot.storage.LocalBlobStorage;
+import com.springboot.storage.S3BlobStorage;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+import static com.springboot.constant.FileConstant.BLOB_FOLDER;
+import static com.springboot.constant.FileConstant.BLOB_STORAGE_PREFIX;
+
+// chon noi luu anh dai dien: user.image.storage.type = local (mac dinh) hoac s3
+@Configuration
+public class BlobStorageConfiguration {
+
+    @Configuration
+    @ConditionalOnProperty(prefix = BLOB_STORAGE_PREFIX, name = "type", havingValue = "local", matchIfMissing = true)
+    public static class Local {
+
+        @Bean(destroyMethod = "close")
+        public BlobStorage blobStorage() {
+            return new LocalBlobStorage(Paths.get(BLOB_FOLDER));
+        }
+    }
+
+    // S3 hoac dich vu tuong thich (MinIO), pool ket noi http gioi han boi max-connections
+    // doc qua cache tren o dia local de anh hay xem khong phai tai lai
+    @Configuration
+    @ConditionalOnProperty(prefix = BLOB_STORAGE_PREFIX, name = "type", havingValue = "s3")
+    public static class S3 {
+
+        @Bean(destroyMethod = "close")
+        public BlobStorage blobStorage(@Value("${user.image.storage.s3.endpoint:}") String endpoint,
+                                       @Value("${user.image.storage.s3.region:us-east-1}") String region,
+                                       @Value("${user.image.storage.s3.bucket}") String bucket,
+                                       @Value("${user.image.storage.s3.access-key:}") String accessKey,
+                                       @Value("${user.image.storage.s3.secret-key:}") String secretKey,
+                                       @Value("${user.image.storage.s3.path-style:true}") boolean pathStyle,
+                                       @Value("${user.image.storage.s3.max-connections:50}") int maxConnections,
+                                       @Value("${user.image.storage.s3.connection-timeout-ms:2000}") long connectionTimeoutMillis,
+                                       @Value("${user.image.storage.s3.part-size-bytes:5242880}") long partSize,
+                                       @Value("${user.image.storage.cache.folder:}") String cacheFolder,
+                                       @Value("${user.image.storage.cache.max-bytes:1073741824}") long cacheMaxBytes) throws IOException {
+            S3ClientBuilder builder = S3Client.builder()
+                    .region(Region.of(region))
+                    .httpClientBuilder(ApacheHttpClient.builder()
+                            .maxConnections(maxConnections)
+                            .connectionTimeout(Duration.ofMillis(connectionTimeoutMillis))
+                            .connectionAcquisitionTimeout(Duration.ofMillis(connectionTimeoutMillis)))
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(pathStyle).build());
+            if (StringUtils.isNotBlank(endpoint)) {
+                builder.endpointOverride(URI.create(endpoint));
+            }
+            if (StringUtils.isNotBlank(accessKey)) {
+                builder.credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey)));
+            } else {
+                builder.credentialsProvider(DefaultCredentialsProvider.create());
+            }
+            BlobStorage blobStorage = new S3BlobStorage(builder.build(), bucket, partSize);
+            if (StringUtils.isBlank(cacheFolder)) {
+                return blobStorage;
+            }
+            return new CachingBlobStorage(blobStorage, Paths.get(cacheFolder), cacheMaxBytes);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.springboot.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.invalidation.CacheInvalidationBus;
+import com.springboot.invalidation.DatabaseInvalidationTransport;
+import com.springboot.invalidation.InvalidationTransport;
+import com.springboot.invalidation.MulticastInvalidationTransport;
+import com.springboot.repository.CacheInvalidationRepository;
+import com.springboot.utility.UserIdGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.springboot.constant.CacheInvalidationConstant.INVALIDATION_PREFIX;
+
+// chon transport cho bus invalidation: user.invalidation.transport = database (mac dinh), multicast hoac none (1 node)
+// message nhan duoc duoc phat lai thanh application event InvalidationMessage cho cac cache
+// khong danh dau vua ghi (ReplicaLagGuard): thay doi cua node khac khong phai read-your-writes cua client nao tren
+// node nay; cac cache nhan message tu doc lai trong ReplicaLagGuard.readFromPrimary
+@Configuration
+public class CacheInvalidationConfiguration {
+
+    // ten node = user.id.node-id (duy nhat moi instance) kem so ngau nhien: node restart bat dau lai sequence tu 1 ma khong bi coi la message cu
+    @Bean(destroyMethod = "close")
+    public CacheInvalidationBus cacheInvalidationBus(ObjectProvider<InvalidationTransport> transport, ObjectMapper objectMapper,
+                                                     MeterRegistry meterRegistry, UserIdGenerator userIdGenerator,
+                                                     ApplicationEventPublisher applicationEventPublisher,
+                                                     @Value("${user.invalidation.batch-ms:50}") long batchMillis,
+                                                     @Value("${user.invalidation.heartbeat-interval-ms:5000}") long heartbeatMillis,
+                                                     @Value("${user.invalidation.max-keys:1000}") int maxKeys) throws IOException {
+        InvalidationTransport invalidationTransport = transport.getIfAvailable();
+        if (invalidationTransport == null) {
+            return new CacheInvalidationBus();
+        }
+        String node = userIdGenerator.getNodeId() + "-" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        CacheInvalidationBus bus = new CacheInvalidationBus(node, invalidationTransport, objectMapper, meterRegistry,
+                batchMillis, heartbeatMillis, maxKeys);
+        bus.start(applicationEventPublisher::publishEvent);
+        return bus;
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = INVALIDATION_PREFIX, name = "transport", havingValue = "database", matchIfMissing = true)
+    public static class Database {
+
+        @Bean(destroyMethod = "close")
+        public InvalidationTransport invalidationTransport(CacheInvalidationRepository cacheInvalidationRepository,
+                                                          @Value("${user.invalidation.database.poll-interval-ms:200}") long pollIntervalMillis,
+                                                          @Value("${user.invalidation.database.retention-ms:600000}") long retentionMillis) {
+            return new DatabaseInvalidationTransport(cacheInvalidationRepository, pollIntervalMillis, retentionMillis);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = INVALIDATION_PREFIX, name = "transport", havingValue = "multicast")
+    public static class Multicast {
+
+        @Bean(destroyMethod = "close")
+        public InvalidationTransport invalidationTransport(@Value("${user.invalidation.multicast.group:239.255.42.99}") String group,
+                                                          @Value("${user.invalidation.multicast.port:4446}") int port,
+                                                          @Value("${user.invalidation.multicast.interface:}") String interfaceName,
+                                                          @Value("${user.invalidation.multicast.ttl:1}") int timeToLive) throws IOException {
+            return new MulticastInvalidationTransport(group, port, interfaceName, timeToLive);
+        }
+    }
+}
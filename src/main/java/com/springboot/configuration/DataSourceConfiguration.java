@@ -0,0 +1,55 @@
+package com.springboot.configuration;
+
+import com.springboot.datasource.ReplicaLagGuard;
+import com.springboot.datasource.ReplicationRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static com.springboot.constant.DataSourceConstant.PRIMARY_DATASOURCE_PREFIX;
+import static com.springboot.constant.DataSourceConstant.REPLICA_DATASOURCE_PREFIX;
+
+// config tach doc/ghi: chi bat khi co khai bao datasource.replica.url
+// moi datasource co pool hikari rieng (datasource.primary.hikari / datasource.replica.hikari)
+@Configuration
+@ConditionalOnProperty(prefix = REPLICA_DATASOURCE_PREFIX, name = "url")
+public class DataSourceConfiguration {
+
+    @Bean
+    @ConfigurationProperties(PRIMARY_DATASOURCE_PREFIX + ".hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties(REPLICA_DATASOURCE_PREFIX + ".hikari")
+    public HikariDataSource replicaDataSource(@Value("${datasource.replica.url}") String url,
+                                              @Value("${datasource.replica.username:${spring.datasource.username}}") String username,
+                                              @Value("${datasource.replica.password:${spring.datasource.password}}") String password) {
+        return DataSourceBuilder.create().type(HikariDataSource.class).url(url).username(username).password(password).build();
+    }
+
+    @Bean
+    public ReplicationRoutingDataSource replicationRoutingDataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                                                     @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                                                     ReplicaLagGuard replicaLagGuard) {
+        return new ReplicationRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagGuard);
+    }
+
+    // lazy proxy de lay connection sau khi transaction da set co readOnly
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicationRoutingDataSource replicationRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicationRoutingDataSource);
+    }
+}
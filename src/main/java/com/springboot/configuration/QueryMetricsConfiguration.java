@@ -0,0 +1,38 @@
+package com.springboot.configuration;
+
+import com.springboot.datasource.QueryMetricsListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// boc datasource chinh bang datasource-proxy de do tung cau SQL (QueryMetricsListener, QueryCountFilter)
+// chi boc bean "dataSource" ngoai cung, khi tach doc/ghi cac pool ben trong khong bi dem 2 lan
+@Configuration
+@ConditionalOnProperty(prefix = "user.jdbc.instrumentation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMetricsConfiguration {
+    private static final String DATA_SOURCE_BEAN = "dataSource";
+
+    // BeanPostProcessor tao rat som, MeterRegistry chi lay khi datasource duoc boc
+    @Bean
+    public static BeanPostProcessor queryMetricsDataSourcePostProcessor(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                        @Value("${user.jdbc.slow-query-ms:200}") long slowQueryMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || !DATA_SOURCE_BEAN.equals(beanName)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(DATA_SOURCE_BEAN, (DataSource) bean)
+                        .listener(new QueryMetricsListener(meterRegistry.getObject(), slowQueryMillis))
+                        .build();
+            }
+        };
+    }
+}
@@ -0,0 +1,20 @@
+package com.springboot.configuration;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// khi bat spring.main.lazy-initialization, bean co @Scheduled phai tao ngay
+// neu khong job (reaper, GC anh, heartbeat SSE, health check replica...) se khong bao gio duoc dang ky
+@Configuration
+public class StartupConfiguration {
+
+    @Bean
+    public static LazyInitializationExcludeFilter scheduledBeansExcludeFilter() {
+        return (beanName, beanDefinition, beanType) -> beanType != null && !MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Boolean>) method -> AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) ? true : null).isEmpty();
+    }
+}
@@ -0,0 +1,29 @@
+package com.springboot.constant;
+
+public class AuthenticationAuditConstant {
+    public static final String AUDIT_FOLDER = System.getProperty("user.home") + "/spring-jwt-angular/audit/";
+    public static final String SEGMENT_SUFFIX = ".audit";
+    public static final String SEGMENT_NAME_FORMAT = "%020d" + SEGMENT_SUFFIX;
+    // header segment: magic, version, so checkpoint, du phong (4 int) roi toi da MAX_CHECKPOINTS cap (timestamp long, offset int)
+    public static final int SEGMENT_MAGIC = 0x41554454;
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_FIXED_SIZE = 16;
+    public static final int CHECKPOINT_SIZE = 12;
+    public static final int MAX_CHECKPOINTS = 680;
+    public static final int HEADER_SIZE = 8192;
+    // ban ghi: do dai (int, ghi sau cung, 0 = het du lieu), timestamp (long), loai (byte), do dai dia chi (byte) + dia chi, do dai username (byte) + username UTF-8
+    public static final int RECORD_FIXED_SIZE = 4 + 8 + 1 + 1 + 1;
+    public static final int MAX_USERNAME_BYTES = 255;
+    public static final int MIN_SEGMENT_SIZE = HEADER_SIZE + 64 * 1024;
+    public static final int DRAIN_BATCH_SIZE = 1024;
+    public static final String RECORDED_METRIC = "user.audit.recorded";
+    public static final String DROPPED_METRIC = "user.audit.dropped";
+    public static final String WRITE_FAILURES_METRIC = "user.audit.write.failures";
+    public static final String WRITER_THREAD_NAME = "auth-audit-writer";
+    public static final long IDLE_PARK_NANOS = 1_000_000;
+    public static final long WRITER_SHUTDOWN_TIMEOUT_MILLIS = 10_000;
+    public static final String QUERY_TOOL_USAGE = "usage: AuditQueryTool <folder> <from ISO-8601> <to ISO-8601> [username]";
+    public static final String AUDIT_WRITE_FAILED = "Could not write authentication audit record: ";
+    public static final String SEGMENTS_NOT_DELETED = "Could not delete expired authentication audit segments: ";
+    public static final String SEGMENTS_DELETED = "Deleted expired authentication audit segments: ";
+}
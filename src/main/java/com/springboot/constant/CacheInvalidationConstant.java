@@ -0,0 +1,20 @@
+package com.springboot.constant;
+
+public class CacheInvalidationConstant {
+    public static final String INVALIDATION_PREFIX = "user.invalidation";
+    public static final String FLUSH_THREAD_NAME = "cache-invalidation-flush";
+    public static final String POLL_THREAD_NAME = "cache-invalidation-poll";
+    public static final String RECEIVE_THREAD_NAME = "cache-invalidation-receive";
+    public static final String PUBLISHED_METRIC = "user.invalidation.published";
+    public static final String RECEIVED_METRIC = "user.invalidation.received";
+    public static final String GAPS_METRIC = "user.invalidation.gaps";
+    // datagram UDP toi da ~64KB, lon hon thi gui full flush
+    public static final int MULTICAST_MAX_MESSAGE_BYTES = 60_000;
+    public static final int POLL_PAGE_SIZE = 500;
+    // IDENTITY cap id truoc khi commit, dong commit cham co id nho hon dong da doc nen moi lan poll doc lai vai dong truoc do
+    public static final int POLL_LOOKBACK_ROWS = 64;
+    public static final String INVALIDATION_NOT_PUBLISHED = "Could not publish cache invalidation: ";
+    public static final String INVALIDATION_NOT_APPLIED = "Could not apply cache invalidation from node ";
+    public static final String INVALIDATION_NOT_READ = "Could not read cache invalidations: ";
+    public static final String INVALIDATION_GAP = "Cache invalidation gap from node %s: last received %d, sender at %d, flushing all caches";
+}
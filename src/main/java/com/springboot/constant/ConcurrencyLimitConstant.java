@@ -0,0 +1,28 @@
+package com.springboot.constant;
+
+import com.springboot.enumeration.Permission;
+
+public class ConcurrencyLimitConstant {
+    public static final String LIMIT_METRIC = "http.concurrency.limit";
+    public static final String IN_FLIGHT_METRIC = "http.concurrency.in-flight";
+    public static final String REJECTED_METRIC = "http.concurrency.rejected";
+    public static final String GROUP_TAG = "group";
+    public static final String PRIORITY_TAG = "priority";
+    // token co quyen nay (ADMIN, SUPER_ADMIN) duoc dung phan suc chua danh rieng
+    public static final Permission PRIORITY_PERMISSION = Permission.CREATE;
+    public static final String SERVER_OVERLOADED = "Server is overloaded. Please retry shortly";
+    public static final String RETRY_AFTER_SECONDS = "1";
+    public static final String[] AUTHENTICATION_PATHS = { "/user/login", "/user/register", "/user/token/refresh" };
+    public static final String[] BULK_PATHS = { "/user/import", "/user/export" };
+    public static final String IMAGE_PATH_PREFIX = "/user/image/";
+    // ket noi dai (SSE) va health probe khong bi gioi han
+    public static final String[] UNLIMITED_PATH_PREFIXES = { "/user/events", "/actuator/" };
+    // so mau toi thieu cua 1 cua so truoc khi tinh lai limit
+    public static final int MIN_WINDOW_SAMPLES = 5;
+    // gradient = TOLERANCE * rtt dai han / rtt ngan han, cho phep latency tang 50% truoc khi giam limit
+    public static final double RTT_TOLERANCE = 1.5;
+    public static final double MIN_GRADIENT = 0.5;
+    // so cua so de rtt dai han bat kip rtt ngan han
+    public static final int LONG_RTT_WINDOWS = 60;
+    public static final double DROP_DECREASE_FACTOR = 0.9;
+}
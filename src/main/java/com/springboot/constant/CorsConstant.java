@@ -0,0 +1,16 @@
+package com.springboot.constant;
+
+public class CorsConstant {
+    public static final String ALL_PATHS = "/**";
+    public static final String[] ALLOWED_HEADERS = { "Origin", "Access-Control-Allow-Origin", "Content-Type",
+            "Accept", "Jwt-Token", "Refresh-Token", "Authorization", "If-None-Match", "X-Requested-With",
+            "Access-Control-Request-Method", "Access-Control-Request-Headers" };
+    public static final String[] EXPOSED_HEADERS = { "Origin", "Content-Type", "Accept", "Jwt-Token", "Refresh-Token",
+            "Authorization", "ETag", "Access-Control-Allow-Origin", "Access-Control-Allow-Credentials" };
+    public static final String[] ALLOWED_METHODS = { "GET", "POST", "PUT", "DELETE", "OPTIONS" };
+    public static final String HEADER_VALUE_SEPARATOR = ", ";
+    public static final String PREFLIGHT_METRIC = "http.cors.preflight";
+    public static final String RESULT_TAG = "result";
+    // giong DefaultCorsProcessor de client nhan cung 1 loi du preflight bi chan o filter nao
+    public static final String INVALID_CORS_REQUEST = "Invalid CORS request";
+}
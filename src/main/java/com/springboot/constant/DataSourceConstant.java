@@ -0,0 +1,10 @@
+package com.springboot.constant;
+
+public class DataSourceConstant {
+    public static final String PRIMARY_DATASOURCE_PREFIX = "datasource.primary";
+    public static final String REPLICA_DATASOURCE_PREFIX = "datasource.replica";
+    public static final int REPLICA_VALIDATION_TIMEOUT_SECONDS = 2;
+    public static final int MAX_STICKY_CLIENTS = 100_000;
+    public static final String REPLICA_MARKED_DOWN = "Replica datasource is unavailable, routing reads to primary: ";
+    public static final String REPLICA_MARKED_UP = "Replica datasource is healthy again, routing reads to replica";
+}
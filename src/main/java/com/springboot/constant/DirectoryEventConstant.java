@@ -0,0 +1,16 @@
+package com.springboot.constant;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+public class DirectoryEventConstant {
+    public static final String ALL_USERS_KEY = "*";
+    public static final byte[] HEARTBEAT_FRAME = ":heartbeat\n\n".getBytes(US_ASCII);
+    public static final String EVENT_ID_FIELD = "id:";
+    public static final String EVENT_NAME_FIELD = "event:";
+    public static final String EVENT_DATA_FIELD = "data:";
+    public static final String SUBSCRIBERS_METRIC = "user.events.subscribers";
+    public static final String SLOW_CONSUMERS_METRIC = "user.events.slow-consumers";
+    public static final String SENT_EVENTS_METRIC = "user.events.sent";
+    public static final String SLOW_CONSUMER_DISCONNECTED = "Disconnected slow event subscriber: ";
+    public static final String EVENT_NOT_SERIALIZED = "Could not serialize directory event: ";
+}
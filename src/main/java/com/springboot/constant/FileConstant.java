@@ -4,6 +4,15 @@ public class FileConstant {
     public static final String USER_IMAGE_PATH = "/user/image/";
     public static final String JPG_EXTENSION = "jpg";
     public static final String USER_FOLDER = System.getProperty("user.home") + "/spring-jwt-angular/user/";
+    public static final String BLOB_FOLDER = System.getProperty("user.home") + "/spring-jwt-angular/blob/";
+    public static final String BLOB_STORAGE_PREFIX = "user.image.storage";
+    public static final String BLOB_IMAGE_PATH = "/user/image/blob/";
+    public static final String BLOB_HASH_PATTERN = "[0-9a-f]{64}";
+    public static final String TEMP_FILE_PREFIX = "upload-";
+    public static final String TEMP_FILE_SUFFIX = ".tmp";
+    public static final String INVALID_BLOB_HASH = "Invalid image hash: ";
+    public static final String IMAGE_MIGRATED = "Migrated profile image to blob storage for: ";
+    public static final String UNREFERENCED_IMAGES_DELETED = "Deleted unreferenced profile images: ";
     public static final String DIRECTORY_CREATED = "Created directory for: ";
     public static final String DEFAULT_USER_IMAGE_PATH = "/user/image/profile/";
     public static final String FILE_SAVED_IN_FILE_SYSTEM = "Save file in file system by name: ";
@@ -0,0 +1,11 @@
+package com.springboot.constant;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+public class LoggingConstant {
+    // log theo tung request (dang nhap, loi...) gan marker nay de bi gioi han toc do va lay mau (xem SamplingTurboFilter)
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+    public static final String SAMPLED_EVENTS_SUPPRESSED = "Suppressed sampled log events: ";
+    public static final long SAMPLING_WINDOW_NANOS = 1_000_000_000L;
+}
@@ -0,0 +1,26 @@
+package com.springboot.constant;
+
+import java.util.regex.Pattern;
+
+public class QueryMetricsConstant {
+    public static final String QUERY_METRIC = "jdbc.query";
+    public static final String SLOW_QUERY_METRIC = "jdbc.query.slow";
+    public static final String REPEATED_QUERY_METRIC = "jdbc.query.repeated";
+    public static final String REQUEST_QUERIES_METRIC = "http.server.requests.queries";
+    public static final String SHAPE_TAG = "shape";
+    public static final String TYPE_TAG = "type";
+    public static final String ROUTE_TAG = "route";
+    public static final String START_NANOS = "startNanos";
+    // gioi han so shape co metric rieng, cau SQL sinh dong vuot qua thi gop vao OTHER_SHAPE
+    public static final int MAX_SHAPES = 500;
+    public static final String OTHER_SHAPE = "other";
+    public static final String UNMAPPED_ROUTE = "unmapped";
+    public static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    public static final Pattern LITERAL = Pattern.compile("'(?:[^']|'')*'|\\b\\d+\\b");
+    // danh sach cot Hibernate sinh ra rat dai va khong giup phan biet truy van
+    public static final Pattern SELECT_LIST = Pattern.compile("^select .+? from ");
+    public static final Pattern INSERT_COLUMNS = Pattern.compile("^insert into (\\S+) \\(.*?\\) values");
+    public static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    public static final String SLOW_QUERY = "Slow query (%d ms): %s";
+    public static final String REPEATED_QUERY = "Repeated query in %s %s: %d x %s";
+}
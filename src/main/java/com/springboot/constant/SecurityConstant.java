@@ -1,16 +1,26 @@
 package com.springboot.constant;
 
 public class SecurityConstant {
-    public static final long EXPIRATION_TIME = 432_000_000; // 5 days expressed in milliseconds
+    public static final long EXPIRATION_TIME = 900_000; // 15 minutes expressed in milliseconds
+    public static final long REFRESH_EXPIRATION_TIME = 432_000_000; // 5 days expressed in milliseconds
     public static final String TOKEN_PREFIX = "Bearer ";
     public static final String JWT_TOKEN_HEADER = "Jwt-Token";
+    public static final String REFRESH_TOKEN_HEADER = "Refresh-Token";
+    public static final String TOKEN_TYPE = "typ";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
+    public static final String REFRESH_TOKEN_REUSED = "Refresh token was reused, revoking all tokens of user: ";
     public static final String TOKEN_CANNOT_BE_VERIFIED = "Token cannot be verified";
     public static final String GET_ARRAYS_LLC = "Get Arrays, LLC";
     public static final String GET_ARRAYS_ADMINISTRATION = "User Management Portal";
     public static final String AUTHORITIES = "authorities";
+    public static final String PERMISSIONS = "prm";
+    public static final String ISSUED_AT_MILLIS = "iat_ms";
     public static final String FORBIDDEN_MESSAGE = "You need to log in to access this page";
     public static final String ACCESS_DENIED_MESSAGE = "You do not have permission to access this page";
     public static final String OPTIONS_HTTP_METHOD = "OPTIONS";
-    public static final String[] PUBLIC_URLS = { "/user/login", "/user/register", "/user/image/**" };
+    public static final String[] PUBLIC_URLS = { "/user/login", "/user/register", "/user/token/refresh", "/user/image/**", "/actuator/health/**" };
+    public static final int REVOCATION_EXPECTED_INSERTIONS = 100_000;
+    public static final double REVOCATION_FALSE_POSITIVE_RATE = 0.01;
+    public static final long REVOCATION_PRUNE_INTERVAL = 3_600_000; // 1 hour expressed in milliseconds
     //public static final String[] PUBLIC_URLS = { "**" };
 }
@@ -0,0 +1,8 @@
+package com.springboot.constant;
+
+public class StartupConstant {
+    public static final String WARM_UP_USERNAME = "warm-up";
+    public static final String WARM_UP_PASSWORD = "warm-up-password";
+    public static final String WARM_UP_FINISHED = "Warm-up finished in ms: ";
+    public static final String TRAINING_RUN_FINISHED = "Training run finished, exiting";
+}
@@ -0,0 +1,12 @@
+package com.springboot.constant;
+
+public class UserBulkConstant {
+    // so user moi cau UPDATE, nho hon MAX_CHANGES vi ca chunk dung chung 1 version
+    public static final int BULK_CHUNK_SIZE = 500;
+    public static final String BULK_PATH_PREFIX = "/user/bulk/";
+    public static final String EMPTY_SELECTION = "Select users by usernames or by at least one filter";
+    public static final String MISSING_ROLE = "Parameter role is required to change roles";
+    public static final String UNKNOWN_ACTION = "Unknown bulk action: ";
+    public static final String UNKNOWN_ROLE = "Unknown role: ";
+    public static final String USERS_BULK_UPDATED = "Bulk %s: matched %d, updated %d, tokens revoked %d";
+}
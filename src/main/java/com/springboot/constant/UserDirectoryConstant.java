@@ -0,0 +1,10 @@
+package com.springboot.constant;
+
+public class UserDirectoryConstant {
+    public static final int MAX_CHANGES = 1000;
+    public static final String DIRECTORY_VERSION_LOADED = "User directory version: ";
+    // dang nhap khong cap version (xem UserServiceImpl.loadUserByUsername) nen 2 truong nay khong duoc nam trong
+    // cac ban co version (danh sach, /find, /changes, SSE), chi tra ve o login va token/refresh
+    public static final String LAST_LOGIN_DATE = "lastLoginDate";
+    public static final String LAST_LOGIN_DATE_DISPLAY = "lastLoginDateDisplay";
+}
@@ -0,0 +1,15 @@
+package com.springboot.constant;
+
+public class UserExportConstant {
+    // Integer.MIN_VALUE bao MySQL Connector/J tra ve tung dong (streaming result set), driver khac tu choi gia tri am
+    public static final int MYSQL_STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    // H2, PostgreSQL...: doc theo tung khoi qua cursor
+    public static final int CURSOR_FETCH_SIZE = 1000;
+    public static final String EXPORT_QUERY = "select u from User u";
+    public static final String EXPORT_FILE_NAME = "users";
+    public static final String GZIP_ENCODING = "gzip";
+    public static final String CSV_SEPARATOR = ",";
+    public static final String LINE_SEPARATOR = "\n";
+    public static final int DETACH_INTERVAL = 1000;
+    public static final String USERS_EXPORTED = "Exported users: ";
+}
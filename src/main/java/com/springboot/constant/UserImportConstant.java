@@ -0,0 +1,13 @@
+package com.springboot.constant;
+
+public class UserImportConstant {
+    public static final int IMPORT_CHUNK_SIZE = 500;
+    public static final String CSV_HEADER_FIRST_COLUMN = "firstName";
+    public static final String CSV_SEPARATOR = ",";
+    public static final String MISSING_REQUIRED_FIELD = "Missing required field: ";
+    public static final String MALFORMED_ROW = "Malformed row: ";
+    public static final String INVALID_ROLE = "Invalid role: ";
+    public static final String DUPLICATE_USERNAME_IN_IMPORT = "Username appears more than once in import";
+    public static final String DUPLICATE_EMAIL_IN_IMPORT = "Email appears more than once in import";
+    public static final String USERS_IMPORTED = "Imported users: ";
+}
@@ -0,0 +1,10 @@
+package com.springboot.constant;
+
+public class UserReaperConstant {
+    public static final String PURGED_USERS_METRIC = "user.reaper.purged";
+    public static final String FAILED_USERS_METRIC = "user.reaper.failures";
+    public static final String PENDING_USERS_METRIC = "user.reaper.pending";
+    public static final String REAPER_RUN_METRIC = "user.reaper.run";
+    public static final String USERS_PURGED = "Purged soft-deleted users: ";
+    public static final String USER_FOLDER_NOT_DELETED = "Could not delete folder of soft-deleted user: ";
+}
@@ -0,0 +1,26 @@
+package com.springboot.constant;
+
+public class UserSearchConstant {
+    // tu dai hon nguong nay dung chung bucket cuoi cua index tien to
+    public static final int MAX_TERM_LENGTH = 64;
+    // total chinh xac toi nguong nay, nhieu hon thi dung dem (total = nguong)
+    public static final int MAX_COUNTED_HITS = 10_000;
+    // truy van nhieu tu: so ung vien toi da duoc cham diem day du
+    public static final int MAX_SCORED_CANDIDATES = 2_000;
+    // chi lay ket qua trong MAX_RESULT_WINDOW dau tien, trang sau do tra ve rong
+    public static final int MAX_RESULT_WINDOW = 1_000;
+    // tu chinh khong khop chinh xac va co it ung vien tien to hon nguong nay thi moi tim gan dung qua trigram
+    public static final int FUZZY_FALLBACK_HITS = 20;
+    public static final int MAX_FUZZY_TERMS = 200;
+    // trigram xuat hien trong nhieu tu hon nguong nay khong giup loc, khong luu posting nua
+    public static final int MAX_TRIGRAM_POSTINGS = 5_000;
+    public static final int NGRAM_SIZE = 3;
+    public static final double MIN_TRIGRAM_OVERLAP = 0.4;
+    public static final String NGRAM_BOUNDARY = "$";
+    public static final double MIN_FUZZY_SIMILARITY = 0.25;
+    // so posting cua user da xoa/sua toi thieu truoc khi don posting
+    public static final int MIN_DEAD_POSTINGS_TO_COMPACT = 10_000;
+    public static final int INDEX_LOAD_PAGE_SIZE = 1000;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final String SEARCH_INDEX_BUILT = "User search index built, indexed users: ";
+}
@@ -1,34 +1,67 @@
 package com.springboot.controller;
 
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.springboot.annotation.RequirePermission;
+import com.springboot.datasource.ReplicaLagGuard;
+import com.springboot.entity.BulkUserResult;
+import com.springboot.entity.BulkUserSelection;
+import com.springboot.entity.CachedUserList;
 import com.springboot.entity.HttpResponse;
 import com.springboot.entity.User;
+import com.springboot.entity.UserChanges;
+import com.springboot.entity.UserImportResult;
 import com.springboot.entity.UserPrincipal;
+import com.springboot.entity.UserSearchResult;
+import com.springboot.enumeration.UserDataFormat;
+import com.springboot.enumeration.UserExportColumn;
 import com.springboot.exception.entity.EmailExistException;
 import com.springboot.exception.entity.EmailNotFoundException;
+import com.springboot.exception.entity.InvalidBulkRequestException;
+import com.springboot.exception.entity.StacklessDisabledException;
+import com.springboot.exception.entity.StacklessLockedException;
 import com.springboot.exception.entity.UserNotFoundException;
 import com.springboot.exception.entity.UsernameExistException;
+import com.springboot.service.DirectoryEventService;
+import com.springboot.service.DirectoryVersionService;
+import com.springboot.service.ProfileImageService;
+import com.springboot.service.RefreshTokenService;
+import com.springboot.service.TokenRevocationService;
+import com.springboot.service.UserBulkService;
+import com.springboot.service.UserExportService;
+import com.springboot.service.UserImportService;
+import com.springboot.service.UserJsonCache;
+import com.springboot.service.UserSearchService;
 import com.springboot.service.UserService;
 import com.springboot.utility.JWTTokenProvider;
 import lombok.AllArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
-import java.nio.file.Files;
-import java.nio.file.Paths;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 import static com.springboot.constant.FileConstant.*;
-import static com.springboot.constant.SecurityConstant.JWT_TOKEN_HEADER;
+import static com.springboot.constant.SecurityConstant.*;
+import static com.springboot.constant.UserExportConstant.*;
+import static com.springboot.enumeration.Permission.*;
 import static org.springframework.http.HttpStatus.NO_CONTENT;
 import static org.springframework.http.HttpStatus.OK;
 import static org.springframework.http.MediaType.IMAGE_JPEG_VALUE;
@@ -40,13 +73,51 @@ public class UserController {
     public static final String USER_DELETED_SUCCESSFULLY = "User deleted successfully!";
     public static final String EMAIL_SENT = "An email with a new password was sent to: ";
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserBulkService userBulkService;
+    private final UserExportService userExportService;
+    private final UserSearchService userSearchService;
     private final AuthenticationManager authenticationManager;
     private final JWTTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final ProfileImageService profileImageService;
+    private final DirectoryVersionService directoryVersionService;
+    private final DirectoryEventService directoryEventService;
+    private final UserJsonCache userJsonCache;
 
+    // ETag la version cua danh sach, lay truoc khi query nen neu co thay doi trong luc query thi lan sau client van tai lai
+    // JSON (va ban gzip) duoc cache theo version, chi query va serialize lai khi danh sach thay doi
     @GetMapping("")
-    public ResponseEntity<List<User>> getAll(){
-        List<User> users = userService.getAll();
-        return new ResponseEntity<>(users, HttpStatus.OK);
+    public ResponseEntity<byte[]> getAll(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
+        long version = directoryVersionService.currentVersion();
+        String eTag = "\"" + version + "\"";
+        if (eTag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        CachedUserList userList = userJsonCache.getUserList(version, () -> ReplicaLagGuard.readFromPrimary(userService::getAll));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (userList.getGzip() != null && StringUtils.containsIgnoreCase(acceptEncoding, GZIP_ENCODING)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING).body(userList.getGzip());
+        }
+        return response.body(userList.getJson());
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<UserChanges> getChanges(@RequestParam("since") long sinceVersion) {
+        // version tra ve la con tro cho lan goi sau, doc tu replica tre se bo sot thay doi
+        return new ResponseEntity<>(ReplicaLagGuard.readFromPrimary(() -> userService.getChanges(sinceVersion)), OK);
+    }
+
+    // request da duoc JwtAuthorizationFilter xac thuc, doc lai token chi de lay thoi diem het han
+    // ghi thang vao response (servlet async, non-blocking) thay vi SseEmitter de client cham khong giu sender thread
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void subscribe(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorizationHeader,
+                          HttpServletRequest request, HttpServletResponse response) throws IOException {
+        DecodedJWT decodedJWT = jwtTokenProvider.verify(authorizationHeader.substring(TOKEN_PREFIX.length()));
+        directoryEventService.subscribe(decodedJWT.getSubject(), jwtTokenProvider.getIssuedAt(decodedJWT), decodedJWT.getExpiresAt(), request, response);
     }
 
     @PostMapping("/register")
@@ -57,21 +128,55 @@ public class UserController {
 
     @PostMapping("/login")
     public ResponseEntity<User> login(@RequestBody User user) {
-        authenticate(user.getUsername(), user.getPassword());
-        User userLogin = userService.findByUsername(user.getUsername());
-        UserPrincipal userPrincipal = new UserPrincipal(userLogin);
+        // user da duoc doc (va cap nhat lan dang nhap) khi xac thuc, khong can truy van lai
+        UserPrincipal userPrincipal = authenticate(user.getUsername(), user.getPassword());
+        User userLogin = userPrincipal.getUser();
         HttpHeaders httpHeaders = getJwtHeader(userPrincipal);
         return new ResponseEntity<>(userLogin, httpHeaders ,HttpStatus.OK);
     }
 
+    @PostMapping("/token/refresh")
+    public ResponseEntity<User> refreshToken(@RequestHeader(REFRESH_TOKEN_HEADER) String refreshToken) {
+        DecodedJWT decodedJWT = jwtTokenProvider.verify(refreshToken);
+        if (!jwtTokenProvider.isRefreshToken(decodedJWT) || tokenRevocationService.isRevoked(decodedJWT.getSubject(), jwtTokenProvider.getIssuedAt(decodedJWT))) {
+            throw new JWTVerificationException(TOKEN_CANNOT_BE_VERIFIED);
+        }
+        User user = userService.findByUsername(decodedJWT.getSubject());
+        if (user == null) {
+            throw new JWTVerificationException(TOKEN_CANNOT_BE_VERIFIED);
+        }
+        UserPrincipal userPrincipal = new UserPrincipal(user);
+        if (!userPrincipal.isAccountNonLocked()) {
+            throw new StacklessLockedException(TOKEN_CANNOT_BE_VERIFIED);
+        }
+        if (!userPrincipal.isEnabled()) {
+            throw new StacklessDisabledException(TOKEN_CANNOT_BE_VERIFIED);
+        }
+        // refresh token cu het dung sau lan doi nay
+        if (!refreshTokenService.markUsed(decodedJWT.getId(), user.getUsername(), decodedJWT.getExpiresAt())) {
+            throw new JWTVerificationException(TOKEN_CANNOT_BE_VERIFIED);
+        }
+        return new ResponseEntity<>(user, getJwtHeader(userPrincipal), OK);
+    }
+
     @GetMapping("/find/{username}")
-    public ResponseEntity<User> findById(@PathVariable("username") String username){
+    public ResponseEntity<byte[]> findById(@PathVariable("username") String username){
         User user = userService.findByUsername(username);
-        return new ResponseEntity<>(user, OK);
+        if (user == null) {
+            return ResponseEntity.ok().build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(userJsonCache.toJson(user));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<UserSearchResult> search(@RequestParam("q") String query,
+                                                   @RequestParam(value = "page", defaultValue = "0") int page,
+                                                   @RequestParam(value = "size", defaultValue = "20") int size) {
+        return new ResponseEntity<>(userSearchService.search(query, page, size), OK);
     }
 
     @PostMapping("/add")
-    @PreAuthorize("hasAuthority('user:create')")
+    @RequirePermission(CREATE)
     public ResponseEntity<User> addUser(@RequestParam("firstName") String firstName,
                                         @RequestParam("lastName") String lastName,
                                         @RequestParam("username") String username,
@@ -86,8 +191,52 @@ public class UserController {
         return new ResponseEntity<>(user, HttpStatus.OK);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @RequirePermission(CREATE)
+    public ResponseEntity<UserImportResult> importUsers(HttpServletRequest request) throws IOException {
+        UserImportResult result = userImportService.importUsers(request.getInputStream(), UserDataFormat.fromContentType(request.getContentType()));
+        return new ResponseEntity<>(result, OK);
+    }
+
+    @GetMapping("/export")
+    @RequirePermission(READ)
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(value = "format", defaultValue = "csv") String format,
+                                                             @RequestParam(value = "columns", required = false) List<String> columns,
+                                                             @RequestParam(value = "gzip", defaultValue = "false") boolean gzip) {
+        UserDataFormat dataFormat = UserDataFormat.valueOf(format.toUpperCase());
+        List<UserExportColumn> exportColumns = columns == null || columns.isEmpty()
+                ? Arrays.asList(UserExportColumn.values())
+                : columns.stream().map(UserExportColumn::fromColumnName).collect(Collectors.toList());
+        String fileName = EXPORT_FILE_NAME + DOT + dataFormat.name().toLowerCase();
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_TYPE, dataFormat.getMediaType());
+        headers.add(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + fileName);
+        if (gzip) {
+            headers.add(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+        }
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                try (OutputStream gzipOutputStream = new GZIPOutputStream(outputStream)) {
+                    userExportService.exportUsers(gzipOutputStream, dataFormat, exportColumns);
+                }
+            } else {
+                userExportService.exportUsers(outputStream, dataFormat, exportColumns);
+            }
+        };
+        return new ResponseEntity<>(body, headers, OK);
+    }
+
+    // lock | unlock | activate | deactivate | role (kem ?role=ROLE_...), body chon user theo username hoac bo loc
+    @PostMapping("/bulk/{action}")
+    @RequirePermission(UPDATE)
+    public ResponseEntity<BulkUserResult> bulkUpdate(@PathVariable("action") String action,
+                                                     @RequestParam(value = "role", required = false) String role,
+                                                     @RequestBody BulkUserSelection selection) throws InvalidBulkRequestException {
+        return new ResponseEntity<>(userBulkService.apply(UserBulkService.parseAction(action), role, selection), OK);
+    }
+
     @PostMapping("/update")
-    @PreAuthorize("hasAuthority('user:update')")
+    @RequirePermission(UPDATE)
     public ResponseEntity<User> updateUser(
                                         @RequestParam("currentUsername") String currentUsername,
                                         @RequestParam("firstName") String firstName,
@@ -104,7 +253,7 @@ public class UserController {
     }
 
     @DeleteMapping("/delete/{username}")
-    @PreAuthorize("hasAuthority('user:delete')")
+    @RequirePermission(DELETE)
     public ResponseEntity<HttpResponse> deleteUser(@PathVariable("username") String username) throws IOException {
         userService.deleteUser(username);
         return response(OK, USER_DELETED_SUCCESSFULLY);
@@ -124,7 +273,12 @@ public class UserController {
 
     @GetMapping("/image/{username}/{fileName}")
     public byte[] getProfileImage(@PathVariable("username") String username, @PathVariable("fileName") String fileName) throws IOException {
-        return Files.readAllBytes(Paths.get(USER_FOLDER + username + FORWARD_SLASH + fileName));
+        return profileImageService.readLegacy(username, fileName);
+    }
+
+    @GetMapping(path = "/image/blob/{hash}.jpg", produces = IMAGE_JPEG_VALUE)
+    public byte[] getProfileImageBlob(@PathVariable("hash") String hash) throws IOException {
+        return profileImageService.read(hash);
     }
 
     @GetMapping(path = "/image/profile/{username}", produces = IMAGE_JPEG_VALUE)
@@ -147,10 +301,11 @@ public class UserController {
     private HttpHeaders getJwtHeader(UserPrincipal userPrincipal) {
         HttpHeaders headers = new HttpHeaders();
         headers.add(JWT_TOKEN_HEADER, jwtTokenProvider.generateJwtToken(userPrincipal));
+        headers.add(REFRESH_TOKEN_HEADER, jwtTokenProvider.generateRefreshToken(userPrincipal));
         return headers;
     }
 
-    private void authenticate(String username, String password) {
-        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password));
+    private UserPrincipal authenticate(String username, String password) {
+        return (UserPrincipal) authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(username, password)).getPrincipal();
     }
 }
@@ -0,0 +1,99 @@
+package com.springboot.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static com.springboot.constant.LoggingConstant.SAMPLED;
+import static com.springboot.constant.QueryMetricsConstant.*;
+
+// nghe moi cau SQL qua datasource-proxy: timer theo shape (SQL bo tham so), log cau cham
+// va cong vao QueryStatistics cua thread hien tai de dem theo request
+// timer theo shape chi co count/tong/max, khong bat percentile histogram: toi MAX_SHAPES shape x vai chuc bucket moi shape
+// la qua nhieu time series, cau cham thi xem qua counter jdbc.query.slow va log
+public class QueryMetricsListener implements QueryExecutionListener {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final MeterRegistry meterRegistry;
+    private final long slowQueryNanos;
+    // Hibernate dung lai cung 1 chuoi SQL nen chuan hoa 1 lan cho moi chuoi
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Counter slowQueryCounter;
+
+    public QueryMetricsListener(MeterRegistry meterRegistry, long slowQueryMillis) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryNanos = slowQueryMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(slowQueryMillis) : Long.MAX_VALUE;
+        this.slowQueryCounter = meterRegistry.counter(SLOW_QUERY_METRIC);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+        executionInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo executionInfo, List<QueryInfo> queryInfoList) {
+        long elapsedNanos = System.nanoTime() - executionInfo.getCustomValue(START_NANOS, Long.class);
+        // batch nhieu cau khac nhau thi chia deu thoi gian
+        long nanosPerQuery = elapsedNanos / Math.max(1, queryInfoList.size());
+        for (QueryInfo queryInfo : queryInfoList) {
+            String shape = shapeOf(queryInfo.getQuery());
+            int count = executionInfo.isBatch() ? Math.max(1, queryInfo.getParametersList().size()) : 1;
+            timerOf(shape).record(nanosPerQuery, TimeUnit.NANOSECONDS);
+            QueryStatistics.record(shape, count, nanosPerQuery);
+            if (nanosPerQuery >= slowQueryNanos) {
+                slowQueryCounter.increment();
+                LOGGER.warn(SAMPLED, String.format(SLOW_QUERY, TimeUnit.NANOSECONDS.toMillis(nanosPerQuery), shape));
+            }
+        }
+    }
+
+    private String shapeOf(String sql) {
+        String shape = shapes.get(sql);
+        if (shape != null) {
+            return shape;
+        }
+        shape = normalize(sql);
+        if (shapes.size() < MAX_SHAPES * 4) {
+            shapes.put(sql, shape);
+        }
+        return shape;
+    }
+
+    private Timer timerOf(String shape) {
+        Timer timer = timers.get(shape);
+        if (timer != null) {
+            return timer;
+        }
+        String tag = timers.size() < MAX_SHAPES ? shape : OTHER_SHAPE;
+        return timers.computeIfAbsent(tag, key -> Timer.builder(QUERY_METRIC)
+                .tag(SHAPE_TAG, key)
+                .tag(TYPE_TAG, key.equals(OTHER_SHAPE) ? OTHER_SHAPE : statementType(key))
+                .register(meterRegistry));
+    }
+
+    // cung 1 truy van voi so phan tu IN hay gia tri literal khac nhau van la 1 shape
+    static String normalize(String sql) {
+        String shape = LITERAL.matcher(sql).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim().toLowerCase(Locale.ROOT);
+        shape = SELECT_LIST.matcher(shape).replaceFirst("select ... from ");
+        return INSERT_COLUMNS.matcher(shape).replaceFirst("insert into $1 (...) values");
+    }
+
+    private static String statementType(String shape) {
+        int space = shape.indexOf(' ');
+        return space > 0 ? shape.substring(0, space) : shape;
+    }
+}
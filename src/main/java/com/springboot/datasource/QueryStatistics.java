@@ -0,0 +1,63 @@
+package com.springboot.datasource;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// dem cau SQL chay tren thread hien tai trong 1 pham vi (1 request, 1 doan code trong test)
+// pham vi long nhau: cau SQL duoc cong vao ca pham vi cha
+public class QueryStatistics implements AutoCloseable {
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private final QueryStatistics parent;
+    private final Map<String, Integer> shapes = new LinkedHashMap<>();
+    private int statements;
+    private long elapsedNanos;
+
+    private QueryStatistics(QueryStatistics parent) {
+        this.parent = parent;
+    }
+
+    public static QueryStatistics start() {
+        QueryStatistics statistics = new QueryStatistics(CURRENT.get());
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static void record(String shape, int count, long elapsedNanos) {
+        for (QueryStatistics statistics = CURRENT.get(); statistics != null; statistics = statistics.parent) {
+            statistics.statements += count;
+            statistics.elapsedNanos += elapsedNanos;
+            statistics.shapes.merge(shape, count, Integer::sum);
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    // so lan chay theo shape, theo thu tu chay lan dau
+    public Map<String, Integer> getShapes() {
+        return Collections.unmodifiableMap(shapes);
+    }
+
+    // cung 1 cau chay nhieu lan trong 1 pham vi thuong la N+1 hoac truy van lap lai
+    public Map<String, Integer> getRepeated(int threshold) {
+        return shapes.entrySet().stream().filter(entry -> entry.getValue() >= threshold)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, Integer::sum, LinkedHashMap::new));
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+}
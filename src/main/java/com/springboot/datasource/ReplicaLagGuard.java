@@ -0,0 +1,84 @@
+package com.springboot.datasource;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.springboot.constant.DataSourceConstant.MAX_STICKY_CLIENTS;
+
+// read-your-writes theo tung client: sau khi 1 client ghi, doc cua chinh client do di vao primary trong sticky window
+// (replica co the chua kip dong bo), client khac van doc replica. client = username da xac thuc cua request,
+// request chua dang nhap (dang ky) khong co client nen khong bi ghim
+// doc ma ket qua dung chung cho moi client (cache danh sach, con tro version cua /user/changes, index tim kiem)
+// thi chay trong readFromPrimary de khong bi cache/nho lai ban cu cua replica
+@Component
+public class ReplicaLagGuard {
+    private static final ThreadLocal<Integer> PRIMARY_SCOPE = ThreadLocal.withInitial(() -> 0);
+
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReplicaLagGuard(@Value("${datasource.replica.sticky-window-ms:1000}") long stickyWindowMillis) {
+        this.recentWriters = CacheBuilder.newBuilder()
+                .expireAfterWrite(stickyWindowMillis, TimeUnit.MILLISECONDS)
+                .maximumSize(MAX_STICKY_CLIENTS)
+                .build();
+    }
+
+    // client lay luc goi (thread cua request), afterCommit co the chay khi SecurityContext da doi
+    public void markWrite() {
+        String client = currentClient();
+        if (client == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recentWriters.put(client, Boolean.TRUE);
+                }
+            });
+        } else {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+
+    public boolean isReplicaStale() {
+        if (PRIMARY_SCOPE.get() > 0) {
+            return true;
+        }
+        String client = currentClient();
+        return client != null && recentWriters.getIfPresent(client) != null;
+    }
+
+    // phai goi ngoai @Transactional: connection (LazyConnectionDataSourceProxy) chi duoc chon o cau lenh dau tien
+    public static <T> T readFromPrimary(Supplier<T> reader) {
+        PRIMARY_SCOPE.set(PRIMARY_SCOPE.get() + 1);
+        try {
+            return reader.get();
+        } finally {
+            int depth = PRIMARY_SCOPE.get() - 1;
+            if (depth == 0) {
+                PRIMARY_SCOPE.remove();
+            } else {
+                PRIMARY_SCOPE.set(depth);
+            }
+        }
+    }
+
+    private static String currentClient() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated() || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,87 @@
+package com.springboot.datasource;
+
+import com.springboot.enumeration.DataSourceType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.springboot.constant.DataSourceConstant.*;
+import static com.springboot.enumeration.DataSourceType.PRIMARY;
+import static com.springboot.enumeration.DataSourceType.REPLICA;
+
+// datasource dinh tuyen: transaction readOnly di vao replica, con lai di vao primary
+// neu replica loi thi tu dong quay ve primary cho den khi health check thanh cong
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final DataSource primaryDataSource;
+    private final DataSource replicaDataSource;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final AtomicBoolean replicaHealthy = new AtomicBoolean(true);
+
+    public ReplicationRoutingDataSource(DataSource primaryDataSource, DataSource replicaDataSource, ReplicaLagGuard replicaLagGuard) {
+        this.primaryDataSource = primaryDataSource;
+        this.replicaDataSource = replicaDataSource;
+        this.replicaLagGuard = replicaLagGuard;
+        Map<Object, Object> targetDataSources = new HashMap<>();
+        targetDataSources.put(PRIMARY, primaryDataSource);
+        targetDataSources.put(REPLICA, replicaDataSource);
+        setTargetDataSources(targetDataSources);
+        setDefaultTargetDataSource(primaryDataSource);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected DataSourceType determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && replicaHealthy.get() && !replicaLagGuard.isReplicaStale()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == REPLICA) {
+            try {
+                return replicaDataSource.getConnection();
+            } catch (SQLException exception) {
+                markReplicaDown(exception);
+            }
+        }
+        return primaryDataSource.getConnection();
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.health-check-interval-ms:5000}")
+    public void checkReplicaHealth() {
+        try (Connection connection = replicaDataSource.getConnection()) {
+            if (connection.isValid(REPLICA_VALIDATION_TIMEOUT_SECONDS)) {
+                if (replicaHealthy.compareAndSet(false, true)) {
+                    LOGGER.info(REPLICA_MARKED_UP);
+                }
+            } else {
+                markReplicaDown(new SQLException("Connection validation failed"));
+            }
+        } catch (SQLException exception) {
+            markReplicaDown(exception);
+        }
+    }
+
+    public boolean isReplicaHealthy() {
+        return replicaHealthy.get();
+    }
+
+    private void markReplicaDown(SQLException exception) {
+        if (replicaHealthy.compareAndSet(true, false)) {
+            LOGGER.error(REPLICA_MARKED_DOWN + exception.getMessage());
+        }
+    }
+}
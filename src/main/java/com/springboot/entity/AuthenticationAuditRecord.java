@@ -0,0 +1,17 @@
+package com.springboot.entity;
+
+import com.springboot.enumeration.AuthenticationAuditType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 1 lan dang nhap thanh cong / that bai trong audit journal
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuthenticationAuditRecord {
+    private long timestamp;
+    private AuthenticationAuditType type;
+    private String username;
+    private String remoteAddress;
+}
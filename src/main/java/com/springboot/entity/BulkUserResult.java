@@ -0,0 +1,12 @@
+package com.springboot.entity;
+
+import lombok.Data;
+
+// ket qua thao tac hang loat: so user khop, so user thuc su doi trang thai va so user bi thu hoi token
+@Data
+public class BulkUserResult {
+    private long matched;
+    private long updated;
+    private long tokensRevoked;
+    private long elapsedMillis;
+}
@@ -0,0 +1,15 @@
+package com.springboot.entity;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// chon user cho thao tac hang loat: danh sach username, hoac loc theo role / trang thai (null = bo qua)
+@Data
+public class BulkUserSelection {
+    private List<String> usernames = new ArrayList<>();
+    private String role;
+    private Boolean active;
+    private Boolean notLocked;
+}
@@ -0,0 +1,26 @@
+package com.springboot.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+
+// dong cua transport database, cac node poll theo id tang dan, dong cu bi xoa sau retention
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation implements Serializable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false, updatable = false)
+    private Long id;
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+    @Column(nullable = false)
+    private Date createdAt;
+}
@@ -0,0 +1,13 @@
+package com.springboot.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// JSON cua danh sach user tai 1 version, gzip = null neu nho hon nguong nen
+@Data
+@AllArgsConstructor
+public class CachedUserList {
+    private long version;
+    private byte[] json;
+    private byte[] gzip;
+}
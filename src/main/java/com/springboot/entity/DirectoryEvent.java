@@ -0,0 +1,22 @@
+package com.springboot.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.springboot.enumeration.DirectoryEventType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import static com.springboot.constant.UserDirectoryConstant.LAST_LOGIN_DATE;
+import static com.springboot.constant.UserDirectoryConstant.LAST_LOGIN_DATE_DISPLAY;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DirectoryEvent {
+    private DirectoryEventType type;
+    private long version;
+    private String userId;
+    // null voi DELETED va RESYNC
+    @JsonIgnoreProperties({LAST_LOGIN_DATE, LAST_LOGIN_DATE_DISPLAY})
+    private User user;
+}
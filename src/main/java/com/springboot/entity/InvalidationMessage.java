@@ -0,0 +1,26 @@
+package com.springboot.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+// 1 lo invalidation da gop gui giua cac node, cung la event noi bo gui toi cac cache khi nhan
+// sequence tang lien tuc theo node, heartbeat mang sequence hien tai de phat hien mat message cuoi
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvalidationMessage {
+    private String node;
+    private long sequence;
+    private boolean heartbeat;
+    private boolean flushAll;
+    private long directoryVersion;
+    private Set<Long> userIds;
+    private Set<String> usernames;
+
+    public static InvalidationMessage flushAll(String node, long sequence) {
+        return new InvalidationMessage(node, sequence, false, true, 0, Set.of(), Set.of());
+    }
+}
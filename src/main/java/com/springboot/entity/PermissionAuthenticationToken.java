@@ -0,0 +1,18 @@
+package com.springboot.entity;
+
+import com.springboot.enumeration.Permission;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+// authentication dung cho request co JWT, giu luon bitmask quyen de kiem tra quyen khong phai duyet authorities
+public class PermissionAuthenticationToken extends UsernamePasswordAuthenticationToken {
+    private final int permissionMask;
+
+    public PermissionAuthenticationToken(String username, int permissionMask) {
+        super(username, null, Permission.grantedAuthoritiesOf(permissionMask));
+        this.permissionMask = permissionMask;
+    }
+
+    public int getPermissionMask() {
+        return permissionMask;
+    }
+}
@@ -0,0 +1,25 @@
+package com.springboot.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.util.Date;
+
+// moi token cua username phat hanh truoc thoi diem revokedAt deu bi thu hoi
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocation implements Serializable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(nullable = false, updatable = false)
+    private Long id;
+    @Column(nullable = false, unique = true)
+    private String username;
+    @Column(nullable = false)
+    private Date revokedAt;
+}
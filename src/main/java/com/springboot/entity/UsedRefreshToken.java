@@ -0,0 +1,26 @@
+package com.springboot.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.io.Serializable;
+import java.util.Date;
+
+// refresh token (theo jti) da duoc doi lay cap token moi, giu toi khi token het han
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UsedRefreshToken implements Serializable {
+    @Id
+    @Column(nullable = false, updatable = false)
+    private String tokenId;
+    @Column(nullable = false)
+    private String username;
+    @Column(nullable = false)
+    private Date expiresAt;
+}
@@ -1,36 +1,68 @@
 package com.springboot.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.springboot.enumeration.Permission;
+import com.springboot.enumeration.Role;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Where;
 
 import javax.persistence.*;
 import java.io.Serializable;
 import java.util.Date;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "ux_user_user_id", columnList = "userId", unique = true),
+        @Index(name = "ix_user_deleted_at", columnList = "deletedAt"),
+        @Index(name = "ix_user_updated_at", columnList = "updatedAt"),
+        @Index(name = "ix_user_username", columnList = "username")
+})
+// user da bi xoa mem (deletedAt != null) bi an khoi moi truy van, reaper se don dep sau
+@Where(clause = "deleted_at is null")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User implements Serializable {
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    // pooled-lo: lay truoc 1 khoang id tu bang hibernate_sequence de Hibernate co the insert theo batch
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_id_generator")
+    @GenericGenerator(name = "user_id_generator", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "hibernate_sequence"),
+            @Parameter(name = "force_table_use", value = "true"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled-lo")
+    })
     @Column(nullable = false, updatable = false)
     private Long id;
     private String userId;
     private String firstName;
     private String lastName;
     private String username;
+    // chi doc tu request (dang ky, dang nhap, import), khong bao gio ghi ra JSON (REST, SSE, cache)
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
     private String password;
     private String email;
     private String profileImageUrl;
+    // sha256 cua anh dai dien, file nam o BLOB_FOLDER/ab/cd/<hash>.jpg
+    private String profileImageHash;
     private Date lastLoginDate;
     private Date lastLoginDateDisplay;
     private Date joinDate;
     private String role;
-    private String[] authorities;
+    // tap quyen luu dang bitmask (xem Permission), thay cho mang String[] bi serialize thanh blob
+    @JsonIgnore
+    private Integer permissionMask;
     private boolean isActive;
     private boolean isNotLocked;
+    @JsonIgnore
+    private Date deletedAt;
+    // version cua lan sua cuoi (xem DirectoryVersionService), dung cho dong bo delta
+    private Date updatedAt;
 
     public User(String userId, String firstName, String lastName, String username, String password, String email, String profileImageUrl, Date lastLoginDate, Date lastLoginDateDisplay, Date joinDate, String role, String[] authorities, boolean isActive, boolean isNotLocked) {
         this.userId = userId;
@@ -44,8 +76,29 @@ public class User implements Serializable {
         this.lastLoginDateDisplay = lastLoginDateDisplay;
         this.joinDate = joinDate;
         this.role = role;
-        this.authorities = authorities;
+        setAuthorities(authorities);
         this.isActive = isActive;
         this.isNotLocked = isNotLocked;
     }
+
+    // user cu chua duoc migrate thi suy ra quyen tu role, role la (da bi xoa khoi enum) thi khong co quyen nao
+    public Integer getPermissionMask() {
+        if (permissionMask == null && role != null) {
+            try {
+                return Role.valueOf(role).getPermissionMask();
+            } catch (IllegalArgumentException exception) {
+                return 0;
+            }
+        }
+        return permissionMask;
+    }
+
+    public String[] getAuthorities() {
+        Integer mask = getPermissionMask();
+        return mask == null ? new String[0] : Permission.authoritiesOf(mask);
+    }
+
+    public void setAuthorities(String[] authorities) {
+        this.permissionMask = Permission.maskOf(authorities);
+    }
 }
@@ -0,0 +1,26 @@
+package com.springboot.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+import static com.springboot.constant.UserDirectoryConstant.LAST_LOGIN_DATE;
+import static com.springboot.constant.UserDirectoryConstant.LAST_LOGIN_DATE_DISPLAY;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserChanges {
+    // version de gui lai o lan hoi tiep theo
+    private long version;
+    // client qua cu (tombstone da bi reaper xoa), phai thay ca danh sach bang users
+    private boolean fullResync;
+    // con thay doi chua tra ve, goi tiep voi version nay
+    private boolean hasMore;
+    @JsonIgnoreProperties({LAST_LOGIN_DATE, LAST_LOGIN_DATE_DISPLAY})
+    private List<User> users;
+    private List<String> deletedUserIds;
+}
@@ -0,0 +1,16 @@
+package com.springboot.entity;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+// mot dong import (CSV hoac NDJSON): chi cac cot cua file CSV, truong khac cua User trong NDJSON bi bo qua
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class UserImportRecord {
+    private String firstName;
+    private String lastName;
+    private String username;
+    private String email;
+    private String password;
+    private String role;
+}
@@ -0,0 +1,23 @@
+package com.springboot.entity;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// ket qua import: so dong thanh cong va danh sach loi theo tung dong
+@Data
+public class UserImportResult {
+    private long imported;
+    private long failed;
+    private List<UserImportError> errors = new ArrayList<>();
+
+    public void addError(long line, String username, String message) {
+        errors.add(new UserImportError(line, username, message));
+        failed++;
+    }
+
+    public void addImported(long count) {
+        imported += count;
+    }
+}
@@ -1,13 +1,10 @@
 package com.springboot.entity;
 
+import com.springboot.enumeration.Permission;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
-import java.util.stream.Collectors;
-
-import static java.util.Arrays.stream;
 // do user co nhieu truong nen viet them class de implements userDetail cua spring security
 public class UserPrincipal implements UserDetails {
     private User user;
@@ -16,9 +13,18 @@ public class UserPrincipal implements UserDetails {
         this.user = user;
     }
 
+    public User getUser() {
+        return user;
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return stream(this.user.getAuthorities()).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        return Permission.grantedAuthoritiesOf(getPermissionMask());
+    }
+
+    public int getPermissionMask() {
+        Integer permissionMask = this.user.getPermissionMask();
+        return permissionMask == null ? 0 : permissionMask;
     }
 
     @Override
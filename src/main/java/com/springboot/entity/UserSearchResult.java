@@ -0,0 +1,17 @@
+package com.springboot.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchResult {
+    private long total;
+    private int page;
+    private int size;
+    private List<User> users;
+}
@@ -0,0 +1,10 @@
+package com.springboot.enumeration;
+
+// ordinal duoc ghi vao file audit, chi them gia tri moi vao cuoi
+public enum AuthenticationAuditType {
+    SUCCESS,
+    BAD_CREDENTIALS,
+    LOCKED,
+    DISABLED,
+    FAILURE
+}
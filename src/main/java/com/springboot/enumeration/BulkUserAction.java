@@ -0,0 +1,34 @@
+package com.springboot.enumeration;
+
+// thao tac hang loat cua admin: menh de SET va dieu kien "chua o trang thai dich" dung cho UPDATE theo tap
+// khoa, vo hieu hoa hoac doi role thi token cu khong con dung nua
+public enum BulkUserAction {
+    LOCK("u.isNotLocked = false", "u.isNotLocked = true", true),
+    UNLOCK("u.isNotLocked = true", "u.isNotLocked = false", false),
+    ACTIVATE("u.isActive = true", "u.isActive = false", false),
+    DEACTIVATE("u.isActive = false", "u.isActive = true", true),
+    ROLE("u.role = :role, u.permissionMask = :permissionMask",
+            "(u.role <> :role or u.permissionMask is null or u.permissionMask <> :permissionMask)", true);
+
+    private final String assignment;
+    private final String pendingCondition;
+    private final boolean revokesTokens;
+
+    BulkUserAction(String assignment, String pendingCondition, boolean revokesTokens) {
+        this.assignment = assignment;
+        this.pendingCondition = pendingCondition;
+        this.revokesTokens = revokesTokens;
+    }
+
+    public String getAssignment() {
+        return assignment;
+    }
+
+    public String getPendingCondition() {
+        return pendingCondition;
+    }
+
+    public boolean revokesTokens() {
+        return revokesTokens;
+    }
+}
@@ -0,0 +1,6 @@
+package com.springboot.enumeration;
+
+public enum DataSourceType {
+    PRIMARY,
+    REPLICA
+}
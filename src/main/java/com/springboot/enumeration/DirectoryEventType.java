@@ -0,0 +1,10 @@
+package com.springboot.enumeration;
+
+// CREATED/UPDATED client deu xu ly nhu upsert, RESYNC = thay doi hang loat, client goi /user/changes
+public enum DirectoryEventType {
+    READY,
+    CREATED,
+    UPDATED,
+    DELETED,
+    RESYNC
+}
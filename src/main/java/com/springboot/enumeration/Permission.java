@@ -0,0 +1,76 @@
+package com.springboot.enumeration;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static com.springboot.constant.Authority.*;
+
+// moi quyen tuong ung 1 bit, tap quyen cua user luu thanh 1 so nguyen (bitmask)
+// bang tra cuu cho moi to hop bit duoc tinh san mot lan khi nap class
+public enum Permission {
+    READ(USER_READ),
+    UPDATE(USER_UPDATE),
+    CREATE(USER_CREATE),
+    DELETE(USER_DELETE);
+
+    private static final String[][] AUTHORITIES_BY_MASK;
+    private static final List<List<GrantedAuthority>> GRANTED_AUTHORITIES_BY_MASK;
+
+    static {
+        int combinations = 1 << values().length;
+        AUTHORITIES_BY_MASK = new String[combinations][];
+        GRANTED_AUTHORITIES_BY_MASK = new ArrayList<>(combinations);
+        for (int mask = 0; mask < combinations; mask++) {
+            List<String> authorities = new ArrayList<>();
+            List<GrantedAuthority> grantedAuthorities = new ArrayList<>();
+            for (Permission permission : values()) {
+                if ((mask & permission.getBit()) != 0) {
+                    authorities.add(permission.getAuthority());
+                    grantedAuthorities.add(new SimpleGrantedAuthority(permission.getAuthority()));
+                }
+            }
+            AUTHORITIES_BY_MASK[mask] = authorities.toArray(new String[0]);
+            GRANTED_AUTHORITIES_BY_MASK.add(Collections.unmodifiableList(grantedAuthorities));
+        }
+    }
+
+    private final String authority;
+
+    Permission(String authority) {
+        this.authority = authority;
+    }
+
+    public String getAuthority() {
+        return authority;
+    }
+
+    public int getBit() {
+        return 1 << ordinal();
+    }
+
+    public static int maskOf(String... authorities) {
+        int mask = 0;
+        if (authorities != null) {
+            for (String authority : authorities) {
+                for (Permission permission : values()) {
+                    if (permission.authority.equals(authority)) {
+                        mask |= permission.getBit();
+                    }
+                }
+            }
+        }
+        return mask;
+    }
+
+    public static String[] authoritiesOf(int mask) {
+        return AUTHORITIES_BY_MASK[mask & (AUTHORITIES_BY_MASK.length - 1)].clone();
+    }
+
+    public static List<GrantedAuthority> grantedAuthoritiesOf(int mask) {
+        return GRANTED_AUTHORITIES_BY_MASK.get(mask & (AUTHORITIES_BY_MASK.length - 1));
+    }
+}
@@ -10,12 +10,18 @@ public enum Role {
     ROLE_SUPER_ADMIN(SUPER_ADMIN_AUTHORITIES);
 
     private String[] authorities;
+    private final int permissionMask;
 
     Role(String... authorities) {
         this.authorities = authorities;
+        this.permissionMask = Permission.maskOf(authorities);
     }
 
     public String[] getAuthorities() {
         return authorities;
     }
+
+    public int getPermissionMask() {
+        return permissionMask;
+    }
 }
@@ -0,0 +1,10 @@
+package com.springboot.enumeration;
+
+// nhom route co limit dong thoi rieng, nhom cham (dang nhap BCrypt, import) khong chiem cho cua nhom nhanh
+public enum RouteGroup {
+    AUTHENTICATION,
+    READ,
+    WRITE,
+    BULK,
+    IMAGE
+}
@@ -0,0 +1,23 @@
+package com.springboot.enumeration;
+
+public enum UserDataFormat {
+    CSV("text/csv"),
+    NDJSON("application/x-ndjson");
+
+    private final String mediaType;
+
+    UserDataFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static UserDataFormat fromContentType(String contentType) {
+        if (contentType != null && contentType.toLowerCase().contains("json")) {
+            return NDJSON;
+        }
+        return CSV;
+    }
+}
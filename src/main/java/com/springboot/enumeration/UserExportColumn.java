@@ -0,0 +1,45 @@
+package com.springboot.enumeration;
+
+import com.springboot.entity.User;
+
+import java.util.function.Function;
+
+// cac cot duoc phep export, khong bao gio export password
+public enum UserExportColumn {
+    USER_ID("userId", User::getUserId),
+    FIRST_NAME("firstName", User::getFirstName),
+    LAST_NAME("lastName", User::getLastName),
+    USERNAME("username", User::getUsername),
+    EMAIL("email", User::getEmail),
+    PROFILE_IMAGE_URL("profileImageUrl", User::getProfileImageUrl),
+    LAST_LOGIN_DATE("lastLoginDate", User::getLastLoginDate),
+    JOIN_DATE("joinDate", User::getJoinDate),
+    ROLE("role", User::getRole),
+    ACTIVE("active", User::isActive),
+    NOT_LOCKED("notLocked", User::isNotLocked);
+
+    private final String columnName;
+    private final Function<User, Object> extractor;
+
+    UserExportColumn(String columnName, Function<User, Object> extractor) {
+        this.columnName = columnName;
+        this.extractor = extractor;
+    }
+
+    public String getColumnName() {
+        return columnName;
+    }
+
+    public Object valueOf(User user) {
+        return extractor.apply(user);
+    }
+
+    public static UserExportColumn fromColumnName(String columnName) {
+        for (UserExportColumn column : values()) {
+            if (column.columnName.equalsIgnoreCase(columnName.trim())) {
+                return column;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export column: " + columnName);
+    }
+}
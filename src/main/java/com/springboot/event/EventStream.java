@@ -0,0 +1,16 @@
+package com.springboot.event;
+
+import java.io.IOException;
+
+// dau ra cua 1 ket noi SSE, ghi khong block: chi ghi khi isReady() tra true, phan chua ghi het do container giu
+// khi socket ghi duoc tiep thi goi onWritable, ket noi dong (client ngat, het han, loi) thi goi onClosed
+// 2 callback co the chay tren thread cua container, khong duoc ghi hay cho lock trong do
+public interface EventStream {
+    void start(Runnable onWritable, Runnable onClosed);
+
+    boolean isReady();
+
+    void write(byte[] bytes) throws IOException;
+
+    void close();
+}
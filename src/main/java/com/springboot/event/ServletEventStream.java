@@ -0,0 +1,110 @@
+package com.springboot.event;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpHeaders.CACHE_CONTROL;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
+// ket noi SSE tren servlet async + non-blocking IO (WriteListener)
+// client doc cham chi lam isReady() tra false, khong giu thread nao cho toi khi socket ghi duoc tiep
+public class ServletEventStream implements EventStream, WriteListener, AsyncListener {
+    private static final String NO_CACHE = "no-cache";
+
+    private final AsyncContext asyncContext;
+    private final ServletOutputStream outputStream;
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile Runnable onWritable;
+    private volatile Runnable onClosed;
+
+    public ServletEventStream(HttpServletRequest request, HttpServletResponse response, long timeoutMillis) throws IOException {
+        response.setContentType(TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding(UTF_8.name());
+        response.setHeader(CACHE_CONTROL, NO_CACHE);
+        this.asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(timeoutMillis);
+        asyncContext.addListener(this);
+        this.outputStream = response.getOutputStream();
+    }
+
+    @Override
+    public void start(Runnable onWritable, Runnable onClosed) {
+        this.onWritable = onWritable;
+        this.onClosed = onClosed;
+        // tu day output stream o che do non-blocking
+        outputStream.setWriteListener(this);
+    }
+
+    @Override
+    public boolean isReady() {
+        return !closed.get() && outputStream.isReady();
+    }
+
+    @Override
+    public void write(byte[] bytes) throws IOException {
+        outputStream.write(bytes);
+        // flush khi con ghi duoc, neu khong container tu gui phan con lai roi goi onWritePossible
+        if (outputStream.isReady()) {
+            outputStream.flush();
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            asyncContext.complete();
+        } catch (IllegalStateException exception) {
+            // async da ket thuc
+        }
+        closed();
+    }
+
+    @Override
+    public void onWritePossible() {
+        Runnable callback = onWritable;
+        if (callback != null && !closed.get()) {
+            callback.run();
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        close();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        closed();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+
+    private void closed() {
+        if (closed.compareAndSet(false, true)) {
+            Runnable callback = onClosed;
+            if (callback != null) {
+                callback.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.springboot.exception;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.springboot.entity.HttpResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+
+// body JSON cua HttpResponse loi serialize san theo (status, message)
+// timeStamp chi chinh xac toi giay nen moi body duoc dung lai trong ca giay do, sang giay moi thi serialize lai
+// request bi tu choi (sai mat khau, het quyen, qua tai...) khong tao HttpResponse, Date hay chuoi toUpperCase moi
+@Component
+public class ErrorResponseCache {
+    private static final int MAX_MESSAGES_PER_STATUS = 256;
+    private static final HttpHeaders JSON_HEADERS = jsonHeaders();
+    private final ObjectMapper objectMapper;
+    private final Map<HttpStatus, Cache<String, CachedBody>> bodies = new ConcurrentHashMap<>();
+
+    public ErrorResponseCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public byte[] body(HttpStatus httpStatus, String message) {
+        long second = System.currentTimeMillis() / 1000;
+        Cache<String, CachedBody> cache = bodies.computeIfAbsent(httpStatus,
+                status -> CacheBuilder.newBuilder().maximumSize(MAX_MESSAGES_PER_STATUS).build());
+        // message null (exception khong co message) khong dung lam key duoc
+        String key = message == null ? "" : message;
+        CachedBody cachedBody = cache.getIfPresent(key);
+        if (cachedBody == null || cachedBody.second != second) {
+            cachedBody = new CachedBody(second, serialize(httpStatus, message));
+            cache.put(key, cachedBody);
+        }
+        return cachedBody.body;
+    }
+
+    public ResponseEntity<byte[]> response(HttpStatus httpStatus, String message) {
+        return new ResponseEntity<>(body(httpStatus, message), JSON_HEADERS, httpStatus);
+    }
+
+    private byte[] serialize(HttpStatus httpStatus, String message) {
+        try {
+            return objectMapper.writeValueAsBytes(new HttpResponse(httpStatus.value(), httpStatus,
+                    httpStatus.getReasonPhrase().toUpperCase(), message));
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static HttpHeaders jsonHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(APPLICATION_JSON);
+        return HttpHeaders.readOnlyHttpHeaders(headers);
+    }
+
+    private static class CachedBody {
+        private final long second;
+        private final byte[] body;
+
+        CachedBody(long second, byte[] body) {
+            this.second = second;
+            this.body = body;
+        }
+    }
+}
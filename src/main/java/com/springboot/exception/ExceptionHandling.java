@@ -1,9 +1,10 @@
 package com.springboot.exception;
 
+import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
-import com.springboot.entity.HttpResponse;
 import com.springboot.exception.entity.EmailExistException;
 import com.springboot.exception.entity.EmailNotFoundException;
+import com.springboot.exception.entity.InvalidBulkRequestException;
 import com.springboot.exception.entity.UserNotFoundException;
 import com.springboot.exception.entity.UsernameExistException;
 import org.slf4j.Logger;
@@ -25,11 +26,13 @@ import javax.persistence.NoResultException;
 import java.io.IOException;
 import java.util.Objects;
 
+import static com.springboot.constant.LoggingConstant.SAMPLED;
 import static org.springframework.http.HttpStatus.*;
 
 @RestControllerAdvice
 public class ExceptionHandling  implements ErrorController {
     private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final ErrorResponseCache errorResponseCache;
     private static final String ACCOUNT_LOCKED = "Your account has been locked. Please contact administration";
     private static final String METHOD_IS_NOT_ALLOWED = "This request method is not allowed on this endpoint. Please send a '%s' request";
     private static final String INTERNAL_SERVER_ERROR_MSG = "An error occurred while processing the request";
@@ -39,87 +42,105 @@ public class ExceptionHandling  implements ErrorController {
     private static final String NOT_ENOUGH_PERMISSION = "You do not have enough permission";
     public static final String ERROR_PATH = "/error";
 
+    public ExceptionHandling(ErrorResponseCache errorResponseCache) {
+        this.errorResponseCache = errorResponseCache;
+    }
+
     @ExceptionHandler(DisabledException.class)
-    public ResponseEntity<HttpResponse> accountDisabledException() {
+    public ResponseEntity<byte[]> accountDisabledException() {
         return createHttpResponse(BAD_REQUEST, ACCOUNT_DISABLED);
     }
 
     @ExceptionHandler(BadCredentialsException.class)
-    public ResponseEntity<HttpResponse> badCredentialsException() {
+    public ResponseEntity<byte[]> badCredentialsException() {
         return createHttpResponse(BAD_REQUEST, INCORRECT_CREDENTIALS);
     }
 
     @ExceptionHandler(AccessDeniedException.class)
-    public ResponseEntity<HttpResponse> accessDeniedException() {
+    public ResponseEntity<byte[]> accessDeniedException() {
         return createHttpResponse(FORBIDDEN, NOT_ENOUGH_PERMISSION);
     }
 
     @ExceptionHandler(LockedException.class)
-    public ResponseEntity<HttpResponse> lockedException() {
+    public ResponseEntity<byte[]> lockedException() {
         return createHttpResponse(UNAUTHORIZED, ACCOUNT_LOCKED);
     }
 
     @ExceptionHandler(TokenExpiredException.class)
-    public ResponseEntity<HttpResponse> tokenExpiredException(TokenExpiredException exception) {
+    public ResponseEntity<byte[]> tokenExpiredException(TokenExpiredException exception) {
+        return createHttpResponse(UNAUTHORIZED, exception.getMessage());
+    }
+
+    @ExceptionHandler(JWTVerificationException.class)
+    public ResponseEntity<byte[]> jwtVerificationException(JWTVerificationException exception) {
         return createHttpResponse(UNAUTHORIZED, exception.getMessage());
     }
 
     @ExceptionHandler(EmailExistException.class)
-    public ResponseEntity<HttpResponse> emailExistException(EmailExistException exception) {
+    public ResponseEntity<byte[]> emailExistException(EmailExistException exception) {
         return createHttpResponse(BAD_REQUEST, exception.getMessage());
     }
 
     @ExceptionHandler(UsernameExistException.class)
-    public ResponseEntity<HttpResponse> usernameExistException(UsernameExistException exception) {
+    public ResponseEntity<byte[]> usernameExistException(UsernameExistException exception) {
         return createHttpResponse(BAD_REQUEST, exception.getMessage());
     }
 
     @ExceptionHandler(EmailNotFoundException.class)
-    public ResponseEntity<HttpResponse> emailNotFoundException(EmailNotFoundException exception) {
+    public ResponseEntity<byte[]> emailNotFoundException(EmailNotFoundException exception) {
         return createHttpResponse(BAD_REQUEST, exception.getMessage());
     }
 
     @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<HttpResponse> userNotFoundException(UserNotFoundException exception) {
+    public ResponseEntity<byte[]> userNotFoundException(UserNotFoundException exception) {
+        return createHttpResponse(BAD_REQUEST, exception.getMessage());
+    }
+
+    @ExceptionHandler(InvalidBulkRequestException.class)
+    public ResponseEntity<byte[]> invalidBulkRequestException(InvalidBulkRequestException exception) {
+        return createHttpResponse(BAD_REQUEST, exception.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<byte[]> illegalArgumentException(IllegalArgumentException exception) {
         return createHttpResponse(BAD_REQUEST, exception.getMessage());
     }
 
 //    @ExceptionHandler(NoHandlerFoundException.class)
-//    public ResponseEntity<HttpResponse> noHandlerFoundException(NoHandlerFoundException e) {
+//    public ResponseEntity<byte[]> noHandlerFoundException(NoHandlerFoundException e) {
 //        return createHttpResponse(BAD_REQUEST, "There is no mapping for this URL");
 //    }
 
     @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
-    public ResponseEntity<HttpResponse> methodNotSupportedException(HttpRequestMethodNotSupportedException exception) {
+    public ResponseEntity<byte[]> methodNotSupportedException(HttpRequestMethodNotSupportedException exception) {
         HttpMethod supportedMethod = Objects.requireNonNull(exception.getSupportedHttpMethods()).iterator().next();
         return createHttpResponse(METHOD_NOT_ALLOWED, String.format(METHOD_IS_NOT_ALLOWED, supportedMethod));
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<HttpResponse> internalServerErrorException(Exception exception) {
-        LOGGER.error(exception.getMessage());
+    public ResponseEntity<byte[]> internalServerErrorException(Exception exception) {
+        LOGGER.error(SAMPLED, exception.getMessage());
         return createHttpResponse(INTERNAL_SERVER_ERROR, INTERNAL_SERVER_ERROR_MSG);
     }
 
     @ExceptionHandler(NoResultException.class)
-    public ResponseEntity<HttpResponse> notFoundException(NoResultException exception) {
-        LOGGER.error(exception.getMessage());
+    public ResponseEntity<byte[]> notFoundException(NoResultException exception) {
+        LOGGER.error(SAMPLED, exception.getMessage());
         return createHttpResponse(NOT_FOUND, exception.getMessage());
     }
 
     @ExceptionHandler(IOException.class)
-    public ResponseEntity<HttpResponse> iOException(IOException exception) {
-        LOGGER.error(exception.getMessage());
+    public ResponseEntity<byte[]> iOException(IOException exception) {
+        LOGGER.error(SAMPLED, exception.getMessage());
         return createHttpResponse(INTERNAL_SERVER_ERROR, ERROR_PROCESSING_FILE);
     }
 
-    private ResponseEntity<HttpResponse> createHttpResponse(HttpStatus httpStatus, String message) {
-        return new ResponseEntity<>(new HttpResponse(httpStatus.value(), httpStatus,
-                httpStatus.getReasonPhrase().toUpperCase(), message), httpStatus);
+    private ResponseEntity<byte[]> createHttpResponse(HttpStatus httpStatus, String message) {
+        return errorResponseCache.response(httpStatus, message);
     }
 
     @RequestMapping(ERROR_PATH)
-    public ResponseEntity<HttpResponse> notFound404() {
+    public ResponseEntity<byte[]> notFound404() {
         return createHttpResponse(NOT_FOUND, "There is no mapping for this URL");
     }
 }
@@ -0,0 +1,9 @@
+package com.springboot.exception.entity;
+
+// loi nghiep vu (trung username, khong tim thay user...) chi dung de tra message cho client
+// khong ghi stack trace: khi bi tan cong do mat khau / dang ky hang loat, fillInStackTrace la phan ton nhat cua exception
+public abstract class DomainException extends Exception {
+    protected DomainException(String message) {
+        super(message, null, false, false);
+    }
+}
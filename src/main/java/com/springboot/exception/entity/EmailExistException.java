@@ -1,6 +1,6 @@
 package com.springboot.exception.entity;
 
-public class EmailExistException extends Exception{
+public class EmailExistException extends DomainException {
     public EmailExistException(String message) {
         super(message);
     }
@@ -1,6 +1,6 @@
 package com.springboot.exception.entity;
 
-public class EmailNotFoundException extends Exception{
+public class EmailNotFoundException extends DomainException {
     public EmailNotFoundException(String message) {
         super(message);
     }
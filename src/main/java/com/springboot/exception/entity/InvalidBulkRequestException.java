@@ -0,0 +1,7 @@
+package com.springboot.exception.entity;
+
+public class InvalidBulkRequestException extends DomainException {
+    public InvalidBulkRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.springboot.exception.entity;
+
+import org.springframework.security.authentication.BadCredentialsException;
+
+// sai mat khau, loi chiem phan lon request khi bi do mat khau hang loat nen bo stack trace
+public class StacklessBadCredentialsException extends BadCredentialsException {
+    public StacklessBadCredentialsException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
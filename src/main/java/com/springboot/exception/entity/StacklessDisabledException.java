@@ -0,0 +1,15 @@
+package com.springboot.exception.entity;
+
+import org.springframework.security.authentication.DisabledException;
+
+// tai khoan bi vo hieu hoa
+public class StacklessDisabledException extends DisabledException {
+    public StacklessDisabledException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,15 @@
+package com.springboot.exception.entity;
+
+import org.springframework.security.authentication.LockedException;
+
+// tai khoan bi khoa
+public class StacklessLockedException extends LockedException {
+    public StacklessLockedException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,15 @@
+package com.springboot.exception.entity;
+
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+// username khong ton tai, UserAuthenticationProvider doi thanh StacklessBadCredentialsException de khong lo username
+public class StacklessUsernameNotFoundException extends UsernameNotFoundException {
+    public StacklessUsernameNotFoundException(String message) {
+        super(message);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
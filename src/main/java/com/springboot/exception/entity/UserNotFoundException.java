@@ -1,6 +1,6 @@
 package com.springboot.exception.entity;
 
-public class UserNotFoundException extends Exception{
+public class UserNotFoundException extends DomainException {
     public UserNotFoundException(String message) {
         super(message);
     }
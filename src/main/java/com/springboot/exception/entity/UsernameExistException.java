@@ -1,6 +1,6 @@
 package com.springboot.exception.entity;
 
-public class UsernameExistException extends Exception{
+public class UsernameExistException extends DomainException {
     public UsernameExistException(String message) {
         super(message);
     }
@@ -0,0 +1,172 @@
+package com.springboot.filter;
+
+import com.springboot.enumeration.RouteGroup;
+import com.springboot.exception.ErrorResponseCache;
+import com.springboot.utility.AdaptiveConcurrencyLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.springboot.constant.ConcurrencyLimitConstant.*;
+import static com.springboot.constant.UserBulkConstant.BULK_PATH_PREFIX;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+// gioi han so request dong thoi theo nhom route, chay ngay sau JwtAuthorizationFilter de biet request cua admin
+// khi DB cham, limit cua nhom bi anh huong giam theo latency va request vuot limit bi tra 503 ngay
+// thay vi xep hang chiem thread Tomcat, nen cac route chi can JWT van phan hoi binh thuong
+@Component
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    private final Map<RouteGroup, AdaptiveConcurrencyLimit> limits = new EnumMap<>(RouteGroup.class);
+    private final Map<RouteGroup, Counter> rejectedCounters = new EnumMap<>(RouteGroup.class);
+    private final Map<RouteGroup, Counter> rejectedPriorityCounters = new EnumMap<>(RouteGroup.class);
+    private final boolean enabled;
+    private final ErrorResponseCache errorResponseCache;
+
+    public ConcurrencyLimitFilter(MeterRegistry meterRegistry, ErrorResponseCache errorResponseCache,
+                                  @Value("${user.limiter.enabled:true}") boolean enabled,
+                                  @Value("${user.limiter.initial-limit:20}") int initialLimit,
+                                  @Value("${user.limiter.min-limit:2}") int minLimit,
+                                  @Value("${user.limiter.max-limit:200}") int maxLimit,
+                                  @Value("${user.limiter.window-ms:500}") long windowMillis,
+                                  @Value("${user.limiter.smoothing:0.2}") double smoothing,
+                                  @Value("${user.limiter.priority-reserve:0.2}") double priorityReserve) {
+        this.enabled = enabled;
+        this.errorResponseCache = errorResponseCache;
+        for (RouteGroup group : RouteGroup.values()) {
+            AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit,
+                    TimeUnit.MILLISECONDS.toNanos(windowMillis), smoothing, priorityReserve);
+            limits.put(group, limit);
+            String tag = group.name().toLowerCase();
+            Gauge.builder(LIMIT_METRIC, limit, AdaptiveConcurrencyLimit::getLimit).tag(GROUP_TAG, tag).register(meterRegistry);
+            Gauge.builder(IN_FLIGHT_METRIC, limit, AdaptiveConcurrencyLimit::getInFlight).tag(GROUP_TAG, tag).register(meterRegistry);
+            rejectedCounters.put(group, meterRegistry.counter(REJECTED_METRIC, GROUP_TAG, tag, PRIORITY_TAG, "false"));
+            rejectedPriorityCounters.put(group, meterRegistry.counter(REJECTED_METRIC, GROUP_TAG, tag, PRIORITY_TAG, "true"));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        RouteGroup group = routeGroup(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        AdaptiveConcurrencyLimit limit = limits.get(group);
+        boolean priority = isPriority();
+        if (!limit.tryAcquire(priority)) {
+            (priority ? rejectedPriorityCounters : rejectedCounters).get(group).increment();
+            reject(response);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean dropped = true;
+        try {
+            filterChain.doFilter(request, response);
+            dropped = response.getStatus() >= 500;
+        } finally {
+            if (request.isAsyncStarted()) {
+                // body async (StreamingResponseBody export...) con chay sau khi filter tra ve, giu slot toi khi xong
+                request.getAsyncContext().addListener(new AsyncRelease(limit, start));
+            } else {
+                limit.release(System.nanoTime() - start, dropped);
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || HttpMethod.OPTIONS.matches(request.getMethod());
+    }
+
+    private static RouteGroup routeGroup(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (StringUtils.startsWithAny(path, UNLIMITED_PATH_PREFIXES)) {
+            return null;
+        }
+        if (StringUtils.equalsAny(path, AUTHENTICATION_PATHS)) {
+            return RouteGroup.AUTHENTICATION;
+        }
+        if (StringUtils.equalsAny(path, BULK_PATHS) || path.startsWith(BULK_PATH_PREFIX)) {
+            return RouteGroup.BULK;
+        }
+        if (path.startsWith(IMAGE_PATH_PREFIX)) {
+            return RouteGroup.IMAGE;
+        }
+        return HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod()) ? RouteGroup.READ : RouteGroup.WRITE;
+    }
+
+    private static boolean isPriority() {
+        return (PermissionInterceptor.permissionMask(SecurityContextHolder.getContext().getAuthentication()) & PRIORITY_PERMISSION.getBit()) != 0;
+    }
+
+    private void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+        response.setContentType(APPLICATION_JSON_VALUE);
+        // body 503 lay tu cache, luc qua tai khong ton them CPU cho request bi tu choi
+        byte[] body = errorResponseCache.body(SERVICE_UNAVAILABLE, SERVER_OVERLOADED);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    // tra slot 1 lan khi request async ket thuc, latency tinh tu luc acquire
+    private static final class AsyncRelease implements AsyncListener {
+        private final AdaptiveConcurrencyLimit limit;
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private AsyncRelease(AdaptiveConcurrencyLimit limit, long start) {
+            this.limit = limit;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            ServletResponse response = event.getSuppliedResponse();
+            release(response instanceof HttpServletResponse && ((HttpServletResponse) response).getStatus() >= 500);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release(true);
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release(true);
+        }
+
+        // startAsync lan nua xoa listener cu, dang ky lai de van tra slot
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release(boolean dropped) {
+            if (released.compareAndSet(false, true)) {
+                limit.release(System.nanoTime() - start, dropped);
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.springboot.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.springboot.constant.CorsConstant.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.springframework.http.HttpHeaders.*;
+import static org.springframework.http.HttpStatus.FORBIDDEN;
+import static org.springframework.http.HttpStatus.OK;
+
+// tra loi preflight CORS o dau chuoi filter, truoc metrics, QueryCountFilter va Spring Security
+// header cua tung origin duoc tinh san 1 lan tu corsConfigurationSource; request that tu origin hop le cung
+// duoc gan san header nen CorsFilter trong chuoi security bo qua, origin la thi van de CorsFilter tu choi nhu cu
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorsPreflightFilter extends OncePerRequestFilter {
+    private final Map<String, PrecomputedHeaders> preflightHeaders = new HashMap<>();
+    private final Map<String, PrecomputedHeaders> responseHeaders = new HashMap<>();
+    private final Set<String> allowedMethods;
+    private final Set<String> allowedHeaders = new HashSet<>();
+    private final byte[] rejectedBody = INVALID_CORS_REQUEST.getBytes(UTF_8);
+    private final boolean enabled;
+    private final Counter answeredCounter;
+    private final Counter rejectedCounter;
+
+    public CorsPreflightFilter(UrlBasedCorsConfigurationSource corsConfigurationSource, MeterRegistry meterRegistry,
+                               @Value("${user.cors.preflight-filter.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+        CorsConfiguration configuration = corsConfigurationSource.getCorsConfigurations().get(ALL_PATHS);
+        this.allowedMethods = new HashSet<>(configuration.getAllowedMethods());
+        configuration.getAllowedHeaders().forEach(header -> allowedHeaders.add(header.toLowerCase()));
+        String methods = String.join(HEADER_VALUE_SEPARATOR, configuration.getAllowedMethods());
+        String headers = String.join(HEADER_VALUE_SEPARATOR, configuration.getAllowedHeaders());
+        String exposedHeaders = configuration.getExposedHeaders().isEmpty() ? null
+                : String.join(HEADER_VALUE_SEPARATOR, configuration.getExposedHeaders());
+        String credentials = Boolean.TRUE.equals(configuration.getAllowCredentials()) ? Boolean.TRUE.toString() : null;
+        String maxAge = configuration.getMaxAge() == null ? null : configuration.getMaxAge().toString();
+        for (String origin : configuration.getAllowedOrigins()) {
+            preflightHeaders.put(origin, new PrecomputedHeaders()
+                    .add(VARY, ORIGIN).add(VARY, ACCESS_CONTROL_REQUEST_METHOD).add(VARY, ACCESS_CONTROL_REQUEST_HEADERS)
+                    .add(ACCESS_CONTROL_ALLOW_ORIGIN, origin)
+                    .add(ACCESS_CONTROL_ALLOW_METHODS, methods)
+                    .add(ACCESS_CONTROL_ALLOW_HEADERS, headers)
+                    .add(ACCESS_CONTROL_ALLOW_CREDENTIALS, credentials)
+                    .add(ACCESS_CONTROL_MAX_AGE, maxAge));
+            // Vary tach rieng tung gia tri de DefaultCorsProcessor nhan ra va khong them lan nua
+            responseHeaders.put(origin, new PrecomputedHeaders()
+                    .add(VARY, ORIGIN).add(VARY, ACCESS_CONTROL_REQUEST_METHOD).add(VARY, ACCESS_CONTROL_REQUEST_HEADERS)
+                    .add(ACCESS_CONTROL_ALLOW_ORIGIN, origin)
+                    .add(ACCESS_CONTROL_EXPOSE_HEADERS, exposedHeaders)
+                    .add(ACCESS_CONTROL_ALLOW_CREDENTIALS, credentials));
+        }
+        this.answeredCounter = meterRegistry.counter(PREFLIGHT_METRIC, RESULT_TAG, "answered");
+        this.rejectedCounter = meterRegistry.counter(PREFLIGHT_METRIC, RESULT_TAG, "rejected");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String origin = request.getHeader(ORIGIN);
+        if (!CorsUtils.isPreFlightRequest(request)) {
+            PrecomputedHeaders headers = responseHeaders.get(origin);
+            if (headers != null) {
+                headers.writeTo(response);
+            }
+            filterChain.doFilter(request, response);
+            return;
+        }
+        PrecomputedHeaders headers = preflightHeaders.get(origin);
+        if (headers == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!isAllowed(request)) {
+            rejectedCounter.increment();
+            response.setStatus(FORBIDDEN.value());
+            response.setContentLength(rejectedBody.length);
+            response.getOutputStream().write(rejectedBody);
+            return;
+        }
+        answeredCounter.increment();
+        headers.writeTo(response);
+        response.setStatus(OK.value());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    private boolean isAllowed(HttpServletRequest request) {
+        if (!allowedMethods.contains(request.getHeader(ACCESS_CONTROL_REQUEST_METHOD))) {
+            return false;
+        }
+        String requestHeaders = request.getHeader(ACCESS_CONTROL_REQUEST_HEADERS);
+        if (requestHeaders == null) {
+            return true;
+        }
+        for (String header : requestHeaders.split(",")) {
+            String name = header.trim();
+            if (!name.isEmpty() && !allowedHeaders.contains(name.toLowerCase())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class PrecomputedHeaders {
+        private final List<String> names = new ArrayList<>();
+        private final List<String> values = new ArrayList<>();
+
+        private PrecomputedHeaders add(String name, String value) {
+            if (value != null) {
+                names.add(name);
+                values.add(value);
+            }
+            return this;
+        }
+
+        private void writeTo(HttpServletResponse response) {
+            for (int i = 0; i < names.size(); i++) {
+                response.addHeader(names.get(i), values.get(i));
+            }
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package com.springboot.filter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.springboot.entity.HttpResponse;
+import com.springboot.exception.ErrorResponseCache;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.web.access.AccessDeniedHandler;
 import org.springframework.stereotype.Component;
@@ -17,16 +17,19 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
 @Component
+@RequiredArgsConstructor
 public class JwtAccessDeniedHandler implements AccessDeniedHandler {
+    private final ErrorResponseCache errorResponseCache;
+
     // day la class override lai loi AccessDeniedHandler va viet thong bao loi theo y minh
     @Override
     public void handle(HttpServletRequest request, HttpServletResponse response, AccessDeniedException exception) throws IOException {
-        HttpResponse httpResponse = new HttpResponse(UNAUTHORIZED.value(), UNAUTHORIZED, UNAUTHORIZED.getReasonPhrase().toUpperCase(), ACCESS_DENIED_MESSAGE);
+        byte[] body = errorResponseCache.body(UNAUTHORIZED, ACCESS_DENIED_MESSAGE);
         response.setContentType(APPLICATION_JSON_VALUE);
         response.setStatus(UNAUTHORIZED.value());
+        response.setContentLength(body.length);
         OutputStream outputStream = response.getOutputStream();
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(outputStream, httpResponse);
+        outputStream.write(body);
         outputStream.flush();
     }
 }
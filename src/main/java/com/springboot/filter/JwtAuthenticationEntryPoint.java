@@ -1,7 +1,7 @@
 package com.springboot.filter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.springboot.entity.HttpResponse;
+import com.springboot.exception.ErrorResponseCache;
+import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.authentication.Http403ForbiddenEntryPoint;
 import org.springframework.stereotype.Component;
@@ -17,16 +17,18 @@ import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
 
 // day la class override lai loi 403 va viet thong bao loi theo y minh
 @Component
+@RequiredArgsConstructor
 public class JwtAuthenticationEntryPoint  extends Http403ForbiddenEntryPoint {
+    private final ErrorResponseCache errorResponseCache;
 
     @Override
     public void commence(HttpServletRequest request, HttpServletResponse response, AuthenticationException exception) throws IOException {
-        HttpResponse httpResponse = new HttpResponse(FORBIDDEN.value(), FORBIDDEN, FORBIDDEN.getReasonPhrase().toUpperCase(), FORBIDDEN_MESSAGE);
+        byte[] body = errorResponseCache.body(FORBIDDEN, FORBIDDEN_MESSAGE);
         response.setContentType(APPLICATION_JSON_VALUE);
         response.setStatus(FORBIDDEN.value());
+        response.setContentLength(body.length);
         OutputStream outputStream = response.getOutputStream();
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.writeValue(outputStream, httpResponse);
+        outputStream.write(body);
         outputStream.flush();
     }
 }
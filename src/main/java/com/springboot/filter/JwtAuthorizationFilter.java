@@ -1,10 +1,12 @@
 package com.springboot.filter;
 
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.springboot.service.TokenRevocationService;
 import com.springboot.utility.JWTTokenProvider;
 import lombok.RequiredArgsConstructor;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -14,17 +16,18 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
 
 import static com.springboot.constant.SecurityConstant.*;
 import static org.springframework.http.HttpHeaders.AUTHORIZATION;
 
 // class nay thuc hien 1 lan truoc khi login kiem tra xem request co hop le khong
 // neu hop le thi se thuc hien authorization con khong thi se clear context
+// token chi verify 1 lan, refresh token va token da bi thu hoi khong duoc dung de goi api
 @Component
 @RequiredArgsConstructor
 public class JwtAuthorizationFilter extends OncePerRequestFilter {
     private final JWTTokenProvider jwtTokenProvider;
+    private final TokenRevocationService tokenRevocationService;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -37,10 +40,13 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
                 return;
             }
             String token = authorizationHeader.substring(TOKEN_PREFIX.length());
-            String username = jwtTokenProvider.getSubject(token);
-            if(jwtTokenProvider.isValidToken(username, token) && SecurityContextHolder.getContext().getAuthentication() == null){
-                List<GrantedAuthority> authorities = jwtTokenProvider.getAuthorities(token);
-                Authentication authentication = jwtTokenProvider.getAuthentication(username, authorities, request);
+            DecodedJWT decodedJWT = jwtTokenProvider.verify(token);
+            String username = decodedJWT.getSubject();
+            if(StringUtils.isNotEmpty(username) && !jwtTokenProvider.isRefreshToken(decodedJWT)
+                    && !tokenRevocationService.isRevoked(username, jwtTokenProvider.getIssuedAt(decodedJWT))
+                    && SecurityContextHolder.getContext().getAuthentication() == null){
+                int permissionMask = jwtTokenProvider.getPermissionMask(decodedJWT);
+                Authentication authentication = jwtTokenProvider.getAuthentication(username, permissionMask, request);
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             } else {
                 SecurityContextHolder.clearContext();
@@ -0,0 +1,81 @@
+package com.springboot.filter;
+
+import com.springboot.annotation.RequirePermission;
+import com.springboot.entity.PermissionAuthenticationToken;
+import com.springboot.enumeration.Permission;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.springboot.constant.SecurityConstant.ACCESS_DENIED_MESSAGE;
+
+// kiem tra @RequirePermission truoc khi goi controller: mask can co cua moi handler tinh san luc khoi dong,
+// moi request chi con 1 lan tra map va 1 phep AND voi mask trong token (PermissionAuthenticationToken)
+// AccessDeniedException di qua ExceptionHandling giong nhu @PreAuthorize truoc day
+@Component
+public class PermissionInterceptor implements HandlerInterceptor {
+    private final Map<Method, Integer> requiredMasks = new ConcurrentHashMap<>();
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void resolveRequiredMasks(ContextRefreshedEvent event) {
+        ApplicationContext applicationContext = event.getApplicationContext();
+        for (RequestMappingHandlerMapping handlerMapping : applicationContext.getBeansOfType(RequestMappingHandlerMapping.class).values()) {
+            handlerMapping.getHandlerMethods().values().forEach(this::requiredMask);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            int required = requiredMask((HandlerMethod) handler);
+            if (required != 0 && (permissionMask(SecurityContextHolder.getContext().getAuthentication()) & required) != required) {
+                throw new AccessDeniedException(ACCESS_DENIED_MESSAGE);
+            }
+        }
+        return true;
+    }
+
+    public int requiredMask(HandlerMethod handlerMethod) {
+        // handler khong co trong mapping luc khoi dong (hiem) thi tinh 1 lan roi giu lai
+        return requiredMasks.computeIfAbsent(handlerMethod.getMethod(), method -> resolve(handlerMethod));
+    }
+
+    public static int permissionMask(Authentication authentication) {
+        if (authentication instanceof PermissionAuthenticationToken) {
+            return ((PermissionAuthenticationToken) authentication).getPermissionMask();
+        }
+        if (authentication == null) {
+            return 0;
+        }
+        return Permission.maskOf(authentication.getAuthorities().stream().map(GrantedAuthority::getAuthority).toArray(String[]::new));
+    }
+
+    private static int resolve(HandlerMethod handlerMethod) {
+        RequirePermission annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), RequirePermission.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequirePermission.class);
+        }
+        int mask = 0;
+        if (annotation != null) {
+            for (Permission permission : annotation.value()) {
+                mask |= permission.getBit();
+            }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,74 @@
+package com.springboot.filter;
+
+import com.springboot.datasource.QueryStatistics;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+
+import static com.springboot.constant.LoggingConstant.SAMPLED;
+import static com.springboot.constant.QueryMetricsConstant.*;
+
+// so cau SQL moi request theo route, chay truoc chuoi security de tinh ca cau SQL luc dang nhap (ngay sau CorsPreflightFilter)
+// cung 1 shape chay tu repeated-threshold lan tro len trong 1 request thi log va dem (nghi N+1)
+// QueryStatistics gan voi thread: request async (StreamingResponseBody cua /user/export, SSE cua /user/events) chi duoc
+// dem phan chay tren thread request (xac thuc, controller), cau SQL trong body async chay tren thread khac sau khi filter
+// da dong pham vi nen khong duoc tinh; async dispatch cung khong di qua filter (mac dinh cua OncePerRequestFilter)
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class QueryCountFilter extends OncePerRequestFilter {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final int repeatedThreshold;
+
+    public QueryCountFilter(MeterRegistry meterRegistry,
+                            @Value("${user.jdbc.instrumentation.enabled:true}") boolean enabled,
+                            @Value("${user.jdbc.repeated-threshold:5}") int repeatedThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        QueryStatistics statistics = QueryStatistics.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            statistics.close();
+            record(request, statistics);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    private void record(HttpServletRequest request, QueryStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String route = pattern == null ? UNMAPPED_ROUTE : pattern.toString();
+        DistributionSummary.builder(REQUEST_QUERIES_METRIC).tag(ROUTE_TAG, route)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        for (Map.Entry<String, Integer> repeated : statistics.getRepeated(repeatedThreshold).entrySet()) {
+            meterRegistry.counter(REPEATED_QUERY_METRIC, ROUTE_TAG, route).increment();
+            LOGGER.warn(SAMPLED, String.format(REPEATED_QUERY, request.getMethod(), route, repeated.getValue(), repeated.getKey()));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.springboot.filter;
+
+import com.springboot.exception.entity.StacklessBadCredentialsException;
+import com.springboot.exception.entity.StacklessDisabledException;
+import com.springboot.exception.entity.StacklessLockedException;
+import org.springframework.security.authentication.AccountExpiredException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// DaoAuthenticationProvider nhung moi loi dang nhap (sai mat khau, khong co user, bi khoa, bi vo hieu hoa)
+// deu la exception khong stack trace; kiem tra va thu tu kiem tra giu nguyen nhu ban goc
+public class UserAuthenticationProvider extends DaoAuthenticationProvider {
+
+    public UserAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+        setUserDetailsService(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+        // tu doi UsernameNotFoundException thanh bad credentials ben duoi thay cho lop cha
+        setHideUserNotFoundExceptions(false);
+        setPreAuthenticationChecks(this::checkAccountStatus);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        try {
+            return super.authenticate(authentication);
+        } catch (UsernameNotFoundException exception) {
+            throw badCredentials();
+        }
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        if (authentication.getCredentials() == null
+                || !getPasswordEncoder().matches(authentication.getCredentials().toString(), userDetails.getPassword())) {
+            throw badCredentials();
+        }
+    }
+
+    private void checkAccountStatus(UserDetails user) {
+        if (!user.isAccountNonLocked()) {
+            throw new StacklessLockedException(messages.getMessage("AbstractUserDetailsAuthenticationProvider.locked", "User account is locked"));
+        }
+        if (!user.isEnabled()) {
+            throw new StacklessDisabledException(messages.getMessage("AbstractUserDetailsAuthenticationProvider.disabled", "User is disabled"));
+        }
+        if (!user.isAccountNonExpired()) {
+            throw new AccountExpiredException(messages.getMessage("AbstractUserDetailsAuthenticationProvider.expired", "User account has expired"));
+        }
+    }
+
+    private StacklessBadCredentialsException badCredentials() {
+        return new StacklessBadCredentialsException(messages.getMessage("AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+    }
+}
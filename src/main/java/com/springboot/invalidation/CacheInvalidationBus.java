@@ -0,0 +1,221 @@
+package com.springboot.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.entity.InvalidationMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static com.springboot.constant.CacheInvalidationConstant.*;
+
+// bus invalidation cache giua cac node: thay doi commit xong moi duoc gom vao lo, sau batch-ms gui 1 message
+// key trung trong cung lo chi gui 1 lan, lo qua max-keys thi gui full flush thay vi liet ke
+// ben nhan kiem tra sequence theo node, thieu message (mat goi, dong bi xoa, gui loi) thi flush toan bo cache cua minh
+public class CacheInvalidationBus implements Closeable {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final String node;
+    private final InvalidationTransport transport;
+    private final ObjectMapper objectMapper;
+    private final long batchMillis;
+    private final int maxKeys;
+    private final ScheduledExecutorService flushExecutor;
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Long> lastSequences = new ConcurrentHashMap<>();
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+    private final Counter gapCounter;
+    private volatile Consumer<InvalidationMessage> listener = message -> { };
+    // lo dang gom, bao ve boi this
+    private Set<Long> pendingUserIds = new HashSet<>();
+    private Set<String> pendingUsernames = new HashSet<>();
+    private long pendingDirectoryVersion;
+    private boolean pendingFlushAll;
+    private boolean flushScheduled;
+
+    // 1 node, khong gui di dau ca
+    public CacheInvalidationBus() {
+        this(null, null, null, new SimpleMeterRegistry(), 0, 0, 0);
+    }
+
+    public CacheInvalidationBus(String node, InvalidationTransport transport, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                long batchMillis, long heartbeatMillis, int maxKeys) {
+        this.node = node;
+        this.transport = transport;
+        this.objectMapper = objectMapper;
+        this.batchMillis = batchMillis;
+        this.maxKeys = maxKeys;
+        this.publishedCounter = meterRegistry.counter(PUBLISHED_METRIC);
+        this.receivedCounter = meterRegistry.counter(RECEIVED_METRIC);
+        this.gapCounter = meterRegistry.counter(GAPS_METRIC);
+        if (transport == null) {
+            this.flushExecutor = null;
+            return;
+        }
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, FLUSH_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (heartbeatMillis > 0) {
+            flushExecutor.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // nhan message truoc khi cache tai du lieu tu DB luc khoi dong thi khong bo sot thay doi nao
+    public void start(Consumer<InvalidationMessage> listener) throws IOException {
+        this.listener = listener;
+        if (transport != null) {
+            transport.start(this::receive);
+        }
+    }
+
+    public void invalidateUser(Long userId) {
+        if (userId != null) {
+            invalidateUsers(List.of(userId));
+        }
+    }
+
+    public void invalidateUsers(Collection<Long> userIds) {
+        afterCommit(() -> enqueue(() -> pendingUserIds.addAll(userIds)));
+    }
+
+    public void invalidateTokens(Collection<String> usernames) {
+        afterCommit(() -> enqueue(() -> pendingUsernames.addAll(usernames)));
+    }
+
+    public void directoryChanged(long version) {
+        afterCommit(() -> enqueue(() -> pendingDirectoryVersion = Math.max(pendingDirectoryVersion, version)));
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (transport == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private synchronized void enqueue(Runnable change) {
+        change.run();
+        if (pendingUserIds.size() + pendingUsernames.size() > maxKeys) {
+            pendingFlushAll = true;
+            pendingUserIds.clear();
+            pendingUsernames.clear();
+        }
+        if (!flushScheduled) {
+            flushScheduled = true;
+            flushExecutor.schedule(this::flush, batchMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void flush() {
+        InvalidationMessage message;
+        synchronized (this) {
+            message = new InvalidationMessage(node, sequence.incrementAndGet(), false, pendingFlushAll,
+                    pendingDirectoryVersion, pendingUserIds, pendingUsernames);
+            pendingUserIds = new HashSet<>();
+            pendingUsernames = new HashSet<>();
+            pendingDirectoryVersion = 0;
+            pendingFlushAll = false;
+            flushScheduled = false;
+        }
+        send(message);
+    }
+
+    // sequence khong tang: node khac so voi sequence cuoi cung da nhan de biet message cuoi co bi mat khong
+    private void heartbeat() {
+        send(new InvalidationMessage(node, sequence.get(), true, false, 0, Set.of(), Set.of()));
+    }
+
+    // gui loi thi sequence da cap bi bo trong, node khac se thay gap va flush
+    private void send(InvalidationMessage message) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(message);
+            if (bytes.length > transport.maxMessageBytes()) {
+                InvalidationMessage flushAll = InvalidationMessage.flushAll(node, message.getSequence());
+                flushAll.setDirectoryVersion(message.getDirectoryVersion());
+                bytes = objectMapper.writeValueAsBytes(flushAll);
+            }
+            transport.publish(bytes);
+            if (!message.isHeartbeat()) {
+                publishedCounter.increment();
+            }
+        } catch (IOException | RuntimeException exception) {
+            LOGGER.warn(INVALIDATION_NOT_PUBLISHED + exception.getMessage());
+        }
+    }
+
+    // moi transport giao message tu 1 luong duy nhat
+    private synchronized void receive(byte[] bytes) {
+        InvalidationMessage message;
+        try {
+            message = objectMapper.readValue(bytes, InvalidationMessage.class);
+        } catch (IOException exception) {
+            LOGGER.warn(INVALIDATION_NOT_READ + exception.getMessage());
+            return;
+        }
+        String sender = message.getNode();
+        if (node.equals(sender)) {
+            return;
+        }
+        Long last = lastSequences.get(sender);
+        long expected = last == null ? 1 : last + 1;
+        // message lap lai (transport database doc lai) hoac den muon sau khi da flush
+        if (message.getSequence() < expected - (message.isHeartbeat() ? 1 : 0)) {
+            return;
+        }
+        long received = message.getSequence();
+        lastSequences.put(sender, received);
+        // lan dau gap node da chay tu truoc thi khong biet da mat gi, cung flush
+        boolean gap = message.isHeartbeat() ? received > expected - 1 : received != expected;
+        try {
+            if (gap) {
+                gapCounter.increment();
+                LOGGER.warn(String.format(INVALIDATION_GAP, sender, expected - 1, received));
+                InvalidationMessage flushAll = InvalidationMessage.flushAll(sender, received);
+                flushAll.setDirectoryVersion(message.getDirectoryVersion());
+                listener.accept(flushAll);
+            } else if (!message.isHeartbeat()) {
+                receivedCounter.increment();
+                listener.accept(message);
+            }
+        } catch (RuntimeException exception) {
+            // cache chua duoc cap nhat: quen node nay de message sau bi coi la gap va flush lai
+            lastSequences.remove(sender);
+            LOGGER.warn(INVALIDATION_NOT_APPLIED + sender + ": " + exception.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.springboot.invalidation;
+
+import com.springboot.entity.CacheInvalidation;
+import com.springboot.repository.CacheInvalidationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static com.springboot.constant.CacheInvalidationConstant.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// transport qua bang cache_invalidation trong DB dang dung, khong can ha tang them
+// moi node poll dong co id lon hon dong da doc, do tre = poll-interval-ms
+public class DatabaseInvalidationTransport implements InvalidationTransport {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final CacheInvalidationRepository cacheInvalidationRepository;
+    private final long pollIntervalMillis;
+    private final long retentionMillis;
+    private final ScheduledExecutorService poller;
+    // id da giao trong khoang doc lai, tranh parse lai payload moi lan poll
+    private final Set<Long> delivered = new HashSet<>();
+    private Consumer<byte[]> receiver;
+    private long startId;
+    private long lastId;
+    private long lastPrune;
+
+    public DatabaseInvalidationTransport(CacheInvalidationRepository cacheInvalidationRepository, long pollIntervalMillis, long retentionMillis) {
+        this.cacheInvalidationRepository = cacheInvalidationRepository;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.retentionMillis = retentionMillis;
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, POLL_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // chi nhan dong ghi sau khi start, trang thai truoc do cache tu doc tu DB khi khoi dong
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+        Long maxId = cacheInvalidationRepository.findMaxId();
+        startId = maxId == null ? 0 : maxId;
+        lastId = startId;
+        lastPrune = System.currentTimeMillis();
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void publish(byte[] message) {
+        cacheInvalidationRepository.save(new CacheInvalidation(null, new String(message, UTF_8), new Date()));
+    }
+
+    @Override
+    public int maxMessageBytes() {
+        return Integer.MAX_VALUE;
+    }
+
+    private void poll() {
+        try {
+            List<CacheInvalidation> rows;
+            do {
+                rows = cacheInvalidationRepository.findByIdGreaterThanOrderByIdAsc(Math.max(0, lastId - POLL_LOOKBACK_ROWS),
+                        PageRequest.of(0, POLL_PAGE_SIZE + POLL_LOOKBACK_ROWS));
+                for (CacheInvalidation row : rows) {
+                    if (row.getId() > startId && delivered.add(row.getId())) {
+                        receiver.accept(row.getPayload().getBytes(UTF_8));
+                    }
+                    lastId = Math.max(lastId, row.getId());
+                }
+                delivered.removeIf(id -> id <= lastId - POLL_LOOKBACK_ROWS);
+            } while (rows.size() == POLL_PAGE_SIZE + POLL_LOOKBACK_ROWS);
+            prune();
+        } catch (RuntimeException exception) {
+            LOGGER.warn(INVALIDATION_NOT_READ + exception.getMessage());
+        }
+    }
+
+    // moi node deu xoa dong qua han, xoa trung nhau cung khong sao
+    private void prune() {
+        long now = System.currentTimeMillis();
+        if (now - lastPrune >= retentionMillis) {
+            cacheInvalidationRepository.deleteByCreatedAtBefore(new Date(now - retentionMillis));
+            lastPrune = now;
+        }
+    }
+
+    @Override
+    public void close() {
+        poller.shutdownNow();
+    }
+}
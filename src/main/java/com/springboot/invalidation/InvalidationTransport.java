@@ -0,0 +1,15 @@
+package com.springboot.invalidation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.function.Consumer;
+
+// kenh gui message invalidation toi cac node khac, co the mat hoac lap message (bus tu phat hien qua sequence)
+public interface InvalidationTransport extends Closeable {
+
+    void start(Consumer<byte[]> receiver) throws IOException;
+
+    void publish(byte[] message) throws IOException;
+
+    int maxMessageBytes();
+}
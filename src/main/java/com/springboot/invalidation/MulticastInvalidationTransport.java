@@ -0,0 +1,76 @@
+package com.springboot.invalidation;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.*;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static com.springboot.constant.CacheInvalidationConstant.*;
+
+// transport pub/sub bang UDP multicast cua JDK, khong can broker
+// datagram co the mat hoac den sai thu tu, bus phat hien qua sequence va flush toan bo
+// mang phai cho phep multicast giua cac node (thuong khong co tren cloud, khi do dung transport database)
+public class MulticastInvalidationTransport implements InvalidationTransport {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final InetSocketAddress group;
+    private final NetworkInterface networkInterface;
+    private final MulticastSocket socket;
+    private final MulticastSocket sendSocket;
+    private Thread receiverThread;
+
+    public MulticastInvalidationTransport(String address, int port, String interfaceName, int timeToLive) throws IOException {
+        this.group = new InetSocketAddress(InetAddress.getByName(address), port);
+        this.networkInterface = StringUtils.isBlank(interfaceName) ? null : NetworkInterface.getByName(interfaceName);
+        this.socket = new MulticastSocket(port);
+        this.sendSocket = new MulticastSocket();
+        sendSocket.setTimeToLive(timeToLive);
+        if (networkInterface != null) {
+            sendSocket.setNetworkInterface(networkInterface);
+        }
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) throws IOException {
+        socket.joinGroup(group, networkInterface);
+        receiverThread = new Thread(() -> receive(receiver), RECEIVE_THREAD_NAME);
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+    }
+
+    @Override
+    public void publish(byte[] message) throws IOException {
+        sendSocket.send(new DatagramPacket(message, message.length, group));
+    }
+
+    @Override
+    public int maxMessageBytes() {
+        return MULTICAST_MAX_MESSAGE_BYTES;
+    }
+
+    private void receive(Consumer<byte[]> receiver) {
+        byte[] buffer = new byte[MULTICAST_MAX_MESSAGE_BYTES];
+        DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+        while (!socket.isClosed()) {
+            try {
+                packet.setLength(buffer.length);
+                socket.receive(packet);
+                receiver.accept(Arrays.copyOf(packet.getData(), packet.getLength()));
+            } catch (SocketException exception) {
+                // socket dong khi shutdown
+                return;
+            } catch (IOException | RuntimeException exception) {
+                LOGGER.warn(INVALIDATION_NOT_READ + exception.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        socket.close();
+        sendSocket.close();
+    }
+}
@@ -0,0 +1,47 @@
+package com.springboot.listener;
+
+import com.springboot.enumeration.AuthenticationAuditType;
+import com.springboot.service.AuthenticationAuditService;
+import lombok.AllArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+// ghi moi lan dang nhap thanh cong / that bai vao audit journal kem IP cua request
+@Component
+@AllArgsConstructor
+public class AuthenticationAuditListener {
+    private final AuthenticationAuditService authenticationAuditService;
+
+    @EventListener
+    public void onAuthenticationEvent(AbstractAuthenticationEvent event) {
+        AuthenticationAuditType type = typeOf(event);
+        if (type != null) {
+            authenticationAuditService.record(type, event.getAuthentication().getName(), remoteAddress());
+        }
+    }
+
+    private static AuthenticationAuditType typeOf(AbstractAuthenticationEvent event) {
+        if (event instanceof AuthenticationSuccessEvent) {
+            return AuthenticationAuditType.SUCCESS;
+        } else if (event instanceof AuthenticationFailureBadCredentialsEvent) {
+            return AuthenticationAuditType.BAD_CREDENTIALS;
+        } else if (event instanceof AuthenticationFailureLockedEvent) {
+            return AuthenticationAuditType.LOCKED;
+        } else if (event instanceof AuthenticationFailureDisabledEvent) {
+            return AuthenticationAuditType.DISABLED;
+        } else if (event instanceof AbstractAuthenticationFailureEvent) {
+            return AuthenticationAuditType.FAILURE;
+        }
+        // InteractiveAuthenticationSuccessEvent... trung voi AuthenticationSuccessEvent
+        return null;
+    }
+
+    private static String remoteAddress() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes ? ((ServletRequestAttributes) attributes).getRequest().getRemoteAddr() : null;
+    }
+}
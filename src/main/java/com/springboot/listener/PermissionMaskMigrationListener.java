@@ -0,0 +1,31 @@
+package com.springboot.listener;
+
+import com.springboot.enumeration.Role;
+import com.springboot.repository.UserRepository;
+import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+// khi khoi dong thi dien permission_mask cho user cu (truoc day quyen luu dang blob authorities)
+// quyen luon suy ra tu role nen chi can 1 cau update cho moi role
+@Component
+@AllArgsConstructor
+public class PermissionMaskMigrationListener {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final UserRepository userRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void onApplicationReady() {
+        for (Role role : Role.values()) {
+            int updated = userRepository.backfillPermissionMask(role.name(), role.getPermissionMask());
+            if (updated > 0) {
+                LOGGER.info("Backfilled permission mask for " + updated + " users with " + role.name());
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.springboot.listener;
+
+import com.springboot.service.ProfileImageService;
+import lombok.AllArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+// chuyen anh tu cau truc cu USER_FOLDER/<username>/<username>.jpg sang blob storage
+// chay 1 lan khi khoi dong voi user.image.migrate-legacy-layout=true
+@Component
+@AllArgsConstructor
+@ConditionalOnProperty(prefix = "user.image", name = "migrate-legacy-layout", havingValue = "true")
+public class ProfileImageMigrationListener {
+    private final ProfileImageService profileImageService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() throws IOException {
+        profileImageService.migrateLegacyLayout();
+    }
+}
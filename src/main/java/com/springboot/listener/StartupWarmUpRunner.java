@@ -0,0 +1,118 @@
+package com.springboot.listener;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.entity.User;
+import com.springboot.entity.UserPrincipal;
+import com.springboot.enumeration.Role;
+import com.springboot.repository.UserRepository;
+import com.springboot.utility.JWTTokenProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Date;
+
+import static com.springboot.constant.SecurityConstant.TOKEN_PREFIX;
+import static com.springboot.constant.StartupConstant.*;
+import static org.springframework.http.HttpHeaders.AUTHORIZATION;
+
+// chay cac duong nong (JWT, BCrypt, repository, Jackson, chuoi filter + controller) truoc khi nhan traffic
+// ApplicationRunner chay truoc khi readiness chuyen sang ACCEPTING_TRAFFIC nen probe chi bao UP khi da lam nong xong
+@Component
+@ConditionalOnProperty(prefix = "startup.warm-up", name = "enabled", havingValue = "true")
+public class StartupWarmUpRunner implements ApplicationRunner {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final ApplicationContext applicationContext;
+    private final JWTTokenProvider jwtTokenProvider;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final int iterations;
+    private final int bcryptIterations;
+
+    public StartupWarmUpRunner(ApplicationContext applicationContext, JWTTokenProvider jwtTokenProvider, BCryptPasswordEncoder passwordEncoder,
+                               UserRepository userRepository, ObjectMapper objectMapper, Environment environment,
+                               @Value("${startup.warm-up.iterations:20}") int iterations,
+                               @Value("${startup.warm-up.bcrypt-iterations:2}") int bcryptIterations) {
+        this.applicationContext = applicationContext;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.passwordEncoder = passwordEncoder;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+        this.environment = environment;
+        this.iterations = iterations;
+        this.bcryptIterations = bcryptIterations;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        long start = System.currentTimeMillis();
+        // tao truoc controller va service phia sau (bi lazy khi bat lazy-initialization)
+        applicationContext.getBeansWithAnnotation(RestController.class);
+        User user = warmUpUser();
+        String token = jwtTokenProvider.generateJwtToken(new UserPrincipal(user));
+        for (int i = 0; i < iterations; i++) {
+            DecodedJWT decodedJWT = jwtTokenProvider.verify(jwtTokenProvider.generateJwtToken(new UserPrincipal(user)));
+            jwtTokenProvider.getPermissionMask(decodedJWT);
+            objectMapper.readValue(objectMapper.writeValueAsBytes(user), User.class);
+        }
+        String hash = passwordEncoder.encode(WARM_UP_PASSWORD);
+        for (int i = 0; i < bcryptIterations; i++) {
+            passwordEncoder.matches(WARM_UP_PASSWORD, hash);
+        }
+        for (int i = 0; i < iterations; i++) {
+            userRepository.findByUsername(WARM_UP_USERNAME);
+            userRepository.findExistingUsernames(Collections.singletonList(WARM_UP_USERNAME));
+        }
+        userRepository.findPageAfter(Long.MIN_VALUE, PageRequest.of(0, 1));
+        warmUpRequestPath(token);
+        LOGGER.info(WARM_UP_FINISHED + (System.currentTimeMillis() - start));
+    }
+
+    // goi that qua HTTP de lam nong Tomcat, chuoi security filter, DispatcherServlet va message converter
+    private void warmUpRequestPath(String token) throws IOException {
+        String port = environment.getProperty("local.server.port");
+        if (port == null) {
+            return;
+        }
+        URL url = new URL("http://localhost:" + port + "/user/find/" + WARM_UP_USERNAME);
+        for (int i = 0; i < iterations; i++) {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestProperty(AUTHORIZATION, TOKEN_PREFIX + token);
+            connection.getResponseCode();
+            try (InputStream inputStream = connection.getInputStream()) {
+                inputStream.readAllBytes();
+            }
+        }
+    }
+
+    private static User warmUpUser() {
+        User user = new User();
+        user.setId(0L);
+        user.setUserId(WARM_UP_USERNAME);
+        user.setUsername(WARM_UP_USERNAME);
+        user.setEmail(WARM_UP_USERNAME + "@localhost");
+        user.setJoinDate(new Date());
+        user.setRole(Role.ROLE_USER.name());
+        user.setAuthorities(Role.ROLE_USER.getAuthorities());
+        user.setActive(true);
+        user.setNotLocked(true);
+        return user;
+    }
+}
@@ -0,0 +1,24 @@
+package com.springboot.listener;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import static com.springboot.constant.StartupConstant.TRAINING_RUN_FINISHED;
+
+// lan chay huan luyen de tao AppCDS archive (profile maven cds): thoat ngay khi context da refresh xong
+// JVM ghi cac class da nap vao archive luc thoat (-XX:ArchiveClassesAtExit), khong can ket noi DB
+@Component
+@ConditionalOnProperty(prefix = "startup", name = "training-run", havingValue = "true")
+public class TrainingRunListener {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void onApplicationStarted() {
+        LOGGER.info(TRAINING_RUN_FINISHED);
+        System.exit(0);
+    }
+}
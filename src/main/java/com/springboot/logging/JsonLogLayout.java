@@ -0,0 +1,45 @@
+package com.springboot.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.LayoutBase;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Map;
+
+// moi su kien la 1 dong JSON (timestamp, level, logger, thread, message, MDC, stack trace) de log collector doc truc tiep
+// chay tren thread cua AsyncAppender nen chi phi format khong nam tren request thread
+public class JsonLogLayout extends LayoutBase<ILoggingEvent> {
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Override
+    public String doLayout(ILoggingEvent event) {
+        StringWriter writer = new StringWriter(256);
+        try (JsonGenerator generator = jsonFactory.createGenerator(writer)) {
+            generator.writeStartObject();
+            generator.writeStringField("timestamp", Instant.ofEpochMilli(event.getTimeStamp()).toString());
+            generator.writeStringField("level", event.getLevel().toString());
+            generator.writeStringField("logger", event.getLoggerName());
+            generator.writeStringField("thread", event.getThreadName());
+            generator.writeStringField("message", event.getFormattedMessage());
+            for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+                generator.writeStringField(entry.getKey(), entry.getValue());
+            }
+            IThrowableProxy throwableProxy = event.getThrowableProxy();
+            if (throwableProxy != null) {
+                generator.writeStringField("exception", ThrowableProxyUtil.asString(throwableProxy));
+            }
+            generator.writeEndObject();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return writer.append(CoreConstants.LINE_SEPARATOR).toString();
+    }
+}
@@ -0,0 +1,80 @@
+package com.springboot.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.springboot.constant.LoggingConstant.*;
+
+// gioi han log co marker SAMPLED: moi (logger, level) cho qua toi da ratePerSecond su kien moi giay,
+// vuot qua thi chi giu 1 trong sampleRate su kien. Chay tren thread goi log, truoc khi tao LoggingEvent,
+// nen su kien bi bo khong ton chi phi format hay xep hang. So su kien bi bo duoc bao lai khi sang cua so moi
+public class SamplingTurboFilter extends TurboFilter {
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private int ratePerSecond = 20;
+    private int sampleRate = 100;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable throwable) {
+        // format == null la cac lenh isXxxEnabled(), khong tinh vao quota
+        if (marker == null || format == null || !marker.contains(SAMPLED) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        String key = logger.getName() + ' ' + level;
+        long suppressed = roll(key, System.nanoTime());
+        if (suppressed > 0) {
+            logger.getLoggerContext().getLogger(SamplingTurboFilter.class).warn(SAMPLED_EVENTS_SUPPRESSED + suppressed + " (" + key + ")");
+        }
+        return tryAcquire(key) ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    // sang cua so moi thi tra ve so su kien bi bo cua cua so truoc
+    long roll(String key, long now) {
+        Window window = windows.computeIfAbsent(key, ignored -> new Window(now));
+        synchronized (window) {
+            if (now - window.start < SAMPLING_WINDOW_NANOS) {
+                return 0;
+            }
+            long suppressed = window.suppressed;
+            window.start = now;
+            window.count = 0;
+            window.suppressed = 0;
+            return suppressed;
+        }
+    }
+
+    boolean tryAcquire(String key) {
+        Window window = windows.get(key);
+        synchronized (window) {
+            long count = ++window.count;
+            if (count <= ratePerSecond || (count - ratePerSecond) % sampleRate == 0) {
+                return true;
+            }
+            window.suppressed++;
+            return false;
+        }
+    }
+
+    public void setRatePerSecond(int ratePerSecond) {
+        this.ratePerSecond = ratePerSecond;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    private static class Window {
+        private long start;
+        private long count;
+        private long suppressed;
+
+        Window(long start) {
+            this.start = start;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.springboot.repository;
+
+import com.springboot.entity.CacheInvalidation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.List;
+
+// transaction khong readOnly de luon doc tu primary, replica tre se lam cham invalidation
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+    @Transactional
+    List<CacheInvalidation> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    @Transactional
+    @Query("select max(c.id) from CacheInvalidation c")
+    Long findMaxId();
+
+    @Modifying
+    @Transactional
+    @Query("delete from CacheInvalidation c where c.createdAt < :createdAt")
+    int deleteByCreatedAtBefore(@Param("createdAt") Date createdAt);
+}
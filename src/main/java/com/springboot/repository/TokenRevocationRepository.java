@@ -0,0 +1,36 @@
+package com.springboot.repository;
+
+import com.springboot.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+    TokenRevocation findByUsername(String username);
+
+    // doc tu primary, dong vua duoc node khac ghi co the chua toi replica
+    @Transactional
+    List<TokenRevocation> findByUsernameIn(Collection<String> usernames);
+
+    @Transactional
+    long deleteByRevokedAtBefore(Date date);
+
+    @Modifying
+    @Transactional
+    @Query("update TokenRevocation t set t.revokedAt = :revokedAt where t.username in :usernames")
+    int updateRevokedAt(@Param("usernames") Collection<String> usernames, @Param("revokedAt") Date revokedAt);
+
+    // insert theo tap cho username chua co dong thu hoi, tranh insert tung dong (id IDENTITY khong batch duoc)
+    @Modifying
+    @Transactional
+    @Query(value = "insert into token_revocation (username, revoked_at) select u.username, :revokedAt from user u"
+            + " where u.username in (:usernames) and u.deleted_at is null"
+            + " and not exists (select 1 from token_revocation t where t.username = u.username)", nativeQuery = true)
+    int insertMissing(@Param("usernames") Collection<String> usernames, @Param("revokedAt") Date revokedAt);
+}
@@ -0,0 +1,23 @@
+package com.springboot.repository;
+
+import com.springboot.entity.UsedRefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+public interface UsedRefreshTokenRepository extends JpaRepository<UsedRefreshToken, String> {
+    // insert thang (save se merge vi id da co): trung khoa chinh nghia la token da duoc dung, ke ca tren node khac
+    @Modifying
+    @Transactional
+    @Query(value = "insert into used_refresh_token (token_id, username, expires_at) values (:tokenId, :username, :expiresAt)", nativeQuery = true)
+    int insert(@Param("tokenId") String tokenId, @Param("username") String username, @Param("expiresAt") Date expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("delete from UsedRefreshToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Date now);
+}
@@ -1,9 +1,55 @@
 package com.springboot.repository;
 
 import com.springboot.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByUsername(String username);
     User findByEmail(String email);
+
+    @Query("select u.username from User u where u.username in :usernames")
+    Set<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("select u.email from User u where u.email in :emails")
+    Set<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    // keyset paging: trang sau bat dau tu id cuoi cua trang truoc, khong dung OFFSET (trang cang sau cang cham)
+    @Query("select u from User u where u.id > :lastId order by u.id")
+    List<User> findPageAfter(@Param("lastId") long lastId, Pageable pageable);
+
+    @Modifying
+    @Query("update User u set u.permissionMask = :permissionMask where u.role = :role and u.permissionMask is null")
+    int backfillPermissionMask(@Param("role") String role, @Param("permissionMask") Integer permissionMask);
+
+    @Query("select distinct u.profileImageHash from User u where u.profileImageHash is not null")
+    Set<String> findReferencedProfileImageHashes();
+
+    // native query vi @Where cua User an cac user da xoa mem
+    @Query(value = "select * from user where deleted_at < :deletedBefore order by deleted_at limit :limit", nativeQuery = true)
+    List<User> findSoftDeleted(@Param("deletedBefore") Date deletedBefore, @Param("limit") int limit);
+
+    @Query(value = "select count(*) from user where deleted_at is not null", nativeQuery = true)
+    long countSoftDeleted();
+
+    // gom ca user da xoa mem de client biet user nao bi xoa
+    @Query(value = "select * from user where updated_at > :since and updated_at <= :until order by updated_at limit :limit", nativeQuery = true)
+    List<User> findChangedBetween(@Param("since") Date since, @Param("until") Date until, @Param("limit") int limit);
+
+    @Query(value = "select max(updated_at) from user", nativeQuery = true)
+    Date findMaxUpdatedAt();
+
+    @Modifying
+    @Transactional
+    @Query(value = "delete from user where id in (:ids) and deleted_at is not null", nativeQuery = true)
+    int purgeSoftDeleted(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,127 @@
+package com.springboot.service;
+
+import com.springboot.audit.AuditJournalReader;
+import com.springboot.audit.AuditJournalWriter;
+import com.springboot.audit.AuditRingBuffer;
+import com.springboot.entity.AuthenticationAuditRecord;
+import com.springboot.enumeration.AuthenticationAuditType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.springboot.constant.AuthenticationAuditConstant.*;
+
+// nhat ky dang nhap thanh cong / that bai cho bo phan an ninh dieu tra
+// request thread chi dua ban ghi vao ring buffer khong lock, 1 thread rieng ghi xuong segment file (AuditJournalWriter)
+// ring buffer day (writer cham / dia loi) thi bo ban ghi va tang user.audit.dropped thay vi lam cham dang nhap
+@Service
+public class AuthenticationAuditService {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final Path folder;
+    private final AuditRingBuffer<AuthenticationAuditRecord> ringBuffer;
+    private final AuditJournalWriter journalWriter;
+    private final long flushIntervalNanos;
+    private final long retentionMillis;
+    private final Counter droppedCounter;
+    private final Counter recordedCounter;
+    private final Counter writeFailureCounter;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    public AuthenticationAuditService(MeterRegistry meterRegistry,
+                                      @Value("${user.audit.folder:}") String folder,
+                                      @Value("${user.audit.ring-size:65536}") int ringSize,
+                                      @Value("${user.audit.segment-size-bytes:67108864}") int segmentSize,
+                                      @Value("${user.audit.flush-interval-ms:1000}") long flushIntervalMillis,
+                                      @Value("${user.audit.retention-ms:7776000000}") long retentionMillis) throws IOException {
+        this.folder = Paths.get(StringUtils.defaultIfBlank(folder, AUDIT_FOLDER));
+        this.ringBuffer = new AuditRingBuffer<>(ringSize);
+        this.journalWriter = new AuditJournalWriter(this.folder, segmentSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.retentionMillis = retentionMillis;
+        this.droppedCounter = meterRegistry.counter(DROPPED_METRIC);
+        this.recordedCounter = meterRegistry.counter(RECORDED_METRIC);
+        this.writeFailureCounter = meterRegistry.counter(WRITE_FAILURES_METRIC);
+        this.writerThread = new Thread(this::runWriter, WRITER_THREAD_NAME);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    // chay tren request thread: chi cap phat 1 ban ghi va 1 CAS
+    public void record(AuthenticationAuditType type, String username, String remoteAddress) {
+        if (!ringBuffer.offer(new AuthenticationAuditRecord(System.currentTimeMillis(), type, username, remoteAddress))) {
+            droppedCounter.increment();
+        }
+    }
+
+    // username = null thi lay tat ca, khoang [from, to)
+    public List<AuthenticationAuditRecord> query(long from, long to, String username) throws IOException {
+        List<AuthenticationAuditRecord> records = new ArrayList<>();
+        AuditJournalReader.query(folder, from, to, username, records::add);
+        return records;
+    }
+
+    @Scheduled(fixedDelayString = "${user.audit.retention-check-interval-ms:3600000}")
+    public void deleteExpiredSegments() {
+        try {
+            int deleted = AuditJournalReader.deleteSegmentsBefore(folder, System.currentTimeMillis() - retentionMillis);
+            if (deleted > 0) {
+                LOGGER.info(SEGMENTS_DELETED + deleted);
+            }
+        } catch (IOException exception) {
+            LOGGER.error(SEGMENTS_NOT_DELETED + exception.getMessage());
+        }
+    }
+
+    // ghi not ban ghi con trong ring buffer roi dong segment
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(WRITER_SHUTDOWN_TIMEOUT_MILLIS);
+    }
+
+    private void runWriter() {
+        long lastForce = System.nanoTime();
+        while (running || !ringBuffer.isEmpty()) {
+            int drained = ringBuffer.drain(this::write, DRAIN_BATCH_SIZE);
+            long now = System.nanoTime();
+            if (now - lastForce >= flushIntervalNanos) {
+                journalWriter.force();
+                lastForce = now;
+            }
+            if (drained == 0 && running) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        try {
+            journalWriter.close();
+        } catch (IOException exception) {
+            LOGGER.error(AUDIT_WRITE_FAILED + exception.getMessage());
+        }
+    }
+
+    private void write(AuthenticationAuditRecord record) {
+        try {
+            journalWriter.append(record);
+            recordedCounter.increment();
+        } catch (IOException | RuntimeException exception) {
+            writeFailureCounter.increment();
+            LOGGER.error(AUDIT_WRITE_FAILED + exception.getMessage());
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.springboot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.entity.DirectoryEvent;
+import com.springboot.entity.User;
+import com.springboot.enumeration.DirectoryEventType;
+import com.springboot.event.EventStream;
+import com.springboot.event.ServletEventStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.springboot.constant.DirectoryEventConstant.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// day thay doi cua danh sach user toi client qua SSE
+// ket noi rong khong giu thread nao (servlet async), chi vai thread sender ghi du lieu khi co su kien hoac heartbeat
+// ghi khong block (EventStream) nen client cham hay half-open khong chan viec gui toi subscriber khac
+// moi subscriber co buffer gioi han, su kien cung user trong cua so coalesce chi gui ban moi nhat
+// buffer day hoac socket khong ghi duoc qua lau thi ngat ket noi, client ket noi lai va dong bo bang /user/changes
+@Service
+public class DirectoryEventService {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final ObjectMapper objectMapper;
+    private final DirectoryVersionService directoryVersionService;
+    private final TokenRevocationService tokenRevocationService;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService senderExecutor;
+    private final int bufferSize;
+    private final long coalesceMillis;
+    private final long timeoutMillis;
+    private final long slowConsumerTimeoutMillis;
+    private final Counter slowConsumerCounter;
+    private final Counter sentEventCounter;
+
+    public DirectoryEventService(ObjectMapper objectMapper, DirectoryVersionService directoryVersionService,
+                                 TokenRevocationService tokenRevocationService, MeterRegistry meterRegistry,
+                                 @Value("${user.events.buffer-size:256}") int bufferSize,
+                                 @Value("${user.events.coalesce-ms:100}") long coalesceMillis,
+                                 @Value("${user.events.timeout-ms:1800000}") long timeoutMillis,
+                                 @Value("${user.events.slow-consumer-timeout-ms:10000}") long slowConsumerTimeoutMillis,
+                                 @Value("${user.events.sender-threads:4}") int senderThreads) {
+        this.objectMapper = objectMapper;
+        this.directoryVersionService = directoryVersionService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.bufferSize = bufferSize;
+        this.coalesceMillis = coalesceMillis;
+        this.timeoutMillis = timeoutMillis;
+        this.slowConsumerTimeoutMillis = slowConsumerTimeoutMillis;
+        this.senderExecutor = Executors.newScheduledThreadPool(senderThreads);
+        this.slowConsumerCounter = meterRegistry.counter(SLOW_CONSUMERS_METRIC);
+        this.sentEventCounter = meterRegistry.counter(SENT_EVENTS_METRIC);
+        meterRegistry.gaugeCollectionSize(SUBSCRIBERS_METRIC, Tags.empty(), subscribers);
+    }
+
+    // ket noi tu dong dong khi token het han, client phai ket noi lai voi token moi
+    public void subscribe(String username, Date issuedAt, Date expiresAt, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long timeout = timeoutMillis;
+        if (expiresAt != null) {
+            timeout = Math.max(1, Math.min(timeout, expiresAt.getTime() - System.currentTimeMillis()));
+        }
+        subscribe(username, issuedAt, new ServletEventStream(request, response, timeout));
+    }
+
+    void subscribe(String username, Date issuedAt, EventStream stream) {
+        Subscriber subscriber = new Subscriber(username, issuedAt, stream);
+        subscribers.add(subscriber);
+        stream.start(subscriber::onWritable, subscriber::onClosed);
+        // version hien tai de client biet dong bo tu dau neu bi ngat
+        long version = directoryVersionService.currentVersion();
+        subscriber.offer(new PendingEvent(ALL_USERS_KEY, frame(DirectoryEventType.READY, version,
+                serialize(new DirectoryEvent(DirectoryEventType.READY, version, null, null)))));
+    }
+
+    public void publishAfterCommit(DirectoryEventType type, User user) {
+        runAfterCommit(() -> publish(type, user));
+    }
+
+    public void publish(DirectoryEventType type, User user) {
+        long version = user.getUpdatedAt() == null ? directoryVersionService.currentVersion() : user.getUpdatedAt().getTime();
+        DirectoryEvent event = new DirectoryEvent(type, version, user.getUserId(), type == DirectoryEventType.DELETED ? null : user);
+        // serialize 1 lan cho moi subscriber, fan-out chay tren sender thread de khong giu request thread
+        String data = serialize(event);
+        if (data != null) {
+            PendingEvent pendingEvent = new PendingEvent(user.getUserId(), frame(type, version, data));
+            execute(() -> subscribers.forEach(subscriber -> subscriber.offer(pendingEvent)));
+        }
+    }
+
+    // thay doi hang loat (import...) chi bao 1 su kien, client tu goi /user/changes
+    public void publishResync() {
+        long version = directoryVersionService.currentVersion();
+        PendingEvent pendingEvent = new PendingEvent(ALL_USERS_KEY, frame(DirectoryEventType.RESYNC, version,
+                serialize(new DirectoryEvent(DirectoryEventType.RESYNC, version, null, null))));
+        execute(() -> subscribers.forEach(subscriber -> subscriber.offer(pendingEvent)));
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // heartbeat giu ket noi qua proxy va phat hien client da mat; dong luon ket noi co token bi thu hoi
+    @Scheduled(fixedRateString = "${user.events.heartbeat-interval-ms:15000}")
+    public void sendHeartbeats() {
+        long now = System.currentTimeMillis();
+        for (Subscriber subscriber : subscribers) {
+            if (tokenRevocationService.isRevoked(subscriber.username, subscriber.issuedAt)) {
+                subscriber.close();
+            } else if (subscriber.isStuck(now)) {
+                subscriber.closeSlow();
+            } else {
+                subscriber.heartbeat();
+            }
+        }
+    }
+
+    // luc nay web server da dung va dong socket, chi can bo subscriber va dung sender
+    @PreDestroy
+    public void shutdown() {
+        subscribers.clear();
+        senderExecutor.shutdownNow();
+    }
+
+    private String serialize(DirectoryEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException exception) {
+            LOGGER.error(EVENT_NOT_SERIALIZED + exception.getMessage());
+            return null;
+        }
+    }
+
+    // dinh dang giong SseEmitter, du lieu JSON khong co xuong dong
+    private static byte[] frame(DirectoryEventType type, long version, String data) {
+        return (EVENT_ID_FIELD + version + "\n" + EVENT_NAME_FIELD + type.name() + "\n" + EVENT_DATA_FIELD + data + "\n\n").getBytes(UTF_8);
+    }
+
+    private void execute(Runnable task) {
+        schedule(task, 0);
+    }
+
+    private void schedule(Runnable task, long delayMillis) {
+        try {
+            senderExecutor.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException exception) {
+            // dang shutdown
+        }
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static class PendingEvent {
+        private final String key;
+        private final byte[] frame;
+
+        PendingEvent(String key, byte[] frame) {
+            this.key = key;
+            this.frame = frame;
+        }
+    }
+
+    private class Subscriber {
+        private final String username;
+        private final Date issuedAt;
+        private final EventStream stream;
+        // key = userId, giu thu tu theo lan thay doi cuoi
+        private final LinkedHashMap<String, PendingEvent> pending = new LinkedHashMap<>();
+        private boolean heartbeatDue;
+        private boolean flushScheduled;
+        // > 0: co du lieu cho gui nhung socket chua ghi duoc tu thoi diem nay
+        private volatile long blockedSince;
+        private volatile boolean closed;
+
+        Subscriber(String username, Date issuedAt, EventStream stream) {
+            this.username = username;
+            this.issuedAt = issuedAt;
+            this.stream = stream;
+        }
+
+        void offer(PendingEvent event) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                pending.remove(event.key);
+                pending.put(event.key, event);
+                if (pending.size() <= bufferSize) {
+                    scheduleFlush(coalesceMillis);
+                    return;
+                }
+            }
+            closeSlow();
+        }
+
+        synchronized void heartbeat() {
+            if (!closed) {
+                heartbeatDue = true;
+                scheduleFlush(0);
+            }
+        }
+
+        boolean isStuck(long now) {
+            long since = blockedSince;
+            return since > 0 && now - since >= slowConsumerTimeoutMillis;
+        }
+
+        // thread cua container: chi chuyen viec sang sender, khong lay lock cua subscriber
+        void onWritable() {
+            if (blockedSince > 0) {
+                blockedSince = 0;
+                execute(this::resume);
+            }
+        }
+
+        void onClosed() {
+            closed = true;
+            subscribers.remove(this);
+        }
+
+        private synchronized void resume() {
+            if (!closed && (!pending.isEmpty() || heartbeatDue)) {
+                scheduleFlush(0);
+            }
+        }
+
+        // goi khi dang giu lock cua subscriber
+        private void scheduleFlush(long delayMillis) {
+            if (!flushScheduled) {
+                flushScheduled = true;
+                schedule(this::flush, delayMillis);
+            }
+        }
+
+        // ghi khong block nen giu lock trong luc ghi, 1 subscriber khong bao gio co 2 lan ghi dong thoi
+        // socket chua ghi duoc thi tra sender thread ngay va cho onWritable, qua slow-consumer-timeout thi ngat
+        private void flush() {
+            boolean failed = false;
+            synchronized (this) {
+                flushScheduled = false;
+                if (closed) {
+                    pending.clear();
+                    return;
+                }
+                if (pending.isEmpty() && !heartbeatDue) {
+                    return;
+                }
+                // danh dau truoc isReady(): onWritePossible co the den ngay khi isReady() vua tra false
+                boolean wasBlocked = blockedSince > 0;
+                if (!wasBlocked) {
+                    blockedSince = System.currentTimeMillis();
+                }
+                if (!stream.isReady()) {
+                    if (!wasBlocked) {
+                        schedule(this::closeIfStuck, slowConsumerTimeoutMillis);
+                    }
+                    return;
+                }
+                blockedSince = 0;
+                int events = pending.size();
+                ByteArrayOutputStream frames = new ByteArrayOutputStream();
+                pending.values().forEach(event -> frames.writeBytes(event.frame));
+                if (events == 0) {
+                    frames.writeBytes(HEARTBEAT_FRAME);
+                }
+                pending.clear();
+                heartbeatDue = false;
+                try {
+                    stream.write(frames.toByteArray());
+                    sentEventCounter.increment(events);
+                } catch (IOException | IllegalStateException exception) {
+                    // client da dong ket noi
+                    failed = true;
+                }
+            }
+            if (failed) {
+                close();
+            }
+        }
+
+        private void closeIfStuck() {
+            if (isStuck(System.currentTimeMillis())) {
+                closeSlow();
+            }
+        }
+
+        void closeSlow() {
+            if (!closed) {
+                slowConsumerCounter.increment();
+                LOGGER.warn(SLOW_CONSUMER_DISCONNECTED + username);
+                close();
+            }
+        }
+
+        void close() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            subscribers.remove(this);
+            stream.close();
+        }
+    }
+}
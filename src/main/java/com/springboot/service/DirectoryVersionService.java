@@ -0,0 +1,120 @@
+package com.springboot.service;
+
+import com.springboot.datasource.ReplicaLagGuard;
+import com.springboot.entity.InvalidationMessage;
+import com.springboot.entity.User;
+import com.springboot.invalidation.CacheInvalidationBus;
+import com.springboot.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static com.springboot.constant.UserDirectoryConstant.DIRECTORY_VERSION_LOADED;
+
+// version cua danh sach user: tang dan, moi lan sua user duoc cap 1 version va ghi vao cot updatedAt
+// version gan bang thoi gian (ms) nen van tang sau khi restart
+// version cong bo = version nho nhat con dang trong transaction - 1, de client khong bo sot thay doi commit cham
+// version cong bo va user da sua duoc gui qua bus invalidation sau khi commit de node khac khong giu cache cu
+@Service
+public class DirectoryVersionService {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final UserRepository userRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+    private volatile long lastIssued;
+    private volatile long purgedThrough;
+
+    public DirectoryVersionService(UserRepository userRepository, CacheInvalidationBus cacheInvalidationBus,
+                                   @Value("${user.reaper.retention-ms:3600000}") long retentionMillis) {
+        this.userRepository = userRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.lastIssued = System.currentTimeMillis();
+        // tombstone cu hon retention co the da bi reaper xoa truoc khi restart
+        this.purgedThrough = lastIssued - retentionMillis;
+    }
+
+    // phong truong hop dong ho node nay cham hon node da ghi truoc do
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadVersion() {
+        Date maxUpdatedAt = ReplicaLagGuard.readFromPrimary(userRepository::findMaxUpdatedAt);
+        if (maxUpdatedAt != null) {
+            synchronized (this) {
+                lastIssued = Math.max(lastIssued, maxUpdatedAt.getTime());
+            }
+        }
+        LOGGER.info(DIRECTORY_VERSION_LOADED + lastIssued);
+    }
+
+    // cap count version lien tiep, phai goi finish(start, changed) khi transaction ket thuc
+    public synchronized long begin(int count) {
+        long start = Math.max(lastIssued + 1, System.currentTimeMillis());
+        // them vao inFlight truoc khi cong bo lastIssued de currentVersion khong vuot qua
+        inFlight.add(start);
+        lastIssued = start + count - 1;
+        return start;
+    }
+
+    // changed = transaction da commit va thuc su sua user, rollback hay khong sua gi thi khong bao node khac
+    public void finish(long start, boolean changed) {
+        inFlight.remove(start);
+        if (changed) {
+            cacheInvalidationBus.directoryChanged(currentVersion());
+        }
+    }
+
+    // gan version moi cho user, version duoc giai phong khi transaction hien tai commit/rollback
+    public void stamp(User user) {
+        long version = begin(1);
+        user.setUpdatedAt(new Date(version));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    finish(version, status == STATUS_COMMITTED);
+                    // user moi chi co id sau khi save
+                    if (status == STATUS_COMMITTED) {
+                        cacheInvalidationBus.invalidateUser(user.getId());
+                    }
+                }
+            });
+        } else {
+            finish(version, true);
+        }
+    }
+
+    // thay doi tu node khac, version cua node do co the da vuot version cua node nay
+    @EventListener
+    public void onCacheInvalidation(InvalidationMessage message) {
+        if (message.isFlushAll()) {
+            loadVersion();
+        }
+        if (message.getDirectoryVersion() > 0) {
+            synchronized (this) {
+                lastIssued = Math.max(lastIssued, message.getDirectoryVersion());
+            }
+        }
+    }
+
+    public long currentVersion() {
+        long issued = lastIssued;
+        Iterator<Long> oldest = inFlight.iterator();
+        return oldest.hasNext() ? Math.min(issued, oldest.next() - 1) : issued;
+    }
+
+    public synchronized void markPurged(long version) {
+        purgedThrough = Math.max(purgedThrough, version);
+    }
+
+    public long getPurgedThrough() {
+        return purgedThrough;
+    }
+}
@@ -0,0 +1,152 @@
+package com.springboot.service;
+
+import com.google.common.hash.Hashing;
+import com.google.common.hash.HashingInputStream;
+import com.springboot.entity.User;
+import com.springboot.repository.UserRepository;
+import com.springboot.storage.BlobStorage;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.tomcat.util.http.fileupload.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static com.springboot.constant.FileConstant.*;
+import static com.springboot.constant.UserSearchConstant.INDEX_LOAD_PAGE_SIZE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+// luu anh dai dien theo noi dung: ten file la sha256, chia thu muc ab/cd/ de moi thu muc khong qua nhieu file
+// anh giong nhau chi luu 1 lan, user tro toi anh qua cot profileImageHash
+// noi luu thuc te (disk local hay S3) do BlobStorage quyet dinh
+@Service
+public class ProfileImageService {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final UserRepository userRepository;
+    private final BlobStorage blobStorage;
+    private final long gcGracePeriodMillis;
+
+    public ProfileImageService(UserRepository userRepository, BlobStorage blobStorage,
+                               @Value("${user.image.gc-grace-period-ms:3600000}") long gcGracePeriodMillis) {
+        this.userRepository = userRepository;
+        this.blobStorage = blobStorage;
+        this.gcGracePeriodMillis = gcGracePeriodMillis;
+    }
+
+    // ghi ra file tam trong luc tinh hash de khong giu ca anh trong bo nho, sau do moi day len storage
+    public String store(InputStream inputStream) throws IOException {
+        Path tempFile = Files.createTempFile(TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+        try {
+            String hash;
+            try (HashingInputStream hashingInputStream = new HashingInputStream(Hashing.sha256(), inputStream)) {
+                Files.copy(hashingInputStream, tempFile, REPLACE_EXISTING);
+                hash = hashingInputStream.hash().toString();
+            }
+            String key = blobKey(hash);
+            if (blobStorage.exists(key)) {
+                // anh da ton tai: cap nhat thoi gian de GC khong xoa truoc khi user duoc luu
+                blobStorage.touch(key);
+            } else {
+                blobStorage.put(key, tempFile);
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    public byte[] read(String hash) throws IOException {
+        try (InputStream inputStream = blobStorage.get(blobKey(hash))) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    // doc anh theo duong dan cu USER_FOLDER/<username>/<file>, neu da migrate thi doc tu blob
+    public byte[] readLegacy(String username, String fileName) throws IOException {
+        Path legacyFile = Paths.get(USER_FOLDER + username + FORWARD_SLASH + fileName);
+        if (Files.exists(legacyFile)) {
+            return Files.readAllBytes(legacyFile);
+        }
+        User user = userRepository.findByUsername(username);
+        if (user != null && user.getProfileImageHash() != null) {
+            return read(user.getProfileImageHash());
+        }
+        throw new NoSuchFileException(legacyFile.toString());
+    }
+
+    public String getBlobPath(String hash) {
+        return BLOB_IMAGE_PATH + hash + DOT + JPG_EXTENSION;
+    }
+
+    public void migrateLegacyLayout() throws IOException {
+        PageRequest pageRequest = PageRequest.of(0, INDEX_LOAD_PAGE_SIZE);
+        long lastId = Long.MIN_VALUE;
+        List<User> page;
+        do {
+            page = userRepository.findPageAfter(lastId, pageRequest);
+            for (User user : page) {
+                migrateUser(user);
+                lastId = user.getId();
+            }
+        } while (page.size() == INDEX_LOAD_PAGE_SIZE);
+    }
+
+    private void migrateUser(User user) throws IOException {
+        Path legacyFolder = Paths.get(USER_FOLDER + user.getUsername()).toAbsolutePath().normalize();
+        Path legacyFile = legacyFolder.resolve(user.getUsername() + DOT + JPG_EXTENSION);
+        if (user.getProfileImageHash() != null || !Files.exists(legacyFile)) {
+            return;
+        }
+        String hash;
+        try (InputStream inputStream = Files.newInputStream(legacyFile)) {
+            hash = store(inputStream);
+        }
+        user.setProfileImageHash(hash);
+        String legacyPath = USER_IMAGE_PATH + user.getUsername();
+        String baseUrl = StringUtils.substringBefore(user.getProfileImageUrl(), legacyPath);
+        user.setProfileImageUrl(baseUrl + getBlobPath(hash));
+        userRepository.save(user);
+        FileUtils.deleteDirectory(new File(legacyFolder.toString()));
+        LOGGER.info(IMAGE_MIGRATED + user.getUsername());
+    }
+
+    // xoa anh khong con user nao tro toi; file moi hon grace period duoc giu lai vi co the dang upload
+    @Scheduled(fixedDelayString = "${user.image.gc-interval-ms:3600000}")
+    public void collectGarbage() throws IOException {
+        Set<String> referencedHashes = userRepository.findReferencedProfileImageHashes();
+        long expiredBefore = System.currentTimeMillis() - gcGracePeriodMillis;
+        List<String> unreferenced = new ArrayList<>();
+        blobStorage.forEach(blobInfo -> {
+            String hash = StringUtils.substringBefore(StringUtils.substringAfterLast(FORWARD_SLASH + blobInfo.getKey(), FORWARD_SLASH), DOT);
+            if (!referencedHashes.contains(hash) && blobInfo.getLastModified() < expiredBefore) {
+                unreferenced.add(blobInfo.getKey());
+            }
+        });
+        for (String key : unreferenced) {
+            blobStorage.delete(key);
+        }
+        if (!unreferenced.isEmpty()) {
+            LOGGER.info(UNREFERENCED_IMAGES_DELETED + unreferenced.size());
+        }
+    }
+
+    private String blobKey(String hash) {
+        if (hash == null || !hash.matches(BLOB_HASH_PATTERN)) {
+            throw new IllegalArgumentException(INVALID_BLOB_HASH + hash);
+        }
+        return hash.substring(0, 2) + FORWARD_SLASH + hash.substring(2, 4) + FORWARD_SLASH + hash + DOT + JPG_EXTENSION;
+    }
+}
@@ -0,0 +1,52 @@
+package com.springboot.service;
+
+import com.springboot.repository.UsedRefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+
+import static com.springboot.constant.SecurityConstant.REFRESH_TOKEN_REUSED;
+import static com.springboot.constant.SecurityConstant.REVOCATION_PRUNE_INTERVAL;
+
+// xoay vong refresh token: moi refresh token (jti) chi doi duoc 1 lan, lan doi dau ghi jti vao DB
+// token da dung bi gui lai nghia la da bi lo (ke lay cap hoac client that da doi truoc), thu hoi moi token cua user
+@Service
+public class RefreshTokenService {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final UsedRefreshTokenRepository usedRefreshTokenRepository;
+    private final TokenRevocationService tokenRevocationService;
+
+    public RefreshTokenService(UsedRefreshTokenRepository usedRefreshTokenRepository, TokenRevocationService tokenRevocationService) {
+        this.usedRefreshTokenRepository = usedRefreshTokenRepository;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    // false = token da duoc dung truoc do, cac token cua user da bi thu hoi
+    public boolean markUsed(String tokenId, String username, Date expiresAt) {
+        if (tokenId == null) {
+            // token phat hanh truoc khi co jti, tu het han sau REFRESH_EXPIRATION_TIME
+            return true;
+        }
+        try {
+            usedRefreshTokenRepository.insert(tokenId, username, expiresAt);
+            return true;
+        } catch (DataIntegrityViolationException exception) {
+            LOGGER.warn(REFRESH_TOKEN_REUSED + username);
+            tokenRevocationService.revokeTokens(username);
+            return false;
+        }
+    }
+
+    // token da het han thi khong the dung lai, khong can giu jti
+    @Scheduled(fixedDelay = REVOCATION_PRUNE_INTERVAL)
+    public void pruneExpiredTokens() {
+        int deleted = usedRefreshTokenRepository.deleteExpired(new Date());
+        if (deleted > 0) {
+            LOGGER.info("Pruned expired refresh tokens: " + deleted);
+        }
+    }
+}
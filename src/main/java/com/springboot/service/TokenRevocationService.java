@@ -0,0 +1,140 @@
+package com.springboot.service;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.springboot.datasource.ReplicaLagGuard;
+import com.springboot.entity.InvalidationMessage;
+import com.springboot.entity.TokenRevocation;
+import com.springboot.invalidation.CacheInvalidationBus;
+import com.springboot.repository.TokenRevocationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.springboot.constant.SecurityConstant.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// service thu hoi token: luu trong DB, kiem tra trong bo nho qua Bloom filter + map chinh xac
+// truong hop pho bien (user khong bi thu hoi) chi ton vai lan hash, khong truy van DB
+// thu hoi tren node khac den qua bus invalidation, node nay doc lai dong thu hoi cua cac username do
+@Service
+public class TokenRevocationService {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final TokenRevocationRepository tokenRevocationRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final Map<String, Long> revokedBefore = new ConcurrentHashMap<>();
+    private volatile BloomFilter<CharSequence> bloomFilter = newBloomFilter(REVOCATION_EXPECTED_INSERTIONS);
+
+    public TokenRevocationService(TokenRevocationRepository tokenRevocationRepository, CacheInvalidationBus cacheInvalidationBus) {
+        this.tokenRevocationRepository = tokenRevocationRepository;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRevocations() {
+        applyRevocations(ReplicaLagGuard.readFromPrimary(tokenRevocationRepository::findAll));
+        rebuildBloomFilter();
+    }
+
+    @EventListener
+    public void onCacheInvalidation(InvalidationMessage message) {
+        if (message.isFlushAll()) {
+            loadRevocations();
+        } else if (!message.getUsernames().isEmpty()) {
+            applyRevocations(ReplicaLagGuard.readFromPrimary(() -> tokenRevocationRepository.findByUsernameIn(message.getUsernames())));
+        }
+    }
+
+    public boolean isRevoked(String username, Date issuedAt) {
+        if (!bloomFilter.mightContain(username)) {
+            return false;
+        }
+        Long revokedAt = revokedBefore.get(username);
+        return revokedAt != null && (issuedAt == null || issuedAt.getTime() <= revokedAt);
+    }
+
+    public synchronized void revokeTokens(String username) {
+        Date now = new Date();
+        TokenRevocation tokenRevocation = tokenRevocationRepository.findByUsername(username);
+        if (tokenRevocation == null) {
+            tokenRevocation = new TokenRevocation(null, username, now);
+        }
+        tokenRevocation.setRevokedAt(now);
+        tokenRevocationRepository.save(tokenRevocation);
+        applyAfterCommit(List.of(username), now.getTime());
+        cacheInvalidationBus.invalidateTokens(List.of(username));
+    }
+
+    // thu hoi hang loat: 1 cau UPDATE cho username da co dong thu hoi va 1 cau INSERT ... SELECT cho phan con lai
+    public synchronized void revokeTokens(Collection<String> usernames) {
+        Date now = new Date();
+        tokenRevocationRepository.updateRevokedAt(usernames, now);
+        tokenRevocationRepository.insertMissing(usernames, now);
+        applyAfterCommit(usernames, now.getTime());
+        cacheInvalidationBus.invalidateTokens(usernames);
+    }
+
+    // token phat hanh truoc moc nay da het han nen khong can giu thong tin thu hoi nua
+    @Scheduled(fixedDelay = REVOCATION_PRUNE_INTERVAL)
+    public synchronized void pruneExpiredRevocations() {
+        long expiredBefore = System.currentTimeMillis() - REFRESH_EXPIRATION_TIME;
+        revokedBefore.values().removeIf(revokedAt -> revokedAt < expiredBefore);
+        long deleted = tokenRevocationRepository.deleteByRevokedAtBefore(new Date(expiredBefore));
+        rebuildBloomFilter();
+        if (deleted > 0) {
+            LOGGER.info("Pruned expired token revocations: " + deleted);
+        }
+    }
+
+    // chi sua bo nho khi dong thu hoi da commit: transaction rollback thi token van hop le nhu trong DB
+    private void applyAfterCommit(Collection<String> revokedUsernames, long revokedAt) {
+        List<String> usernames = List.copyOf(revokedUsernames);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(usernames, revokedAt);
+                }
+            });
+        } else {
+            apply(usernames, revokedAt);
+        }
+    }
+
+    // ghi vao map truoc roi moi vao filter de luong doc khong bao gio bo sot
+    private synchronized void apply(Collection<String> usernames, long revokedAt) {
+        for (String username : usernames) {
+            revokedBefore.merge(username, revokedAt, Math::max);
+            bloomFilter.put(username);
+        }
+    }
+
+    // chi tien moc thu hoi len, dong doc ve co the cu hon gia tri node nay vua ghi
+    private synchronized void applyRevocations(Iterable<TokenRevocation> tokenRevocations) {
+        for (TokenRevocation tokenRevocation : tokenRevocations) {
+            revokedBefore.merge(tokenRevocation.getUsername(), tokenRevocation.getRevokedAt().getTime(), Math::max);
+            bloomFilter.put(tokenRevocation.getUsername());
+        }
+    }
+
+    private synchronized void rebuildBloomFilter() {
+        BloomFilter<CharSequence> rebuilt = newBloomFilter(Math.max(REVOCATION_EXPECTED_INSERTIONS, revokedBefore.size() * 2));
+        revokedBefore.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+    }
+
+    private static BloomFilter<CharSequence> newBloomFilter(int expectedInsertions) {
+        return BloomFilter.create(Funnels.stringFunnel(UTF_8), expectedInsertions, REVOCATION_FALSE_POSITIVE_RATE);
+    }
+}
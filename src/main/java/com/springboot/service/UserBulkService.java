@@ -0,0 +1,185 @@
+package com.springboot.service;
+
+import com.springboot.datasource.ReplicaLagGuard;
+import com.springboot.entity.BulkUserResult;
+import com.springboot.entity.BulkUserSelection;
+import com.springboot.enumeration.BulkUserAction;
+import com.springboot.enumeration.Role;
+import com.springboot.exception.entity.InvalidBulkRequestException;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static com.springboot.constant.UserBulkConstant.*;
+
+// khoa / mo khoa / kich hoat / doi role hang loat cho admin
+// moi chunk 1 transaction: chon user chua o trang thai dich, 1 cau UPDATE theo tap, thu hoi token cua ca chunk
+// ca chunk dung chung 1 version (updatedAt), cache JSON theo version tu het hieu luc, client SSE nhan RESYNC
+@Service
+public class UserBulkService {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final TransactionTemplate transactionTemplate;
+    private final DirectoryVersionService directoryVersionService;
+    private final DirectoryEventService directoryEventService;
+    private final TokenRevocationService tokenRevocationService;
+    private final LoginAttemptService loginAttemptService;
+    private final ReplicaLagGuard replicaLagGuard;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public UserBulkService(PlatformTransactionManager transactionManager, DirectoryVersionService directoryVersionService,
+                           DirectoryEventService directoryEventService, TokenRevocationService tokenRevocationService,
+                           LoginAttemptService loginAttemptService, ReplicaLagGuard replicaLagGuard) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directoryVersionService = directoryVersionService;
+        this.directoryEventService = directoryEventService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.loginAttemptService = loginAttemptService;
+        this.replicaLagGuard = replicaLagGuard;
+    }
+
+    public static BulkUserAction parseAction(String action) throws InvalidBulkRequestException {
+        try {
+            return BulkUserAction.valueOf(action.toUpperCase());
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidBulkRequestException(UNKNOWN_ACTION + action);
+        }
+    }
+
+    public BulkUserResult apply(BulkUserAction action, String role, BulkUserSelection selection) throws InvalidBulkRequestException {
+        long start = System.currentTimeMillis();
+        Role targetRole = null;
+        if (action == BulkUserAction.ROLE) {
+            if (StringUtils.isBlank(role)) {
+                throw new InvalidBulkRequestException(MISSING_ROLE);
+            }
+            targetRole = parseRole(role);
+        }
+        // kiem tra truoc de bindParameters trong tung chunk khong the loi
+        if (selection.getRole() != null) {
+            parseRole(selection.getRole());
+        }
+        List<String> candidates = candidates(action, targetRole, selection);
+        BulkUserResult result = new BulkUserResult();
+        for (int from = 0; from < candidates.size(); from += BULK_CHUNK_SIZE) {
+            List<String> chunk = candidates.subList(from, Math.min(from + BULK_CHUNK_SIZE, candidates.size()));
+            Role chunkRole = targetRole;
+            // version chi duoc giai phong sau khi commit de /user/changes khong bo qua chunk dang ghi
+            long version = directoryVersionService.begin(1);
+            long updatedBefore = result.getUpdated();
+            boolean committed = false;
+            try {
+                transactionTemplate.executeWithoutResult(status -> applyChunk(action, chunkRole, selection, chunk, version, result));
+                committed = true;
+            } finally {
+                directoryVersionService.finish(version, committed && result.getUpdated() > updatedBefore);
+            }
+        }
+        if (result.getUpdated() > 0) {
+            replicaLagGuard.markWrite();
+            directoryEventService.publishResync();
+        }
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        LOGGER.info(String.format(USERS_BULK_UPDATED, action.name().toLowerCase(), result.getMatched(), result.getUpdated(), result.getTokensRevoked()));
+        return result;
+    }
+
+    // username duoc gui len thi dung luon (loc lai trong tung chunk), neu khong thi lay username khop bo loc
+    private List<String> candidates(BulkUserAction action, Role targetRole, BulkUserSelection selection) throws InvalidBulkRequestException {
+        List<String> usernames = new ArrayList<>();
+        if (selection.getUsernames() != null) {
+            selection.getUsernames().stream().filter(StringUtils::isNotBlank).forEach(usernames::add);
+        }
+        if (!usernames.isEmpty()) {
+            return new ArrayList<>(new LinkedHashSet<>(usernames));
+        }
+        if (selection.getRole() == null && selection.getActive() == null && selection.getNotLocked() == null) {
+            throw new InvalidBulkRequestException(EMPTY_SELECTION);
+        }
+        TypedQuery<String> query = entityManager.createQuery("select u.username from User u where "
+                + action.getPendingCondition() + filterCondition(selection) + " order by u.id", String.class);
+        bindParameters(query, targetRole, selection);
+        return query.getResultList();
+    }
+
+    private void applyChunk(BulkUserAction action, Role targetRole, BulkUserSelection selection, List<String> chunk,
+                            long version, BulkUserResult result) {
+        TypedQuery<String> pendingQuery = entityManager.createQuery("select u.username from User u where u.username in :usernames and "
+                + action.getPendingCondition() + filterCondition(selection), String.class);
+        pendingQuery.setParameter("usernames", chunk);
+        bindParameters(pendingQuery, targetRole, selection);
+        List<String> pending = pendingQuery.getResultList();
+        if (pending.isEmpty()) {
+            return;
+        }
+        Query update = entityManager.createQuery("update User u set " + action.getAssignment() + ", u.updatedAt = :updatedAt"
+                + " where u.username in :usernames and u.deletedAt is null and " + action.getPendingCondition());
+        update.setParameter("usernames", pending);
+        update.setParameter("updatedAt", new Date(version));
+        bindParameters(update, targetRole, null);
+        int updated = update.executeUpdate();
+        result.setMatched(result.getMatched() + pending.size());
+        result.setUpdated(result.getUpdated() + updated);
+        if (action.revokesTokens()) {
+            tokenRevocationService.revokeTokens(pending);
+            result.setTokensRevoked(result.getTokensRevoked() + pending.size());
+        }
+        if (action == BulkUserAction.UNLOCK) {
+            pending.forEach(loginAttemptService::evictUserFromLoginAttemptCache);
+        }
+    }
+
+    private static String filterCondition(BulkUserSelection selection) {
+        StringBuilder condition = new StringBuilder();
+        if (selection.getRole() != null) {
+            condition.append(" and u.role = :filterRole");
+        }
+        if (selection.getActive() != null) {
+            condition.append(" and u.isActive = :filterActive");
+        }
+        if (selection.getNotLocked() != null) {
+            condition.append(" and u.isNotLocked = :filterNotLocked");
+        }
+        return condition.toString();
+    }
+
+    private static Role parseRole(String role) throws InvalidBulkRequestException {
+        try {
+            return Role.valueOf(role.toUpperCase());
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidBulkRequestException(UNKNOWN_ROLE + role);
+        }
+    }
+
+    private static void bindParameters(Query query, Role targetRole, BulkUserSelection selection) {
+        if (targetRole != null) {
+            query.setParameter("role", targetRole.name());
+            query.setParameter("permissionMask", targetRole.getPermissionMask());
+        }
+        if (selection == null) {
+            return;
+        }
+        if (selection.getRole() != null) {
+            query.setParameter("filterRole", Role.valueOf(selection.getRole().toUpperCase()).name());
+        }
+        if (selection.getActive() != null) {
+            query.setParameter("filterActive", selection.getActive());
+        }
+        if (selection.getNotLocked() != null) {
+            query.setParameter("filterNotLocked", selection.getNotLocked());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.springboot.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.entity.User;
+import com.springboot.enumeration.UserDataFormat;
+import com.springboot.enumeration.UserExportColumn;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.*;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.springboot.constant.UserExportConstant.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hibernate.annotations.QueryHints.FETCH_SIZE;
+import static org.hibernate.annotations.QueryHints.READ_ONLY;
+
+// service export user dang stream: doc tung dong tu result set va ghi thang ra response
+// entity duoc detach dinh ky nen bo nho khong tang theo so luong user
+@Service
+@RequiredArgsConstructor
+public class UserExportService {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream outputStream, UserDataFormat format, List<UserExportColumn> columns) throws IOException {
+        long count;
+        try (Stream<User> users = entityManager.createQuery(EXPORT_QUERY, User.class)
+                .setHint(FETCH_SIZE, streamingFetchSize())
+                .setHint(READ_ONLY, true)
+                .getResultStream()) {
+            if (format == UserDataFormat.NDJSON) {
+                count = writeNdjson(users.iterator(), outputStream, columns);
+            } else {
+                count = writeCsv(users.iterator(), outputStream, columns);
+            }
+        }
+        LOGGER.info(USERS_EXPORTED + count);
+        return count;
+    }
+
+    private long writeCsv(Iterator<User> users, OutputStream outputStream, List<UserExportColumn> columns) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, UTF_8));
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(CSV_SEPARATOR);
+            }
+            writer.write(columns.get(i).getColumnName());
+        }
+        writer.write(LINE_SEPARATOR);
+        long count = 0;
+        while (users.hasNext()) {
+            User user = users.next();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    writer.write(CSV_SEPARATOR);
+                }
+                writer.write(toCsvValue(columns.get(i).valueOf(user)));
+            }
+            writer.write(LINE_SEPARATOR);
+            detachPeriodically(++count);
+        }
+        writer.flush();
+        return count;
+    }
+
+    private long writeNdjson(Iterator<User> users, OutputStream outputStream, List<UserExportColumn> columns) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        long count = 0;
+        while (users.hasNext()) {
+            User user = users.next();
+            generator.writeStartObject();
+            for (UserExportColumn column : columns) {
+                generator.writeFieldName(column.getColumnName());
+                generator.writeObject(column.valueOf(user));
+            }
+            generator.writeEndObject();
+            generator.writeRaw(LINE_SEPARATOR);
+            detachPeriodically(++count);
+        }
+        generator.close();
+        return count;
+    }
+
+    private String toCsvValue(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof Date ? String.valueOf(((Date) value).getTime()) : value.toString();
+        if (text.contains(CSV_SEPARATOR) || text.contains("\"") || text.contains(LINE_SEPARATOR)) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+
+    // fetch size theo dialect dang dung: MySQL moi hieu Integer.MIN_VALUE la streaming
+    private int streamingFetchSize() {
+        Dialect dialect = entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        return dialect instanceof MySQLDialect ? MYSQL_STREAMING_FETCH_SIZE : CURSOR_FETCH_SIZE;
+    }
+
+    private void detachPeriodically(long count) {
+        if (count % DETACH_INTERVAL == 0) {
+            entityManager.clear();
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.springboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.datasource.ReplicaLagGuard;
+import com.springboot.entity.User;
+import com.springboot.entity.UserImportRecord;
+import com.springboot.entity.UserImportResult;
+import com.springboot.enumeration.Role;
+import com.springboot.enumeration.UserDataFormat;
+import com.springboot.invalidation.CacheInvalidationBus;
+import com.springboot.repository.UserRepository;
+import com.springboot.utility.UserIdGenerator;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import static com.springboot.constant.FileConstant.DEFAULT_USER_IMAGE_PATH;
+import static com.springboot.constant.UserImportConstant.*;
+import static com.springboot.constant.UserImplConstant.EMAIL_ALREADY_EXISTS;
+import static com.springboot.constant.UserImplConstant.USERNAME_ALREADY_EXISTS;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+// service import hang loat user tu file CSV/NDJSON
+// kiem tra trung username/email theo tung chunk, hash mat khau song song va insert theo batch
+@Service
+public class UserImportService {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final UserRepository userRepository;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final UserSearchService userSearchService;
+    private final UserIdGenerator userIdGenerator;
+    private final DirectoryVersionService directoryVersionService;
+    private final DirectoryEventService directoryEventService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService hashingExecutor;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public UserImportService(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder, ReplicaLagGuard replicaLagGuard,
+                             UserSearchService userSearchService, UserIdGenerator userIdGenerator, DirectoryVersionService directoryVersionService,
+                             DirectoryEventService directoryEventService, CacheInvalidationBus cacheInvalidationBus,
+                             ObjectMapper objectMapper, @Value("${user.import.hashing-threads:0}") int hashingThreads) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.replicaLagGuard = replicaLagGuard;
+        this.userSearchService = userSearchService;
+        this.userIdGenerator = userIdGenerator;
+        this.directoryVersionService = directoryVersionService;
+        this.directoryEventService = directoryEventService;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.objectMapper = objectMapper;
+        int threads = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        this.hashingExecutor = Executors.newFixedThreadPool(threads);
+    }
+
+    public UserImportResult importUsers(InputStream inputStream, UserDataFormat format) throws IOException {
+        UserImportResult result = new UserImportResult();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        String profileImageBaseUrl = ServletUriComponentsBuilder.fromCurrentContextPath().path(DEFAULT_USER_IMAGE_PATH).toUriString();
+        List<ImportRow> chunk = new ArrayList<>(IMPORT_CHUNK_SIZE);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (StringUtils.isBlank(line)) {
+                    continue;
+                }
+                if (format == UserDataFormat.CSV && lineNumber == 1 && line.startsWith(CSV_HEADER_FIRST_COLUMN)) {
+                    continue;
+                }
+                try {
+                    chunk.add(new ImportRow(lineNumber, parseRow(line, format)));
+                } catch (IOException | IllegalArgumentException exception) {
+                    result.addError(lineNumber, null, MALFORMED_ROW + exception.getMessage());
+                    continue;
+                }
+                if (chunk.size() == IMPORT_CHUNK_SIZE) {
+                    importChunk(chunk, seenUsernames, seenEmails, profileImageBaseUrl, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, seenUsernames, seenEmails, profileImageBaseUrl, result);
+        }
+        if (result.getImported() > 0) {
+            replicaLagGuard.markWrite();
+            directoryEventService.publishResync();
+        }
+        LOGGER.info(USERS_IMPORTED + result.getImported());
+        return result;
+    }
+
+    private void importChunk(List<ImportRow> chunk, Set<String> seenUsernames, Set<String> seenEmails,
+                             String profileImageBaseUrl, UserImportResult result) {
+        List<ImportRow> validRows = validateRows(chunk, seenUsernames, seenEmails, result);
+        if (validRows.isEmpty()) {
+            return;
+        }
+        List<String> hashedPasswords = hashPasswords(validRows);
+        Date joinDate = new Date();
+        List<User> users = new ArrayList<>(validRows.size());
+        for (int i = 0; i < validRows.size(); i++) {
+            UserImportRecord record = validRows.get(i).getRecord();
+            Role role = getRole(record.getRole());
+            User user = new User();
+            user.setUserId(userIdGenerator.nextUserId());
+            user.setFirstName(record.getFirstName());
+            user.setLastName(record.getLastName());
+            user.setUsername(record.getUsername());
+            user.setEmail(record.getEmail());
+            user.setPassword(hashedPasswords.get(i));
+            user.setJoinDate(joinDate);
+            user.setActive(true);
+            user.setNotLocked(true);
+            user.setRole(role.name());
+            user.setAuthorities(role.getAuthorities());
+            user.setProfileImageUrl(profileImageBaseUrl + user.getUsername());
+            users.add(user);
+        }
+        // moi user mot version rieng, giai phong sau khi chunk da luu xong
+        long firstVersion = directoryVersionService.begin(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            users.get(i).setUpdatedAt(new Date(firstVersion + i));
+        }
+        long importedBefore = result.getImported();
+        try {
+            saveChunk(validRows, users, result);
+        } finally {
+            directoryVersionService.finish(firstVersion, result.getImported() > importedBefore);
+        }
+    }
+
+    private List<ImportRow> validateRows(List<ImportRow> chunk, Set<String> seenUsernames, Set<String> seenEmails, UserImportResult result) {
+        List<ImportRow> candidates = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            UserImportRecord record = row.getRecord();
+            String error = validateFields(record);
+            if (error == null && !seenUsernames.add(record.getUsername())) {
+                error = DUPLICATE_USERNAME_IN_IMPORT;
+            }
+            if (error == null && !seenEmails.add(record.getEmail())) {
+                error = DUPLICATE_EMAIL_IN_IMPORT;
+            }
+            if (error != null) {
+                result.addError(row.getLine(), record.getUsername(), error);
+            } else {
+                candidates.add(row);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (ImportRow row : candidates) {
+            usernames.add(row.getRecord().getUsername());
+            emails.add(row.getRecord().getEmail());
+        }
+        Set<String> existingUsernames = userRepository.findExistingUsernames(usernames);
+        Set<String> existingEmails = userRepository.findExistingEmails(emails);
+        List<ImportRow> validRows = new ArrayList<>(candidates.size());
+        for (ImportRow row : candidates) {
+            if (existingUsernames.contains(row.getRecord().getUsername())) {
+                result.addError(row.getLine(), row.getRecord().getUsername(), USERNAME_ALREADY_EXISTS);
+            } else if (existingEmails.contains(row.getRecord().getEmail())) {
+                result.addError(row.getLine(), row.getRecord().getUsername(), EMAIL_ALREADY_EXISTS);
+            } else {
+                validRows.add(row);
+            }
+        }
+        return validRows;
+    }
+
+    private String validateFields(UserImportRecord record) {
+        if (StringUtils.isBlank(record.getFirstName())) {
+            return MISSING_REQUIRED_FIELD + "firstName";
+        }
+        if (StringUtils.isBlank(record.getLastName())) {
+            return MISSING_REQUIRED_FIELD + "lastName";
+        }
+        if (StringUtils.isBlank(record.getUsername())) {
+            return MISSING_REQUIRED_FIELD + "username";
+        }
+        if (StringUtils.isBlank(record.getEmail())) {
+            return MISSING_REQUIRED_FIELD + "email";
+        }
+        if (StringUtils.isBlank(record.getPassword())) {
+            return MISSING_REQUIRED_FIELD + "password";
+        }
+        try {
+            getRole(record.getRole());
+        } catch (IllegalArgumentException exception) {
+            return INVALID_ROLE + record.getRole();
+        }
+        return null;
+    }
+
+    private List<String> hashPasswords(List<ImportRow> rows) {
+        List<Callable<String>> tasks = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            String rawPassword = row.getRecord().getPassword();
+            tasks.add(() -> passwordEncoder.encode(rawPassword));
+        }
+        List<String> hashedPasswords = new ArrayList<>(rows.size());
+        try {
+            for (Future<String> future : hashingExecutor.invokeAll(tasks)) {
+                hashedPasswords.add(future.get());
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        } catch (ExecutionException exception) {
+            throw new IllegalStateException(exception.getCause());
+        }
+        return hashedPasswords;
+    }
+
+    private void saveChunk(List<ImportRow> rows, List<User> users, UserImportResult result) {
+        try {
+            userRepository.saveAll(users);
+            users.forEach(userSearchService::index);
+            cacheInvalidationBus.invalidateUsers(users.stream().map(User::getId).collect(Collectors.toList()));
+            result.addImported(users.size());
+        } catch (DataAccessException exception) {
+            // batch loi thi luu lai tung dong de chi bao loi dong hong
+            entityManager.clear();
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                try {
+                    user.setId(null);
+                    userRepository.save(user);
+                    userSearchService.index(user);
+                    cacheInvalidationBus.invalidateUser(user.getId());
+                    result.addImported(1);
+                } catch (DataAccessException rowException) {
+                    result.addError(rows.get(i).getLine(), user.getUsername(), rowException.getMostSpecificCause().getMessage());
+                }
+            }
+        } finally {
+            entityManager.clear();
+        }
+    }
+
+    private UserImportRecord parseRow(String line, UserDataFormat format) throws IOException {
+        if (format == UserDataFormat.NDJSON) {
+            return objectMapper.readValue(line, UserImportRecord.class);
+        }
+        List<String> columns = splitCsvLine(line);
+        if (columns.size() < 5) {
+            throw new IllegalArgumentException(line);
+        }
+        UserImportRecord record = new UserImportRecord();
+        record.setFirstName(columns.get(0));
+        record.setLastName(columns.get(1));
+        record.setUsername(columns.get(2));
+        record.setEmail(columns.get(3));
+        record.setPassword(columns.get(4));
+        record.setRole(columns.size() > 5 ? columns.get(5) : null);
+        return record;
+    }
+
+    private List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    column.append(c);
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == CSV_SEPARATOR.charAt(0) && !quoted) {
+                columns.add(column.toString().trim());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString().trim());
+        return columns;
+    }
+
+    private Role getRole(String role) {
+        return StringUtils.isBlank(role) ? Role.ROLE_USER : Role.valueOf(role.trim().toUpperCase());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingExecutor.shutdown();
+    }
+
+    private static class ImportRow {
+        private final long line;
+        private final UserImportRecord record;
+
+        ImportRow(long line, UserImportRecord record) {
+            this.line = line;
+            this.record = record;
+        }
+
+        long getLine() {
+            return line;
+        }
+
+        UserImportRecord getRecord() {
+            return record;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.springboot.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.springboot.entity.CachedUserList;
+import com.springboot.entity.InvalidationMessage;
+import com.springboot.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import static com.springboot.constant.UserDirectoryConstant.LAST_LOGIN_DATE;
+import static com.springboot.constant.UserDirectoryConstant.LAST_LOGIN_DATE_DISPLAY;
+
+// cache JSON da serialize cua user theo version (updatedAt), user khong doi thi khong phai serialize lai
+// danh sach day du duoc cache theo version cua directory, kem ban gzip nen san o muc nen cau hinh duoc
+// cache theo version nen bo cac truong thay doi ma khong cap version (thoi diem dang nhap)
+@Service
+public class UserJsonCache {
+    private static final byte[] ARRAY_START = {'['};
+    private static final byte[] ARRAY_END = {']'};
+    private static final byte[] SEPARATOR = {','};
+
+    private final ObjectWriter userWriter;
+    private final Map<Long, CachedUser> users = new ConcurrentHashMap<>();
+    private final int gzipLevel;
+    private final long gzipMinSize;
+    private volatile CachedUserList userList;
+
+    public UserJsonCache(ObjectMapper objectMapper,
+                         @Value("${user.json.gzip-level:6}") int gzipLevel,
+                         @Value("${server.compression.min-response-size:2KB}") DataSize gzipMinSize) {
+        this.userWriter = objectMapper.copy().addMixIn(User.class, VersionedUser.class).writerFor(User.class);
+        this.gzipLevel = gzipLevel;
+        this.gzipMinSize = gzipMinSize.toBytes();
+    }
+
+    public byte[] toJson(User user) {
+        long version = versionOf(user);
+        CachedUser cachedUser = users.get(user.getId());
+        if (cachedUser != null && cachedUser.version == version) {
+            return cachedUser.json;
+        }
+        byte[] json = serialize(user);
+        users.put(user.getId(), new CachedUser(version, json));
+        return json;
+    }
+
+    // version do node khac cap co the nho hon version cua node nay nen bo danh sach ngay, khong doi version doi
+    // JSON tung user thi da kiem tra theo version, bo di chi de giai phong bo nho som
+    @EventListener
+    public void onCacheInvalidation(InvalidationMessage message) {
+        if (message.isFlushAll()) {
+            users.clear();
+        } else {
+            users.keySet().removeAll(message.getUserIds());
+        }
+        if (message.isFlushAll() || message.getDirectoryVersion() > 0 || !message.getUserIds().isEmpty()) {
+            // cho luong dang build xong roi moi bo, khong de ban build tu du lieu cu ghi de len
+            synchronized (this) {
+                userList = null;
+            }
+        }
+    }
+
+    // chi 1 luong build lai khi version doi, cac luong khac cho va dung ket qua
+    public CachedUserList getUserList(long directoryVersion, Supplier<List<User>> loader) {
+        CachedUserList cached = userList;
+        if (cached != null && cached.getVersion() == directoryVersion) {
+            return cached;
+        }
+        synchronized (this) {
+            cached = userList;
+            if (cached != null && cached.getVersion() == directoryVersion) {
+                return cached;
+            }
+            List<User> loadedUsers = loader.get();
+            byte[] json = toJsonArray(loadedUsers);
+            // user da bi xoa khong con trong danh sach thi bo khoi cache
+            Set<Long> ids = new HashSet<>();
+            loadedUsers.forEach(user -> ids.add(user.getId()));
+            users.keySet().retainAll(ids);
+            cached = new CachedUserList(directoryVersion, json, json.length >= gzipMinSize ? gzip(json) : null);
+            userList = cached;
+            return cached;
+        }
+    }
+
+    public byte[] toJsonArray(List<User> userList) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        outputStream.writeBytes(ARRAY_START);
+        for (int i = 0; i < userList.size(); i++) {
+            if (i > 0) {
+                outputStream.writeBytes(SEPARATOR);
+            }
+            outputStream.writeBytes(toJson(userList.get(i)));
+        }
+        outputStream.writeBytes(ARRAY_END);
+        return outputStream.toByteArray();
+    }
+
+    private byte[] gzip(byte[] json) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream) {{
+            def.setLevel(gzipLevel);
+        }}) {
+            gzipOutputStream.write(json);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private byte[] serialize(User user) {
+        try {
+            return userWriter.writeValueAsBytes(user);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static long versionOf(User user) {
+        return user.getUpdatedAt() == null ? 0 : user.getUpdatedAt().getTime();
+    }
+
+    @JsonIgnoreProperties({LAST_LOGIN_DATE, LAST_LOGIN_DATE_DISPLAY})
+    private interface VersionedUser {
+    }
+
+    private static class CachedUser {
+        private final long version;
+        private final byte[] json;
+
+        CachedUser(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.springboot.service;
+
+import com.google.common.util.concurrent.RateLimiter;
+import com.springboot.entity.User;
+import com.springboot.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.tomcat.util.http.fileupload.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.springboot.constant.FileConstant.USER_FOLDER;
+import static com.springboot.constant.UserReaperConstant.*;
+
+// don dep user da xoa mem o nen: xoa thu muc anh ngoai transaction roi xoa dong theo batch
+// toc do xoa bi gioi han de khong chiem het IO, loi o user nao thi user do duoc thu lai lan sau
+// moi lan chay chi xu ly toi da max-batches-per-run batch, phan con lai de lan sau: khong giu thread scheduler qua lau
+// user da xoa duoc giu lai trong retention lam tombstone cho API dong bo delta (/user/changes)
+@Service
+public class UserReaperService {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final UserRepository userRepository;
+    private final DirectoryVersionService directoryVersionService;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final long retentionMillis;
+    private final RateLimiter rateLimiter;
+    private final Counter purgedCounter;
+    private final Counter failureCounter;
+    private final Timer runTimer;
+    private final AtomicLong pendingUsers = new AtomicLong();
+
+    public UserReaperService(UserRepository userRepository, DirectoryVersionService directoryVersionService, MeterRegistry meterRegistry,
+                             @Value("${user.reaper.batch-size:100}") int batchSize,
+                             @Value("${user.reaper.max-batches-per-run:1}") int maxBatchesPerRun,
+                             @Value("${user.reaper.retention-ms:3600000}") long retentionMillis,
+                             @Value("${user.reaper.max-users-per-second:50}") double maxUsersPerSecond) {
+        this.userRepository = userRepository;
+        this.directoryVersionService = directoryVersionService;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.retentionMillis = retentionMillis;
+        this.rateLimiter = RateLimiter.create(maxUsersPerSecond);
+        this.purgedCounter = meterRegistry.counter(PURGED_USERS_METRIC);
+        this.failureCounter = meterRegistry.counter(FAILED_USERS_METRIC);
+        this.runTimer = meterRegistry.timer(REAPER_RUN_METRIC);
+        meterRegistry.gauge(PENDING_USERS_METRIC, pendingUsers);
+    }
+
+    @Scheduled(fixedDelayString = "${user.reaper.interval-ms:10000}")
+    public void reap() {
+        runTimer.record(() -> {
+            List<User> deletedUsers;
+            int purged;
+            int batches = 0;
+            do {
+                deletedUsers = userRepository.findSoftDeleted(new Date(System.currentTimeMillis() - retentionMillis), batchSize);
+                purged = purge(deletedUsers);
+            } while (++batches < maxBatchesPerRun && deletedUsers.size() == batchSize && purged > 0);
+            pendingUsers.set(userRepository.countSoftDeleted());
+        });
+    }
+
+    private int purge(List<User> deletedUsers) {
+        List<Long> cleanedIds = new ArrayList<>(deletedUsers.size());
+        long maxVersion = 0;
+        for (User user : deletedUsers) {
+            rateLimiter.acquire();
+            try {
+                // username co the da duoc dang ky lai boi user moi, khi do khong duoc xoa thu muc
+                if (userRepository.findByUsername(user.getUsername()) == null) {
+                    FileUtils.deleteDirectory(new File(Paths.get(USER_FOLDER + user.getUsername()).toAbsolutePath().normalize().toString()));
+                }
+                cleanedIds.add(user.getId());
+                if (user.getUpdatedAt() != null) {
+                    maxVersion = Math.max(maxVersion, user.getUpdatedAt().getTime());
+                }
+            } catch (IOException exception) {
+                failureCounter.increment();
+                LOGGER.error(USER_FOLDER_NOT_DELETED + user.getUsername());
+            }
+        }
+        if (cleanedIds.isEmpty()) {
+            return 0;
+        }
+        int purged = userRepository.purgeSoftDeleted(cleanedIds);
+        directoryVersionService.markPurged(maxVersion);
+        purgedCounter.increment(purged);
+        LOGGER.info(USERS_PURGED + purged);
+        return purged;
+    }
+}
@@ -0,0 +1,575 @@
+package com.springboot.service;
+
+import com.springboot.datasource.ReplicaLagGuard;
+import com.springboot.entity.InvalidationMessage;
+import com.springboot.entity.User;
+import com.springboot.entity.UserSearchResult;
+import com.springboot.repository.UserRepository;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+
+import static com.springboot.constant.UserSearchConstant.*;
+
+// service tim kiem user tren index trong bo nho (tien to + trigram cho tim gan dung)
+// index duoc build khi khoi dong va cap nhat khi them/sua/xoa user
+// moi lan index user duoc cap 1 so doc (int) moi, posting la mang int; user sua/xoa chi bi danh dau chet, du nhieu thi don posting
+// tu duoc chia bucket theo do dai: duyet tu bucket ngan nhat la di theo diem giam dan nen du top-k thi dung
+// trigram tro toi tu (khong phai user): tim gan dung chon cac tu giong nhat roi moi lay user cua cac tu do
+@Service
+public class UserSearchService {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final UserRepository userRepository;
+    private final Map<Long, IndexedUser> documents = new ConcurrentHashMap<>();
+    private final List<ConcurrentSkipListMap<String, Postings>> termsByLength = new ArrayList<>();
+    private final Map<String, Postings> trigrams = new ConcurrentHashMap<>();
+    // so doc -> user va so tu -> posting, null khi da chet; chi ghi duoi lock, doc sau posting nen luon du dai
+    private volatile IndexedUser[] docs = new IndexedUser[INDEX_LOAD_PAGE_SIZE];
+    private volatile Postings[] termsById = new Postings[INDEX_LOAD_PAGE_SIZE];
+    private int nextDoc;
+    private int nextTerm;
+    private long livePostings;
+    private long deadPostings;
+
+    public UserSearchService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+        for (int length = 0; length <= MAX_TERM_LENGTH; length++) {
+            termsByLength.add(new ConcurrentSkipListMap<>());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        ReplicaLagGuard.readFromPrimary(this::indexAll);
+        LOGGER.info(SEARCH_INDEX_BUILT + documents.size());
+    }
+
+    // user them/sua/xoa tren node khac: doc lai tu DB, khong con (da xoa mem) thi bo khoi index
+    @EventListener
+    public void onCacheInvalidation(InvalidationMessage message) {
+        if (message.isFlushAll()) {
+            Set<Long> staleIds = new HashSet<>(documents.keySet());
+            staleIds.removeAll(ReplicaLagGuard.readFromPrimary(this::indexAll));
+            staleIds.forEach(this::remove);
+        } else if (!message.getUserIds().isEmpty()) {
+            Set<Long> deletedIds = new HashSet<>(message.getUserIds());
+            for (User user : ReplicaLagGuard.readFromPrimary(() -> userRepository.findAllById(message.getUserIds()))) {
+                index(user);
+                deletedIds.remove(user.getId());
+            }
+            deletedIds.forEach(this::remove);
+        }
+    }
+
+    public void indexAfterCommit(User user) {
+        IndexedUser indexedUser = new IndexedUser(user);
+        runAfterCommit(() -> index(indexedUser));
+    }
+
+    public void removeAfterCommit(Long id) {
+        runAfterCommit(() -> remove(id));
+    }
+
+    public void index(User user) {
+        index(new IndexedUser(user));
+    }
+
+    public synchronized void remove(Long id) {
+        IndexedUser previous = documents.remove(id);
+        if (previous != null) {
+            docs[previous.doc] = null;
+            livePostings -= previous.terms.length;
+            deadPostings += previous.terms.length;
+            if (deadPostings > MIN_DEAD_POSTINGS_TO_COMPACT && deadPostings > livePostings) {
+                compact();
+            }
+        }
+    }
+
+    public UserSearchResult search(String query, int page, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        int pageNumber = Math.max(page, 0);
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty()) {
+            return new UserSearchResult(0, pageNumber, pageSize, Collections.emptyList());
+        }
+        long from = (long) pageNumber * pageSize;
+        List<String[]> tokenTrigrams = tokens.stream()
+                .map(token -> token.length() >= NGRAM_SIZE ? trigramsOf(token).toArray(new String[0]) : new String[0])
+                .collect(Collectors.toList());
+        int selective = 0;
+        for (int i = 1; i < tokens.size(); i++) {
+            if (tokens.get(i).length() > tokens.get(selective).length()) {
+                selective = i;
+            }
+        }
+        Hits hits = new Hits(tokens, tokenTrigrams, (int) Math.min(from + pageSize, MAX_RESULT_WINDOW));
+        boolean exactMatch = collectPrefixHits(tokens.get(selective), hits);
+        if (!exactMatch && !hits.capped && hits.candidates < FUZZY_FALLBACK_HITS && tokenTrigrams.get(selective).length > 0) {
+            collectFuzzyHits(tokens.get(selective), tokenTrigrams.get(selective), hits);
+        }
+        // sort on dinh: cung diem giu thu tu duyet, trang sau luon noi tiep trang truoc
+        List<ScoredUser> scoredUsers = hits.scoredUsers;
+        scoredUsers.sort(Comparator.comparingDouble(ScoredUser::getScore).reversed());
+        int fromIndex = (int) Math.min(from, scoredUsers.size());
+        int toIndex = Math.min(fromIndex + pageSize, scoredUsers.size());
+        List<Long> pageIds = scoredUsers.subList(fromIndex, toIndex).stream().map(scoredUser -> scoredUser.getIndexedUser().id).collect(Collectors.toList());
+        return new UserSearchResult(hits.total, pageNumber, pageSize, loadInOrder(pageIds));
+    }
+
+    private synchronized void index(IndexedUser indexedUser) {
+        remove(indexedUser.id);
+        int doc = nextDoc++;
+        if (doc == docs.length) {
+            docs = Arrays.copyOf(docs, doc * 2);
+        }
+        indexedUser.doc = doc;
+        docs[doc] = indexedUser;
+        documents.put(indexedUser.id, indexedUser);
+        for (String term : indexedUser.terms) {
+            ConcurrentSkipListMap<String, Postings> terms = termsByLength.get(bucketOf(term));
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                postings = addTerm(term);
+                terms.put(term, postings);
+            }
+            postings.add(doc);
+        }
+        livePostings += indexedUser.terms.length;
+    }
+
+    private Postings addTerm(String term) {
+        int termId = nextTerm++;
+        if (termId == termsById.length) {
+            termsById = Arrays.copyOf(termsById, termId * 2);
+        }
+        Postings postings = new Postings(term, termId);
+        termsById[termId] = postings;
+        // email day du chi dung cho tim tien to, trigram cua phan truoc @ da co
+        if (!term.contains("@")) {
+            for (String trigram : trigramsOf(term)) {
+                Postings termIds = trigrams.computeIfAbsent(trigram, ignored -> new Postings(null, -1));
+                if (termIds.saturated) {
+                    continue;
+                }
+                if (termIds.size < MAX_TRIGRAM_POSTINGS) {
+                    termIds.add(termId);
+                } else {
+                    termIds.saturate();
+                }
+            }
+        }
+        return postings;
+    }
+
+    // bo so doc chet khoi posting, tu khong con user nao thi bo luon (ca khoi posting trigram)
+    // thay ca doi tuong Postings de truy van dang chay van thay ban cu nhat quan
+    private void compact() {
+        IndexedUser[] liveDocs = docs;
+        Postings[] liveTerms = termsById;
+        for (ConcurrentSkipListMap<String, Postings> terms : termsByLength) {
+            for (Postings postings : terms.values()) {
+                Postings live = postings.filter(doc -> liveDocs[doc] != null);
+                liveTerms[postings.termId] = live.size == 0 ? null : live;
+                if (live.size == 0) {
+                    terms.remove(postings.term);
+                } else {
+                    terms.put(postings.term, live);
+                }
+            }
+        }
+        for (Map.Entry<String, Postings> entry : trigrams.entrySet()) {
+            if (!entry.getValue().saturated) {
+                entry.setValue(entry.getValue().filter(termId -> liveTerms[termId] != null));
+            }
+        }
+        deadPostings = 0;
+    }
+
+    private Set<Long> indexAll() {
+        Set<Long> ids = new HashSet<>();
+        PageRequest pageRequest = PageRequest.of(0, INDEX_LOAD_PAGE_SIZE);
+        long lastId = Long.MIN_VALUE;
+        List<User> page;
+        do {
+            page = userRepository.findPageAfter(lastId, pageRequest);
+            for (User user : page) {
+                index(user);
+                ids.add(user.getId());
+                lastId = user.getId();
+            }
+        } while (page.size() == INDEX_LOAD_PAGE_SIZE);
+        return ids;
+    }
+
+    // tra ve true neu co tu khop chinh xac
+    private boolean collectPrefixHits(String token, Hits hits) {
+        boolean exactMatch = false;
+        for (int length = Math.min(token.length(), MAX_TERM_LENGTH); length <= MAX_TERM_LENGTH; length++) {
+            for (Postings postings : termsByLength.get(length).subMap(token, true, token + Character.MAX_VALUE, true).values()) {
+                double termScore = scoreTerm(postings.term, token, null);
+                int count = postings.size;
+                int[] postingDocs = postings.docs;
+                for (int i = 0; i < count; i++) {
+                    exactMatch |= hits.offer(postingDocs[i], termScore) && termScore == 1.0;
+                    if (hits.capped) {
+                        return exactMatch;
+                    }
+                }
+            }
+        }
+        return exactMatch;
+    }
+
+    // tu chinh khong co trong index (go sai): lay MAX_FUZZY_TERMS tu co nhieu trigram chung nhat, cham diem tung tu
+    // roi duyet user cua cac tu theo diem giam dan
+    private void collectFuzzyHits(String token, String[] tokenTrigrams, Hits hits) {
+        IdCounter overlaps = new IdCounter();
+        for (String trigram : tokenTrigrams) {
+            Postings termIds = trigrams.get(trigram);
+            // bo qua trigram qua pho bien, khong giup loc ma ton chi phi
+            if (termIds == null || termIds.saturated) {
+                continue;
+            }
+            int count = termIds.size;
+            int[] ids = termIds.docs;
+            for (int i = 0; i < count; i++) {
+                overlaps.increment(ids[i]);
+            }
+        }
+        int minimumOverlap = Math.max((int) Math.ceil(tokenTrigrams.length * MIN_TRIGRAM_OVERLAP), 1);
+        // nhieu trigram chung truoc, cung so thi theo so tu: (so trigram khong chung << 32) | so tu
+        long[] ranked = new long[overlaps.size];
+        int count = 0;
+        for (int i = 0; i < overlaps.ids.length; i++) {
+            if (overlaps.ids[i] != 0 && overlaps.counts[i] >= minimumOverlap) {
+                ranked[count++] = (long) (tokenTrigrams.length - overlaps.counts[i]) << 32 | (overlaps.ids[i] - 1);
+            }
+        }
+        Arrays.sort(ranked, 0, count);
+        List<ScoredTerm> scoredTerms = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, MAX_FUZZY_TERMS); i++) {
+            Postings postings = term((int) ranked[i]);
+            double termScore = postings == null ? 0 : scoreTerm(postings.term, token, tokenTrigrams);
+            if (termScore > 0) {
+                scoredTerms.add(new ScoredTerm(postings, termScore));
+            }
+        }
+        scoredTerms.sort(Comparator.comparingDouble(ScoredTerm::getScore).reversed());
+        for (ScoredTerm scoredTerm : scoredTerms) {
+            int postingCount = scoredTerm.postings.size;
+            int[] postingDocs = scoredTerm.postings.docs;
+            for (int i = 0; i < postingCount; i++) {
+                hits.offer(postingDocs[i], scoredTerm.score);
+                if (hits.capped) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private double score(IndexedUser indexedUser, List<String> tokens, List<String[]> tokenTrigrams) {
+        double total = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            double best = 0;
+            for (String term : indexedUser.terms) {
+                best = Math.max(best, scoreTerm(term, tokens.get(i), tokenTrigrams.get(i)));
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private double scoreTerm(String term, String token, String[] tokenTrigrams) {
+        if (term.equals(token)) {
+            return 1.0;
+        }
+        if (term.startsWith(token)) {
+            return 0.8 + 0.2 * token.length() / term.length();
+        }
+        if (term.contains(token)) {
+            return 0.5;
+        }
+        if (tokenTrigrams != null && tokenTrigrams.length > 0) {
+            double similarity = trigramSimilarity(term, tokenTrigrams);
+            if (similarity >= MIN_FUZZY_SIMILARITY) {
+                return 0.5 * similarity;
+            }
+        }
+        return 0;
+    }
+
+    // do tuong dong Jaccard tren trigram, dem truc tiep tren chuoi de khong cap phat them
+    private double trigramSimilarity(String term, String[] tokenTrigrams) {
+        String paddedTerm = pad(term);
+        int termTrigramCount = paddedTerm.length() - NGRAM_SIZE + 1;
+        int common = 0;
+        for (String trigram : tokenTrigrams) {
+            if (paddedTerm.contains(trigram)) {
+                common++;
+            }
+        }
+        return (double) common / (termTrigramCount + tokenTrigrams.length - common);
+    }
+
+    private List<User> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, User> usersById = userRepository.findAllById(ids).stream().collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream().map(usersById::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // doc lai mang moi nhat sau khi da doc posting nen so doc/so tu luon nam trong mang
+    private IndexedUser document(int doc) {
+        IndexedUser[] snapshot = docs;
+        return doc < snapshot.length ? snapshot[doc] : null;
+    }
+
+    private Postings term(int termId) {
+        Postings[] snapshot = termsById;
+        return termId < snapshot.length ? snapshot[termId] : null;
+    }
+
+    private static int bucketOf(String term) {
+        return Math.min(term.length(), MAX_TERM_LENGTH);
+    }
+
+    private static Set<String> trigramsOf(String term) {
+        String paddedTerm = pad(term);
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + NGRAM_SIZE <= paddedTerm.length(); i++) {
+            result.add(paddedTerm.substring(i, i + NGRAM_SIZE));
+        }
+        return result;
+    }
+
+    // them ky tu bien de trigram dau/cuoi tu cung duoc tinh, giup tim gan dung voi tu ngan
+    private static String pad(String term) {
+        return NGRAM_BOUNDARY + term + NGRAM_BOUNDARY;
+    }
+
+    private static List<String> tokenize(String text) {
+        if (StringUtils.isBlank(text)) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(text.toLowerCase().trim().split("\\s+")).filter(StringUtils::isNotBlank).collect(Collectors.toList());
+    }
+
+    private static class IndexedUser {
+        private final Long id;
+        private final String[] terms;
+        private int doc;
+
+        IndexedUser(User user) {
+            this.id = user.getId();
+            String email = StringUtils.defaultString(user.getEmail()).toLowerCase();
+            Set<String> userTerms = new LinkedHashSet<>();
+            userTerms.add(StringUtils.defaultString(user.getUsername()).toLowerCase());
+            userTerms.addAll(tokenize(user.getFirstName()));
+            userTerms.addAll(tokenize(user.getLastName()));
+            userTerms.add(email);
+            userTerms.add(StringUtils.substringBefore(email, "@"));
+            userTerms.remove(StringUtils.EMPTY);
+            this.terms = userTerms.toArray(new String[0]);
+        }
+    }
+
+    // posting cua 1 tu (so doc) hoac cua 1 trigram (so tu), tang dan; chi 1 luong ghi (duoi lock),
+    // luong doc doc size truoc roi moi doc mang nen khong bao gio thay phan tu chua ghi
+    private static class Postings {
+        private final String term;
+        private final int termId;
+        private volatile int[] docs = new int[1];
+        private volatile int size;
+        private volatile boolean saturated;
+
+        Postings(String term, int termId) {
+            this.term = term;
+            this.termId = termId;
+        }
+
+        void add(int value) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+            }
+            docs[size] = value;
+            size = size + 1;
+        }
+
+        // trigram qua pho bien: bo posting, truy van va lan index sau deu bo qua trigram nay
+        void saturate() {
+            saturated = true;
+            size = 0;
+            docs = new int[0];
+        }
+
+        Postings filter(IntPredicate live) {
+            Postings result = new Postings(term, termId);
+            int[] values = new int[Math.max(size, 1)];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (live.test(docs[i])) {
+                    values[count++] = docs[i];
+                }
+            }
+            result.docs = count == values.length ? values : Arrays.copyOf(values, Math.max(count, 1));
+            result.size = count;
+            return result;
+        }
+    }
+
+    // dem theo so doc/so tu, bang bam dia chi mo (luu id + 1, 0 = o trong)
+    private static class IdCounter {
+        private int[] ids = new int[64];
+        private int[] counts = new int[64];
+        private int size;
+
+        void increment(int id) {
+            if (size * 2 >= ids.length) {
+                grow();
+            }
+            int slot = slotOf(ids, id + 1);
+            if (ids[slot] == 0) {
+                ids[slot] = id + 1;
+                size++;
+            }
+            counts[slot]++;
+        }
+
+        boolean contains(int id) {
+            return ids[slotOf(ids, id + 1)] != 0;
+        }
+
+        private void grow() {
+            int[] oldIds = ids;
+            int[] oldCounts = counts;
+            ids = new int[oldIds.length * 2];
+            counts = new int[oldCounts.length * 2];
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] != 0) {
+                    int slot = slotOf(ids, oldIds[i]);
+                    ids[slot] = oldIds[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int slotOf(int[] table, int key) {
+            int mask = table.length - 1;
+            int slot = (key * 0x9E3779B9) >>> 1 & mask;
+            while (table[slot] != 0 && table[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+
+    // ket qua cua 1 truy van: dem total (toi MAX_COUNTED_HITS), giu cac ket qua can cho trang
+    private class Hits {
+        private final List<String> tokens;
+        private final List<String[]> tokenTrigrams;
+        private final int limit;
+        private final IdCounter seen = new IdCounter();
+        private final List<ScoredUser> scoredUsers = new ArrayList<>();
+        private int candidates;
+        private int total;
+        private boolean capped;
+
+        Hits(List<String> tokens, List<String[]> tokenTrigrams, int limit) {
+            this.tokens = tokens;
+            this.tokenTrigrams = tokenTrigrams;
+            this.limit = limit;
+        }
+
+        // 1 tu: tu duoc duyet theo diem giam dan nen lan dau gap user la diem tot nhat cua user, khong can cham lai
+        // nhieu tu: cham diem day du moi ung vien, toi da MAX_SCORED_CANDIDATES
+        // tra ve true neu la user con song chua gap
+        boolean offer(int doc, double termScore) {
+            if (seen.contains(doc)) {
+                return false;
+            }
+            seen.increment(doc);
+            IndexedUser indexedUser = document(doc);
+            if (indexedUser == null) {
+                return false;
+            }
+            candidates++;
+            double score = termScore;
+            if (tokens.size() > 1) {
+                score = score(indexedUser, tokens, tokenTrigrams);
+                capped = candidates >= MAX_SCORED_CANDIDATES;
+                if (score <= 0) {
+                    return true;
+                }
+            }
+            total++;
+            if (scoredUsers.size() < limit || tokens.size() > 1) {
+                scoredUsers.add(new ScoredUser(indexedUser, score));
+            }
+            capped |= total >= MAX_COUNTED_HITS;
+            return true;
+        }
+    }
+
+    private static class ScoredTerm {
+        private final Postings postings;
+        private final double score;
+
+        ScoredTerm(Postings postings, double score) {
+            this.postings = postings;
+            this.score = score;
+        }
+
+        double getScore() {
+            return score;
+        }
+    }
+
+    private static class ScoredUser {
+        private final IndexedUser indexedUser;
+        private final double score;
+
+        ScoredUser(IndexedUser indexedUser, double score) {
+            this.indexedUser = indexedUser;
+            this.score = score;
+        }
+
+        IndexedUser getIndexedUser() {
+            return indexedUser;
+        }
+
+        double getScore() {
+            return score;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.springboot.service;
 
 import com.springboot.entity.User;
+import com.springboot.entity.UserChanges;
 import com.springboot.exception.entity.EmailExistException;
 import com.springboot.exception.entity.EmailNotFoundException;
 import com.springboot.exception.entity.UserNotFoundException;
@@ -13,11 +14,12 @@ import java.util.List;
 public interface UserService {
     User findByUsername(String username);
     User findByEmail(String email);
-    void deleteUser(String username) throws IOException;
+    void deleteUser(String username);
 
     void resetPassword(String email) throws EmailNotFoundException;
 
     List<User> getAll();
+    UserChanges getChanges(long sinceVersion);
     User register(String firstName, String lastName, String username, String email, String password) throws UserNotFoundException, EmailExistException, UsernameExistException;
 
     User addNewUser(String firstName, String lastName, String username, String email, String password, String role, boolean isNonLocked, boolean isActive, MultipartFile profileImage) throws UserNotFoundException, EmailExistException, UsernameExistException, IOException;
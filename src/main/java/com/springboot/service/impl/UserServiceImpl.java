@@ -1,19 +1,28 @@
 package com.springboot.service.impl;
 
+import com.springboot.datasource.ReplicaLagGuard;
 import com.springboot.entity.User;
+import com.springboot.entity.UserChanges;
 import com.springboot.entity.UserPrincipal;
+import com.springboot.enumeration.DirectoryEventType;
 import com.springboot.enumeration.Role;
 import com.springboot.exception.entity.EmailExistException;
 import com.springboot.exception.entity.EmailNotFoundException;
+import com.springboot.exception.entity.StacklessUsernameNotFoundException;
 import com.springboot.exception.entity.UserNotFoundException;
 import com.springboot.exception.entity.UsernameExistException;
 import com.springboot.repository.UserRepository;
+import com.springboot.service.DirectoryEventService;
+import com.springboot.service.DirectoryVersionService;
 import com.springboot.service.EmailService;
 import com.springboot.service.LoginAttemptService;
+import com.springboot.service.ProfileImageService;
+import com.springboot.service.TokenRevocationService;
+import com.springboot.service.UserSearchService;
+import com.springboot.utility.UserIdGenerator;
 import com.springboot.service.UserService;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.tomcat.util.http.fileupload.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -26,17 +35,17 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
 import static com.springboot.constant.FileConstant.*;
+import static com.springboot.constant.LoggingConstant.SAMPLED;
+import static com.springboot.constant.UserDirectoryConstant.MAX_CHANGES;
 import static com.springboot.constant.UserImplConstant.*;
-import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
 
 @Service
 @Transactional
@@ -50,27 +59,60 @@ public class UserServiceImpl implements UserService, UserDetailsService {
 
     private final EmailService emailService;
 
+    private final ReplicaLagGuard replicaLagGuard;
 
-    public UserServiceImpl(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder, LoginAttemptService loginAttemptService, EmailService emailService) {
+    private final UserSearchService userSearchService;
+
+    private final TokenRevocationService tokenRevocationService;
+
+    private final UserIdGenerator userIdGenerator;
+
+    private final ProfileImageService profileImageService;
+
+    private final DirectoryVersionService directoryVersionService;
+
+    private final DirectoryEventService directoryEventService;
+
+    public UserServiceImpl(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder, LoginAttemptService loginAttemptService, EmailService emailService,
+                           ReplicaLagGuard replicaLagGuard, UserSearchService userSearchService, TokenRevocationService tokenRevocationService,
+                           UserIdGenerator userIdGenerator, ProfileImageService profileImageService,
+                           DirectoryVersionService directoryVersionService, DirectoryEventService directoryEventService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.loginAttemptService = loginAttemptService;
         this.emailService = emailService;
+        this.replicaLagGuard = replicaLagGuard;
+        this.userSearchService = userSearchService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userIdGenerator = userIdGenerator;
+        this.profileImageService = profileImageService;
+        this.directoryVersionService = directoryVersionService;
+        this.directoryEventService = directoryEventService;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username);
         if(user == null){
-            LOGGER.error(NO_USER_FOUND_BY_USERNAME + username);
-            throw new UsernameNotFoundException(NO_USER_FOUND_BY_USERNAME + username);
+            LOGGER.error(SAMPLED, NO_USER_FOUND_BY_USERNAME + username);
+            throw new StacklessUsernameNotFoundException(NO_USER_FOUND_BY_USERNAME + username);
         }else {
+            boolean wasNotLocked = user.isNotLocked();
             validateLoginAttempt(user);
             user.setLastLoginDate(new Date());
             user.setLastLoginDateDisplay(user.getLastLoginDate());
+            // lastLoginDate khong nam trong trang thai co version (cac ban co version bo truong nay, xem UserDirectoryConstant),
+            // neu khong moi lan dang nhap se lam mat ETag / cache danh sach; chi cap version khi trang thai khoa doi
+            boolean lockChanged = wasNotLocked != user.isNotLocked();
+            if (lockChanged) {
+                directoryVersionService.stamp(user);
+            }
             userRepository.save(user);
+            if (lockChanged) {
+                directoryEventService.publishAfterCommit(DirectoryEventType.UPDATED, user);
+            }
             UserPrincipal userPrincipal = new UserPrincipal(user);
-            LOGGER.info(FOUND_USER_BY_USERNAME + username);
+            LOGGER.info(SAMPLED, FOUND_USER_BY_USERNAME + username);
             return userPrincipal;
         }
     }
@@ -89,11 +131,13 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public User findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public User findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
@@ -107,7 +151,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         user.setUsername(username);
         user.setEmail(email);
 
-        user.setUserId(RandomStringUtils.randomNumeric(10));
+        user.setUserId(userIdGenerator.nextUserId());
         user.setPassword(passwordEncoder.encode(password));
         user.setJoinDate(new Date());
         user.setActive(true);
@@ -115,8 +159,12 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         user.setRole(Role.ROLE_USER.name());
         user.setAuthorities(Role.ROLE_USER.getAuthorities());
         user.setProfileImageUrl(getTemporaryProfileImageUrl(username));
+        directoryVersionService.stamp(user);
 
         userRepository.save(user);
+        replicaLagGuard.markWrite();
+        userSearchService.indexAfterCommit(user);
+        directoryEventService.publishAfterCommit(DirectoryEventType.CREATED, user);
 //        emailService.createNewPasswordEmail(firstName, password, email);
         LOGGER.info("User created");
         return user;
@@ -127,7 +175,7 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         validateUsernameAndEmail(StringUtils.EMPTY, username, email);
         User user = new User();
         user.setPassword(passwordEncoder.encode(password));
-        user.setUserId(RandomStringUtils.randomNumeric(10));
+        user.setUserId(userIdGenerator.nextUserId());
         user.setFirstName(firstName);
         user.setLastName(lastName);
         user.setJoinDate(new Date());
@@ -138,8 +186,13 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         user.setRole(getRoleEnumName(role).name());
         user.setAuthorities(getRoleEnumName(role).getAuthorities());
         user.setProfileImageUrl(getTemporaryProfileImageUrl(username));
+        // luu anh truoc de user chi can 1 cau INSERT, khong phai UPDATE lai url anh
+        storeProfileImage(user, profileImage);
+        directoryVersionService.stamp(user);
         userRepository.save(user);
-        saveProfileImage(user, profileImage);
+        replicaLagGuard.markWrite();
+        userSearchService.indexAfterCommit(user);
+        directoryEventService.publishAfterCommit(DirectoryEventType.CREATED, user);
         return user;
     }
 
@@ -150,6 +203,10 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     @Override
     public User updateUser(String currentUsername, String firstName, String lastName, String username, String email, String role, boolean isNonLocked, boolean isActive, MultipartFile profileImage) throws UserNotFoundException, EmailExistException, UsernameExistException, IOException {
         User currentUser = validateUsernameAndEmail(currentUsername, username, email);
+        // khoa, vo hieu hoa, doi role hoac doi username thi token cu khong con dung nua
+        if (isTokenInvalidatingChange(currentUser, username, role, isNonLocked, isActive)) {
+            tokenRevocationService.revokeTokens(currentUser.getUsername());
+        }
         currentUser.setFirstName(firstName);
         currentUser.setLastName(lastName);
         currentUser.setUsername(username);
@@ -158,44 +215,72 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         currentUser.setNotLocked(isNonLocked);
         currentUser.setRole(getRoleEnumName(role).name());
         currentUser.setAuthorities(getRoleEnumName(role).getAuthorities());
+        directoryVersionService.stamp(currentUser);
         userRepository.save(currentUser);
         saveProfileImage(currentUser, profileImage);
-
+        replicaLagGuard.markWrite();
+        userSearchService.indexAfterCommit(currentUser);
+        directoryEventService.publishAfterCommit(DirectoryEventType.UPDATED, currentUser);
         return currentUser;
     }
 
+    private boolean isTokenInvalidatingChange(User currentUser, String username, String role, boolean isNonLocked, boolean isActive) {
+        return (currentUser.isNotLocked() && !isNonLocked)
+                || (currentUser.isActive() && !isActive)
+                || !getRoleEnumName(role).name().equals(currentUser.getRole())
+                || !currentUser.getUsername().equals(username);
+    }
+
     @Override
     public User updateProfileImage(String username, MultipartFile profileImage) throws UserNotFoundException, EmailExistException, UsernameExistException, IOException {
         User user = validateUsernameAndEmail(username, null, null);
         saveProfileImage(user, profileImage);
+        if (profileImage != null) {
+            directoryEventService.publishAfterCommit(DirectoryEventType.UPDATED, user);
+        }
         return user;
     }
 
     @Override
     public void saveProfileImage(User user, MultipartFile profileImage) throws IOException {
-        if(profileImage != null) {
-            Path userFolder = Paths.get(USER_FOLDER + user.getUsername()).toAbsolutePath().toAbsolutePath();
-            if(!Files.exists(userFolder)){
-                Files.createDirectories(userFolder);
-                LOGGER.info(DIRECTORY_CREATED + userFolder);
-            }
-            Files.deleteIfExists(Paths.get(userFolder + user.getUsername() + DOT +JPG_EXTENSION));
-            Files.copy(profileImage.getInputStream(), userFolder.resolve(user.getUsername() + DOT + JPG_EXTENSION), REPLACE_EXISTING);
-            user.setProfileImageUrl(setProfileImageUrl(user.getUsername()));
+        if (storeProfileImage(user, profileImage)) {
+            directoryVersionService.stamp(user);
             userRepository.save(user);
-            LOGGER.info(FILE_SAVED_IN_FILE_SYSTEM + profileImage.getOriginalFilename());
         }
     }
 
-    private User validateUsernameAndEmail(String currentUsername, String newUsername, String newEmail) throws UserNotFoundException, UsernameExistException, EmailExistException {
-        User userNewByUsername = userRepository.findByUsername(newUsername);
-        User userNewByEmail = userRepository.findByEmail(newEmail);
+    private boolean storeProfileImage(User user, MultipartFile profileImage) throws IOException {
+        if (profileImage == null) {
+            return false;
+        }
+        String hash;
+        try (InputStream inputStream = profileImage.getInputStream()) {
+            hash = profileImageService.store(inputStream);
+        }
+        user.setProfileImageHash(hash);
+        user.setProfileImageUrl(setProfileImageUrl(hash));
+        LOGGER.info(FILE_SAVED_IN_FILE_SYSTEM + profileImage.getOriginalFilename());
+        return true;
+    }
+
+    // username/email null (vi du chi doi anh) thi khong can truy van
+    private User findByUsernameIfPresent(String username) {
+        return username == null ? null : userRepository.findByUsername(username);
+    }
+
+    private User findByEmailIfPresent(String email) {
+        return email == null ? null : userRepository.findByEmail(email);
+    }
 
+    private User validateUsernameAndEmail(String currentUsername, String newUsername, String newEmail) throws UserNotFoundException, UsernameExistException, EmailExistException {
         if(StringUtils.isNotBlank(currentUsername)){
             User currentUser = userRepository.findByUsername(currentUsername);
             if(currentUser == null){
                 throw new UserNotFoundException(NO_USER_FOUND_BY_USERNAME + currentUsername);
             }
+            // khong doi username/email thi khong can truy van lai chinh user nay
+            User userNewByUsername = currentUsername.equals(newUsername) ? currentUser : findByUsernameIfPresent(newUsername);
+            User userNewByEmail = StringUtils.equals(currentUser.getEmail(), newEmail) ? currentUser : findByEmailIfPresent(newEmail);
             if(userNewByUsername != null && !currentUser.getId().equals(userNewByUsername.getId())){
                 throw new UsernameExistException(USERNAME_ALREADY_EXISTS);
             }
@@ -204,6 +289,8 @@ public class UserServiceImpl implements UserService, UserDetailsService {
             }
             return currentUser;
         }else {
+            User userNewByUsername = findByUsernameIfPresent(newUsername);
+            User userNewByEmail = findByEmailIfPresent(newEmail);
             if(userNewByUsername != null){
                 throw new UsernameExistException(USERNAME_ALREADY_EXISTS);
             }
@@ -215,11 +302,16 @@ public class UserServiceImpl implements UserService, UserDetailsService {
     }
 
     @Override
-    public void deleteUser(String username) throws IOException {
+    public void deleteUser(String username) {
+        // chi danh dau xoa mem, thu muc anh va dong du lieu do UserReaperService don dep sau
         User user = userRepository.findByUsername(username);
-        Path userFolder = Paths.get(USER_FOLDER + user.getUsername()).toAbsolutePath().normalize();
-        FileUtils.deleteDirectory(new File(userFolder.toString()));
-        userRepository.deleteById(user.getId());
+        user.setDeletedAt(new Date());
+        directoryVersionService.stamp(user);
+        userRepository.save(user);
+        tokenRevocationService.revokeTokens(user.getUsername());
+        replicaLagGuard.markWrite();
+        userSearchService.removeAfterCommit(user.getId());
+        directoryEventService.publishAfterCommit(DirectoryEventType.DELETED, user);
     }
 
     @Override
@@ -231,18 +323,62 @@ public class UserServiceImpl implements UserService, UserDetailsService {
         String password = RandomStringUtils.randomAlphabetic(16);
 //        emailService.createNewPasswordEmail(user.getFirstName(), password, email);
         user.setPassword(passwordEncoder.encode(password));
+        directoryVersionService.stamp(user);
         userRepository.save(user);
+        tokenRevocationService.revokeTokens(user.getUsername());
+        replicaLagGuard.markWrite();
+        directoryEventService.publishAfterCommit(DirectoryEventType.UPDATED, user);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<User> getAll() {
         return userRepository.findAll();
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserChanges getChanges(long sinceVersion) {
+        long currentVersion = directoryVersionService.currentVersion();
+        if (sinceVersion < directoryVersionService.getPurgedThrough()) {
+            return new UserChanges(currentVersion, true, false, userRepository.findAll(), Collections.emptyList());
+        }
+        if (sinceVersion >= currentVersion) {
+            return new UserChanges(sinceVersion, false, false, Collections.emptyList(), Collections.emptyList());
+        }
+        List<User> changedUsers = userRepository.findChangedBetween(new Date(sinceVersion), new Date(currentVersion), MAX_CHANGES + 1);
+        boolean hasMore = changedUsers.size() > MAX_CHANGES;
+        if (hasMore) {
+            // thao tac hang loat gan chung 1 version cho ca chunk: khong cat giua nhom cung version,
+            // lui ve truoc nhom do de lan sau lay tron nhom (chunk <= MAX_CHANGES nen luon con it nhat 1 user)
+            long lastVersion = changedUsers.get(MAX_CHANGES - 1).getUpdatedAt().getTime();
+            int end = MAX_CHANGES;
+            if (changedUsers.get(MAX_CHANGES).getUpdatedAt().getTime() == lastVersion) {
+                while (end > 0 && changedUsers.get(end - 1).getUpdatedAt().getTime() == lastVersion) {
+                    end--;
+                }
+            }
+            if (end == 0) {
+                return new UserChanges(currentVersion, true, false, userRepository.findAll(), Collections.emptyList());
+            }
+            changedUsers = changedUsers.subList(0, end);
+            currentVersion = changedUsers.get(end - 1).getUpdatedAt().getTime();
+        }
+        List<User> users = new ArrayList<>();
+        List<String> deletedUserIds = new ArrayList<>();
+        for (User user : changedUsers) {
+            if (user.getDeletedAt() != null) {
+                deletedUserIds.add(user.getUserId());
+            } else {
+                users.add(user);
+            }
+        }
+        return new UserChanges(currentVersion, false, hasMore, users, deletedUserIds);
+    }
     private String getTemporaryProfileImageUrl(String username) {
         return ServletUriComponentsBuilder.fromCurrentContextPath().path(DEFAULT_USER_IMAGE_PATH + username).toUriString();
     }
-    private String setProfileImageUrl(String username) {
-        return ServletUriComponentsBuilder.fromCurrentContextPath().path(USER_IMAGE_PATH + username + FORWARD_SLASH
-                + username + DOT + JPG_EXTENSION).toUriString();
+    private String setProfileImageUrl(String hash) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath().path(profileImageService.getBlobPath(hash)).toUriString();
     }
 }
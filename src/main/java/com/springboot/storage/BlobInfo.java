@@ -0,0 +1,11 @@
+package com.springboot.storage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BlobInfo {
+    private String key;
+    private long lastModified;
+}
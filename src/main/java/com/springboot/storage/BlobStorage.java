@@ -0,0 +1,29 @@
+package com.springboot.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+// SPI luu tru file nhi phan (anh dai dien) theo key, co ban local disk va ban S3
+// key la duong dan tuong doi dang ab/cd/<sha256>.jpg, noi dung cua 1 key khong bao gio thay doi
+public interface BlobStorage extends Closeable {
+    boolean exists(String key) throws IOException;
+
+    void put(String key, Path source) throws IOException;
+
+    // doc blob, nem NoSuchFileException neu khong ton tai
+    InputStream get(String key) throws IOException;
+
+    // cap nhat thoi gian sua de GC khong xoa blob vua duoc tham chieu lai
+    void touch(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    void forEach(Consumer<BlobInfo> consumer) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,191 @@
+package com.springboot.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.springboot.constant.FileConstant.TEMP_FILE_PREFIX;
+import static com.springboot.constant.FileConstant.TEMP_FILE_SUFFIX;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+// cache doc qua tren o dia local cho blob storage tu xa
+// key chua sha256 cua noi dung nen ban cache khong bao gio cu, chi can gioi han dung luong (xoa file it dung nhat)
+public class CachingBlobStorage implements BlobStorage {
+    private final Logger LOGGER = LoggerFactory.getLogger(getClass());
+    private final BlobStorage delegate;
+    private final LocalBlobStorage cache;
+    private final Path cacheRoot;
+    private final long maxCacheBytes;
+    private final AtomicLong cachedBytes = new AtomicLong();
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+
+    public CachingBlobStorage(BlobStorage delegate, Path cacheRoot, long maxCacheBytes) throws IOException {
+        this.delegate = delegate;
+        this.cacheRoot = cacheRoot.toAbsolutePath().normalize();
+        this.cache = new LocalBlobStorage(this.cacheRoot);
+        this.maxCacheBytes = maxCacheBytes;
+        Files.createDirectories(this.cacheRoot);
+        // file tam con sot lai do node bi tat giua chung, xoa truoc khi tinh dung luong
+        List<Path> files = cachedFiles(true);
+        for (Path file : files) {
+            if (isTempFile(file)) {
+                Files.deleteIfExists(file);
+            } else {
+                cachedBytes.addAndGet(sizeOf(file));
+            }
+        }
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return cache.exists(key) || delegate.exists(key);
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        delegate.put(key, source);
+        try (InputStream inputStream = Files.newInputStream(source)) {
+            addToCache(key, inputStream);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        try {
+            // cap nhat thoi gian de file hay dung khong bi xoa khi don cache
+            cache.touch(key);
+            return cache.get(key);
+        } catch (NoSuchFileException exception) {
+            // chua co trong cache, tai ve truoc roi doc tu cache
+            try (InputStream inputStream = delegate.get(key)) {
+                addToCache(key, inputStream);
+            }
+        }
+        try {
+            return cache.get(key);
+        } catch (NoSuchFileException exception) {
+            // vua bi xoa khi don cache hoac thread khac dang tai ve, doc thang tu storage goc
+            return delegate.get(key);
+        }
+    }
+
+    @Override
+    public void touch(String key) throws IOException {
+        delegate.touch(key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        delegate.delete(key);
+        cache.delete(key);
+    }
+
+    @Override
+    public void forEach(Consumer<BlobInfo> consumer) throws IOException {
+        delegate.forEach(consumer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    // ghi ra file tam cung thu muc roi ATOMIC_MOVE: nguoi doc khong bao gio thay file ghi do dang
+    // moi key chi 1 thread ghi tai 1 thoi diem nen dung luong chi cong 1 lan cho file da move thanh cong
+    private void addToCache(String key, InputStream source) throws IOException {
+        if (!pendingKeys.add(key)) {
+            return;
+        }
+        try {
+            Path target = cacheRoot.resolve(key);
+            if (Files.exists(target)) {
+                return;
+            }
+            Files.createDirectories(target.getParent());
+            Path tempFile = Files.createTempFile(target.getParent(), TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+            try {
+                long size = Files.copy(source, tempFile, REPLACE_EXISTING);
+                Files.move(tempFile, target, ATOMIC_MOVE);
+                if (cachedBytes.addAndGet(size) > maxCacheBytes) {
+                    evict();
+                }
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+        } finally {
+            pendingKeys.remove(key);
+        }
+    }
+
+    long getCachedBytes() {
+        return cachedBytes.get();
+    }
+
+    private synchronized void evict() throws IOException {
+        if (cachedBytes.get() <= maxCacheBytes) {
+            return;
+        }
+        // file tam dang duoc ghi chua tinh vao dung luong, khong xoa
+        List<Path> files = cachedFiles(false);
+        files.sort(Comparator.comparing(CachingBlobStorage::lastModified));
+        // xoa toi khi con 90% dung luong cho phep de khong phai don lien tuc
+        long target = maxCacheBytes * 9 / 10;
+        long evicted = 0;
+        for (Path file : files) {
+            if (cachedBytes.get() <= target) {
+                break;
+            }
+            long size = sizeOf(file);
+            if (Files.deleteIfExists(file)) {
+                cachedBytes.addAndGet(-size);
+                evicted++;
+            }
+        }
+        LOGGER.info("Evicted cached blobs: " + evicted);
+    }
+
+    // includeTemp = false: bo qua file tam dang ghi
+    private List<Path> cachedFiles(boolean includeTemp) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(cacheRoot)) {
+            paths.filter(Files::isRegularFile).filter(file -> includeTemp || !isTempFile(file)).forEach(files::add);
+        }
+        return files;
+    }
+
+    private static boolean isTempFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(TEMP_FILE_PREFIX) && name.endsWith(TEMP_FILE_SUFFIX);
+    }
+
+    private static long sizeOf(Path file) {
+        try {
+            return Files.size(file);
+        } catch (IOException exception) {
+            return 0;
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException exception) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.springboot.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static com.springboot.constant.FileConstant.TEMP_FILE_PREFIX;
+import static com.springboot.constant.FileConstant.TEMP_FILE_SUFFIX;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+// luu blob tren o dia cua node hien tai
+public class LocalBlobStorage implements BlobStorage {
+    private final Path root;
+
+    public LocalBlobStorage(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        Path tempFile = Files.createTempFile(target.getParent(), TEMP_FILE_PREFIX, TEMP_FILE_SUFFIX);
+        try {
+            Files.copy(source, tempFile, REPLACE_EXISTING);
+            Files.move(tempFile, target, ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public void touch(String key) throws IOException {
+        Files.setLastModifiedTime(resolve(key), FileTime.fromMillis(System.currentTimeMillis()));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public void forEach(Consumer<BlobInfo> consumer) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                try {
+                    consumer.accept(new BlobInfo(root.relativize(file).toString().replace('\\', '/'), Files.getLastModifiedTime(file).toMillis()));
+                } catch (IOException exception) {
+                    // file vua bi xoa trong luc duyet
+                }
+            });
+        }
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException(key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,170 @@
+package com.springboot.storage;
+
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.springframework.http.MediaType.IMAGE_JPEG_VALUE;
+
+// luu blob tren S3 hoac dich vu tuong thich S3 (MinIO chay local)
+// file lon hon partSize duoc upload multipart, moi part doc thang tu file nen khong nap ca file vao bo nho
+public class S3BlobStorage implements BlobStorage {
+    private final S3Client s3Client;
+    private final String bucket;
+    private final long partSize;
+
+    public S3BlobStorage(S3Client s3Client, String bucket, long partSize) {
+        this.s3Client = s3Client;
+        this.bucket = bucket;
+        this.partSize = partSize;
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        try {
+            s3Client.headObject(HeadObjectRequest.builder().bucket(bucket).key(key).build());
+            return true;
+        } catch (NoSuchKeyException exception) {
+            return false;
+        } catch (S3Exception exception) {
+            if (exception.statusCode() == 404) {
+                return false;
+            }
+            throw new IOException(exception);
+        } catch (SdkException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        long size = Files.size(source);
+        try {
+            if (size <= partSize) {
+                s3Client.putObject(PutObjectRequest.builder().bucket(bucket).key(key).contentType(IMAGE_JPEG_VALUE).build(),
+                        RequestBody.fromFile(source));
+            } else {
+                putMultipart(key, source, size);
+            }
+        } catch (SdkException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        try {
+            return s3Client.getObject(GetObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (NoSuchKeyException exception) {
+            throw new NoSuchFileException(key);
+        } catch (SdkException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    @Override
+    public void touch(String key) throws IOException {
+        try {
+            // copy de chinh no voi REPLACE de cap nhat LastModified
+            s3Client.copyObject(CopyObjectRequest.builder().sourceBucket(bucket).sourceKey(key)
+                    .destinationBucket(bucket).destinationKey(key)
+                    .metadataDirective(MetadataDirective.REPLACE).contentType(IMAGE_JPEG_VALUE).build());
+        } catch (SdkException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            s3Client.deleteObject(DeleteObjectRequest.builder().bucket(bucket).key(key).build());
+        } catch (SdkException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<BlobInfo> consumer) throws IOException {
+        try {
+            s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder().bucket(bucket).build()).contents()
+                    .forEach(object -> consumer.accept(new BlobInfo(object.key(), object.lastModified().toEpochMilli())));
+        } catch (SdkException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    @Override
+    public void close() {
+        s3Client.close();
+    }
+
+    private void putMultipart(String key, Path source, long size) throws IOException {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket).key(key).contentType(IMAGE_JPEG_VALUE).build()).uploadId();
+        try (InputStream inputStream = Files.newInputStream(source)) {
+            List<CompletedPart> completedParts = new ArrayList<>();
+            int partNumber = 1;
+            for (long offset = 0; offset < size; offset += partSize, partNumber++) {
+                long length = Math.min(partSize, size - offset);
+                UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder().bucket(bucket).key(key)
+                        .uploadId(uploadId).partNumber(partNumber).contentLength(length).build(),
+                        RequestBody.fromInputStream(new BoundedInputStream(inputStream, length), length));
+                completedParts.add(CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder().bucket(bucket).key(key).uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build()).build());
+        } catch (IOException | SdkException exception) {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder().bucket(bucket).key(key).uploadId(uploadId).build());
+            throw exception;
+        }
+    }
+
+    // doc toi da limit byte tu stream goc, khong dong stream goc
+    private static class BoundedInputStream extends InputStream {
+        private final InputStream inputStream;
+        private long remaining;
+
+        BoundedInputStream(InputStream inputStream, long limit) {
+            this.inputStream = inputStream;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int value = inputStream.read();
+            if (value >= 0) {
+                remaining--;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = inputStream.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
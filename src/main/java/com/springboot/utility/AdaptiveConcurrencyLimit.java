@@ -0,0 +1,100 @@
+package com.springboot.utility;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.springboot.constant.ConcurrencyLimitConstant.*;
+
+// limit so request dong thoi tu dieu chinh theo latency (gradient, giong Netflix concurrency-limits):
+// rtt ngan han (trung binh 1 cua so) tang so voi rtt dai han thi gradient < 1 va limit giam,
+// latency on dinh thi limit tang them ~sqrt(limit) moi cua so. Request loi (DB timeout...) giam nhan 0.9 (AIMD)
+// request thuong chi duoc dung limit * (1 - priorityReserve), phan con lai danh cho request uu tien (admin)
+public class AdaptiveConcurrencyLimit {
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int minLimit;
+    private final int maxLimit;
+    private final long windowNanos;
+    private final double smoothing;
+    private final double priorityReserve;
+    private volatile double limit;
+    // trang thai cua so, chi doi khi giu lock
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private boolean windowDropped;
+    private double longRtt;
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long windowNanos, double smoothing, double priorityReserve) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.windowNanos = windowNanos;
+        this.smoothing = smoothing;
+        this.priorityReserve = priorityReserve;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public boolean tryAcquire(boolean priority) {
+        int allowed = priority ? (int) limit : Math.max(1, (int) (limit * (1 - priorityReserve)));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    // goi sau moi request da acquire, dropped = request loi do qua tai (5xx, exception)
+    public void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            windowRttSum += rttNanos;
+            windowSamples++;
+            windowMaxInFlight = Math.max(windowMaxInFlight, current);
+            windowDropped |= dropped;
+            long now = System.nanoTime();
+            if (now - windowStart >= windowNanos && windowSamples >= MIN_WINDOW_SAMPLES) {
+                update((double) windowRttSum / windowSamples);
+                windowStart = now;
+                windowRttSum = 0;
+                windowSamples = 0;
+                windowMaxInFlight = 0;
+                windowDropped = false;
+            }
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private void update(double shortRtt) {
+        if (longRtt == 0) {
+            longRtt = shortRtt;
+        } else {
+            longRtt += (shortRtt - longRtt) / LONG_RTT_WINDOWS;
+            // latency da hoi phuc ro ret thi cho rtt dai han giam nhanh hon de limit tang lai som
+            if (longRtt > 2 * shortRtt) {
+                longRtt *= 0.95;
+            }
+        }
+        if (windowDropped) {
+            limit = Math.max(minLimit, limit * DROP_DECREASE_FACTOR);
+            return;
+        }
+        // chua dung toi nua limit thi latency khong noi len gi ve suc chua, giu nguyen
+        if (windowMaxInFlight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, RTT_TOLERANCE * longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+}
@@ -4,10 +4,13 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.springboot.entity.PermissionAuthenticationToken;
 import com.springboot.entity.UserPrincipal;
+import com.springboot.enumeration.Permission;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -15,9 +18,9 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.stereotype.Component;
 
 import javax.servlet.http.HttpServletRequest;
-import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 import static com.springboot.constant.SecurityConstant.*;
@@ -29,24 +32,67 @@ public class JWTTokenProvider {
     @Value("${jwt.secret}")
     private String secret;
 
+    // quyen duoc ghi vao token duoi dang bitmask (claim prm) thay vi mang chuoi
     public String generateJwtToken(UserPrincipal userPrincipal){
-        String[] claims = getClaimsFromUser(userPrincipal);
+        Date now = new Date();
         return JWT.create().withIssuer(GET_ARRAYS_LLC).withAudience(GET_ARRAYS_ADMINISTRATION)
-                .withIssuedAt(new Date()).withSubject(userPrincipal.getUsername())
-                .withArrayClaim(AUTHORITIES, claims).withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
+                .withIssuedAt(now).withClaim(ISSUED_AT_MILLIS, now.getTime()).withSubject(userPrincipal.getUsername())
+                .withClaim(PERMISSIONS, userPrincipal.getPermissionMask()).withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
                 .sign(Algorithm.HMAC512(secret.getBytes()));
     }
 
+    // refresh token song lau hon, khong mang quyen, chi dung de xin access token moi
+    // jti ngau nhien de moi refresh token chi doi duoc 1 lan (RefreshTokenService)
+    public String generateRefreshToken(UserPrincipal userPrincipal){
+        Date now = new Date();
+        return JWT.create().withIssuer(GET_ARRAYS_LLC).withAudience(GET_ARRAYS_ADMINISTRATION).withJWTId(UUID.randomUUID().toString())
+                .withIssuedAt(now).withClaim(ISSUED_AT_MILLIS, now.getTime()).withSubject(userPrincipal.getUsername())
+                .withClaim(TOKEN_TYPE, REFRESH_TOKEN_TYPE).withExpiresAt(new Date(System.currentTimeMillis() + REFRESH_EXPIRATION_TIME))
+                .sign(Algorithm.HMAC512(secret.getBytes()));
+    }
+
+    public DecodedJWT verify(String token) {
+        return getJWTVerifier().verify(token);
+    }
+
+    // iat chi chinh xac toi giay con moc thu hoi tinh bang ms: dang nhap lai trong cung giay sau khi bi thu hoi
+    // se bi coi la token cu, nen so sanh bang claim iat_ms (token cu khong co claim thi dung iat)
+    public Date getIssuedAt(DecodedJWT decodedJWT) {
+        Claim issuedAtMillis = decodedJWT.getClaim(ISSUED_AT_MILLIS);
+        return issuedAtMillis.isNull() ? decodedJWT.getIssuedAt() : new Date(issuedAtMillis.asLong());
+    }
+
+    public boolean isRefreshToken(DecodedJWT decodedJWT) {
+        return REFRESH_TOKEN_TYPE.equals(decodedJWT.getClaim(TOKEN_TYPE).asString());
+    }
+
     public List<GrantedAuthority> getAuthorities(String token) {
-        String[] claims = getClaimsFromToken(token);
-        return stream(claims).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        return getAuthorities(verify(token));
     }
 
-    public Authentication getAuthentication(String username, List<GrantedAuthority> authorities, HttpServletRequest request){
-        UsernamePasswordAuthenticationToken usernamePasswordAuthToken = new
-                UsernamePasswordAuthenticationToken(username, null, authorities);
-        usernamePasswordAuthToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-        return usernamePasswordAuthToken;
+    public List<GrantedAuthority> getAuthorities(DecodedJWT decodedJWT) {
+        Claim permissions = decodedJWT.getClaim(PERMISSIONS);
+        if (!permissions.isNull()) {
+            return Permission.grantedAuthoritiesOf(permissions.asInt());
+        }
+        // token cu van con mang authorities
+        String[] claims = decodedJWT.getClaim(AUTHORITIES).asArray(String.class);
+        return claims == null ? List.of() : stream(claims).map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+    }
+
+    public int getPermissionMask(DecodedJWT decodedJWT) {
+        Claim permissions = decodedJWT.getClaim(PERMISSIONS);
+        if (!permissions.isNull()) {
+            return permissions.asInt();
+        }
+        // token cu van con mang authorities
+        return Permission.maskOf(decodedJWT.getClaim(AUTHORITIES).asArray(String.class));
+    }
+
+    public Authentication getAuthentication(String username, int permissionMask, HttpServletRequest request){
+        PermissionAuthenticationToken permissionAuthToken = new PermissionAuthenticationToken(username, permissionMask);
+        permissionAuthToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        return permissionAuthToken;
     }
 
     public boolean isValidToken(String username, String token){
@@ -64,11 +110,6 @@ public class JWTTokenProvider {
         return expiration.before(new Date());
     }
 
-    private String[] getClaimsFromToken(String token) {
-        JWTVerifier verifier = getJWTVerifier();
-        return verifier.verify(token).getClaim(AUTHORITIES).asArray(String.class);
-    }
-
     private JWTVerifier getJWTVerifier() {
         JWTVerifier verifier;
         try {
@@ -79,12 +120,4 @@ public class JWTTokenProvider {
         }
         return verifier;
     }
-
-    private String[] getClaimsFromUser(UserPrincipal user) {
-        List<String> authorities = new ArrayList<>();
-        for(GrantedAuthority grantedAuthority : user.getAuthorities()){
-            authorities.add(grantedAuthority.getAuthority());
-        }
-        return authorities.toArray(new String[0]);
-    }
 }
@@ -0,0 +1,54 @@
+package com.springboot.utility;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// sinh userId tang dan theo thoi gian kieu Snowflake: 41 bit thoi gian | 10 bit node | 12 bit sequence
+// cap phat khong khoa bang CAS tren 1 AtomicLong chua ca thoi gian va sequence
+// id tang dan nen insert vao index InnoDB luon o cuoi, khong bi phan manh nhu so ngau nhien
+// node id bat buoc cau hinh rieng cho moi instance: 2 instance trung node id se sinh trung userId
+@Component
+public class UserIdGenerator {
+    public static final long EPOCH = 1_640_995_200_000L; // 2022-01-01T00:00:00Z
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final int USER_ID_LENGTH = 19;
+    private static final String INVALID_NODE_ID = "user.id.node-id must be set to a value unique per instance between 0 and " + MAX_NODE_ID + ", got: ";
+
+    private final long nodeId;
+    private final AtomicLong state = new AtomicLong();
+
+    public UserIdGenerator(@Value("${user.id.node-id:-1}") long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalStateException(INVALID_NODE_ID + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    public long nextId() {
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            // khi het sequence trong 1 ms hoac dong ho lui thi muon ms tiep theo, id van tang dan va khong trung
+            long next = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+            if (state.compareAndSet(current, next)) {
+                long timestamp = next >>> SEQUENCE_BITS;
+                long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+                return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    // do dai co dinh de thu tu chuoi trung voi thu tu so
+    public String nextUserId() {
+        String id = Long.toString(nextId());
+        return "0".repeat(USER_ID_LENGTH - id.length()) + id;
+    }
+
+    public long getNodeId() {
+        return nodeId;
+    }
+}
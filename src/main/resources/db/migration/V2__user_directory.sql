@@ -0,0 +1,17 @@
+-- quyen dang bitmask, xoa mem, version cho dong bo delta, anh dai dien theo hash
+-- cot authorities cu duoc giu lai, PermissionMaskMigrationListener suy ra permission_mask tu role
+alter table user add column permission_mask integer;
+alter table user add column deleted_at datetime(6);
+alter table user add column updated_at datetime(6);
+alter table user add column profile_image_hash varchar(255);
+alter table user add constraint ux_user_user_id unique (user_id);
+create index ix_user_deleted_at on user (deleted_at);
+create index ix_user_updated_at on user (updated_at);
+create index ix_user_username on user (username);
+
+create table token_revocation (id bigint not null auto_increment, revoked_at datetime(6) not null, username varchar(255) not null, primary key (id)) engine=InnoDB;
+alter table token_revocation add constraint ux_token_revocation_username unique (username);
+
+create table used_refresh_token (token_id varchar(255) not null, expires_at datetime(6) not null, username varchar(255) not null, primary key (token_id)) engine=InnoDB;
+
+create table cache_invalidation (id bigint not null auto_increment, created_at datetime(6) not null, payload longtext not null, primary key (id)) engine=InnoDB;
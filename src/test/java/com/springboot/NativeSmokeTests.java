@@ -0,0 +1,113 @@
+package com.springboot;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static com.springboot.constant.SecurityConstant.JWT_TOKEN_HEADER;
+import static com.springboot.constant.SecurityConstant.REFRESH_TOKEN_HEADER;
+import static com.springboot.constant.SecurityConstant.TOKEN_PREFIX;
+import static org.junit.jupiter.api.Assertions.*;
+
+// kiem tra cac duong chinh (Hibernate, Jackson, java-jwt, BCrypt, Guava cache) tren H2 nhung
+// chay tren JVM nhu test thuong va trong native image voi mvn -Pnative test de bat loi thieu metadata
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class NativeSmokeTests {
+    private static final String PASSWORD = "smoke-password";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void healthIsUp() {
+        ResponseEntity<Map> response = restTemplate.getForEntity("/actuator/health", Map.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("UP", response.getBody().get("status"));
+    }
+
+    @Test
+    void registeredUserCanLoginAndReadDirectory() {
+        assertEquals(HttpStatus.CREATED, register("smoke").getStatusCode());
+        ResponseEntity<Map> login = login("smoke", PASSWORD);
+        assertEquals(HttpStatus.OK, login.getStatusCode());
+        String token = login.getHeaders().getFirst(JWT_TOKEN_HEADER);
+        assertNotNull(token);
+
+        ResponseEntity<Map> user = restTemplate.exchange("/user/find/smoke", HttpMethod.GET, authorized(token), Map.class);
+        assertEquals(HttpStatus.OK, user.getStatusCode());
+        assertEquals("smoke@example.com", user.getBody().get("email"));
+        assertNull(user.getBody().get("permissionMask"));
+
+        ResponseEntity<String> users = restTemplate.exchange("/user", HttpMethod.GET, authorized(token), String.class);
+        assertEquals(HttpStatus.OK, users.getStatusCode());
+        assertTrue(users.getBody().contains("\"username\":\"smoke\""));
+    }
+
+    @Test
+    void wrongPasswordIsRejected() {
+        register("smoke-wrong");
+        for (int i = 0; i < 3; i++) {
+            assertTrue(login("smoke-wrong", "not-the-password").getStatusCode().is4xxClientError());
+        }
+        assertEquals(HttpStatus.OK, login("smoke-wrong", PASSWORD).getStatusCode());
+        // user khong ton tai tra ve cung body voi sai mat khau
+        ResponseEntity<Map> unknown = login("smoke-unknown", PASSWORD);
+        assertEquals(HttpStatus.BAD_REQUEST, unknown.getStatusCode());
+        assertEquals("BAD REQUEST", unknown.getBody().get("reason"));
+        assertEquals(login("smoke-wrong", "not-the-password").getBody().get("message"), unknown.getBody().get("message"));
+    }
+
+    @Test
+    void userWithoutPermissionCannotDelete() {
+        register("smoke-delete");
+        String token = login("smoke-delete", PASSWORD).getHeaders().getFirst(JWT_TOKEN_HEADER);
+        ResponseEntity<Map> response = restTemplate.exchange("/user/delete/smoke-delete", HttpMethod.DELETE, authorized(token), Map.class);
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        assertEquals(HttpStatus.OK, restTemplate.exchange("/user/find/smoke-delete", HttpMethod.GET, authorized(token), Map.class).getStatusCode());
+    }
+
+    @Test
+    void refreshTokenCanOnlyBeUsedOnce() {
+        register("smoke-refresh");
+        String refreshToken = login("smoke-refresh", PASSWORD).getHeaders().getFirst(REFRESH_TOKEN_HEADER);
+        ResponseEntity<Map> rotated = refresh(refreshToken);
+        assertEquals(HttpStatus.OK, rotated.getStatusCode());
+        String rotatedToken = rotated.getHeaders().getFirst(REFRESH_TOKEN_HEADER);
+        assertNotEquals(refreshToken, rotatedToken);
+        // dung lai token cu: coi nhu bi lo, ca token vua xoay cung bi thu hoi
+        assertEquals(HttpStatus.UNAUTHORIZED, refresh(refreshToken).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, refresh(rotatedToken).getStatusCode());
+    }
+
+    @Test
+    void requestWithoutTokenIsRejected() {
+        assertEquals(HttpStatus.FORBIDDEN, restTemplate.getForEntity("/user/find/smoke", String.class).getStatusCode());
+    }
+
+    private ResponseEntity<Map> register(String username) {
+        return restTemplate.postForEntity("/user/register", Map.of("firstName", "Smoke", "lastName", "Test", "username", username,
+                "email", username + "@example.com", "password", PASSWORD), Map.class);
+    }
+
+    private ResponseEntity<Map> login(String username, String password) {
+        return restTemplate.postForEntity("/user/login", Map.of("username", username, "password", password), Map.class);
+    }
+
+    private ResponseEntity<Map> refresh(String refreshToken) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(REFRESH_TOKEN_HEADER, refreshToken);
+        return restTemplate.exchange("/user/token/refresh", HttpMethod.POST, new HttpEntity<>(headers), Map.class);
+    }
+
+    private static HttpEntity<Void> authorized(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, TOKEN_PREFIX + token);
+        return new HttpEntity<>(headers);
+    }
+}
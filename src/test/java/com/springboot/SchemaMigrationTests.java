@@ -0,0 +1,67 @@
+package com.springboot;
+
+import com.springboot.entity.User;
+import com.springboot.enumeration.Role;
+import com.springboot.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// profile prod tren H2 (che do MySQL): Flyway tao/nang cap schema, Hibernate validate phai khop entity thi moi khoi dong duoc
+class SchemaMigrationTests {
+    private static final String BASELINE_SCRIPT = "db/migration/V1__baseline.sql";
+    // bo dong danh dau Flyway tu tao schema (version null)
+    private static final String HISTORY_QUERY = "select \"version\" || ':' || \"type\" from \"flyway_schema_history\" where \"success\" and \"version\" is not null order by \"installed_rank\"";
+
+    @Test
+    void freshDatabaseIsMigratedAndValidated() {
+        try (ConfigurableApplicationContext context = startProd(databaseUrl("fresh"))) {
+            assertEquals(List.of("1:SQL", "2:SQL"), context.getBean(JdbcTemplate.class).queryForList(HISTORY_QUERY, String.class));
+        }
+    }
+
+    // DB tao bang ddl-auto=update cua ban dau (khong co bang lich su Flyway) duoc baseline o version 1 roi nang len
+    @Test
+    void baselineDatabaseIsUpgraded() throws Exception {
+        String url = databaseUrl("baseline");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource(BASELINE_SCRIPT));
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("insert into user (id, user_id, username, role, is_active, is_not_locked) values (1, '1', 'legacy', 'ROLE_ADMIN', true, true)");
+            }
+            try (ConfigurableApplicationContext context = startProd(url)) {
+                assertEquals(List.of("1:BASELINE", "2:SQL"), context.getBean(JdbcTemplate.class).queryForList(HISTORY_QUERY, String.class));
+                User legacy = context.getBean(UserRepository.class).findByUsername("legacy");
+                assertNotNull(legacy);
+                assertEquals(Role.ROLE_ADMIN.getPermissionMask(), legacy.getPermissionMask());
+            }
+        }
+    }
+
+    private static String databaseUrl(String name) {
+        return "jdbc:h2:mem:migration-" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE";
+    }
+
+    // tham so dong lenh de len application.yml va application-prod.yml
+    private static ConfigurableApplicationContext startProd(String url) {
+        return new SpringApplicationBuilder(SpringJwtAngularApplication.class).profiles("prod").run(
+                "--server.port=0",
+                "--spring.datasource.url=" + url,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.show-sql=false",
+                "--user.invalidation.transport=none",
+                "--user.id.node-id=0");
+    }
+}
@@ -0,0 +1,123 @@
+package com.springboot;
+
+import com.springboot.entity.User;
+import com.springboot.entity.UserPrincipal;
+import com.springboot.enumeration.Role;
+import com.springboot.utility.JWTTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.springboot.constant.SecurityConstant.JWT_TOKEN_HEADER;
+import static com.springboot.constant.SecurityConstant.TOKEN_PREFIX;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class UserBulkTests {
+    private static final String PASSWORD = "bulk-password";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private JWTTokenProvider jwtTokenProvider;
+
+    @Test
+    void bulkLockRevokesTokensAndSkipsUnchangedUsers() {
+        List<String> usernames = List.of("bulk-lock-1", "bulk-lock-2", "bulk-lock-3");
+        usernames.forEach(this::register);
+        String userToken = login(usernames.get(0)).getHeaders().getFirst(JWT_TOKEN_HEADER);
+        String adminToken = adminToken();
+
+        Map result = bulk("lock", adminToken, Map.of("usernames", usernames)).getBody();
+        assertEquals(3, result.get("updated"));
+        assertEquals(3, result.get("tokensRevoked"));
+        assertEquals(HttpStatus.FORBIDDEN, restTemplate.exchange("/user/find/bulk-lock-1", HttpMethod.GET, authorized(userToken), Map.class).getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, login(usernames.get(1)).getStatusCode());
+
+        assertEquals(0, bulk("lock", adminToken, Map.of("usernames", usernames)).getBody().get("updated"));
+        assertEquals(3, bulk("unlock", adminToken, Map.of("usernames", usernames)).getBody().get("updated"));
+        assertEquals(HttpStatus.OK, login(usernames.get(1)).getStatusCode());
+    }
+
+    @Test
+    void bulkRoleChangeByFilterUpdatesPermissions() {
+        register("bulk-role-1");
+        register("bulk-role-2");
+        String adminToken = adminToken();
+
+        Map result = bulk("role?role=ROLE_HR", adminToken, Map.of("usernames", List.of("bulk-role-1", "bulk-role-2", "missing-user"))).getBody();
+        assertEquals(2, result.get("matched"));
+        assertEquals(2, result.get("updated"));
+        String token = login("bulk-role-2").getHeaders().getFirst(JWT_TOKEN_HEADER);
+        assertEquals(Role.ROLE_HR.getPermissionMask(), jwtTokenProvider.getPermissionMask(jwtTokenProvider.verify(token)));
+
+        // bo loc: tat ca ROLE_HR -> ROLE_USER
+        assertTrue((Integer) bulk("role?role=ROLE_USER", adminToken, Map.of("role", "ROLE_HR")).getBody().get("updated") >= 2);
+    }
+
+    // iat chi chinh xac toi giay: dang nhap lai ngay trong giay bi thu hoi van phai dung duoc, token cu thi khong
+    @Test
+    void reloginInTheSecondOfRevocationIsAccepted() throws InterruptedException {
+        register("bulk-relogin");
+        String oldToken = login("bulk-relogin").getHeaders().getFirst(JWT_TOKEN_HEADER);
+        String adminToken = adminToken();
+        // bat dau o dau 1 giay de thu hoi va dang nhap lai roi vao cung giay
+        Thread.sleep(1_000 - System.currentTimeMillis() % 1_000);
+        long revokedSecond = System.currentTimeMillis() / 1_000;
+
+        assertEquals(1, bulk("role?role=ROLE_HR", adminToken, Map.of("usernames", List.of("bulk-relogin"))).getBody().get("tokensRevoked"));
+        String newToken = login("bulk-relogin").getHeaders().getFirst(JWT_TOKEN_HEADER);
+        assertEquals(revokedSecond, jwtTokenProvider.verify(newToken).getIssuedAt().getTime() / 1_000);
+        assertEquals(HttpStatus.OK, restTemplate.exchange("/user/find/bulk-relogin", HttpMethod.GET, authorized(newToken), Map.class).getStatusCode());
+        assertEquals(HttpStatus.FORBIDDEN, restTemplate.exchange("/user/find/bulk-relogin", HttpMethod.GET, authorized(oldToken), Map.class).getStatusCode());
+    }
+
+    @Test
+    void bulkRequiresSelectionAndPermission() {
+        register("bulk-plain");
+        String userToken = login("bulk-plain").getHeaders().getFirst(JWT_TOKEN_HEADER);
+        assertEquals(HttpStatus.FORBIDDEN, bulk("lock", userToken, Map.of("usernames", List.of("bulk-plain"))).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, bulk("lock", adminToken(), Map.of()).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, bulk("explode", adminToken(), Map.of("usernames", List.of("bulk-plain"))).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, bulk("role?role=ROLE_PIRATE", adminToken(), Map.of("usernames", List.of("bulk-plain"))).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, bulk("lock", adminToken(), Map.of("role", "ROLE_PIRATE")).getStatusCode());
+    }
+
+    private ResponseEntity<Map> bulk(String action, String token, Map<String, Object> selection) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, TOKEN_PREFIX + token);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.exchange("/user/bulk/" + action, HttpMethod.POST, new HttpEntity<>(selection, headers), Map.class);
+    }
+
+    // token admin khong can user that trong DB, filter chi doc quyen trong token
+    private String adminToken() {
+        User admin = new User();
+        admin.setUsername("bulk-admin");
+        admin.setRole(Role.ROLE_SUPER_ADMIN.name());
+        admin.setAuthorities(Role.ROLE_SUPER_ADMIN.getAuthorities());
+        return jwtTokenProvider.generateJwtToken(new UserPrincipal(admin));
+    }
+
+    private void register(String username) {
+        restTemplate.postForEntity("/user/register", Map.of("firstName", "Bulk", "lastName", "Test", "username", username,
+                "email", username + "@example.com", "password", PASSWORD), Map.class);
+    }
+
+    private ResponseEntity<Map> login(String username) {
+        return restTemplate.postForEntity("/user/login", Map.of("username", username, "password", PASSWORD), Map.class);
+    }
+
+    private static HttpEntity<Void> authorized(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, TOKEN_PREFIX + token);
+        return new HttpEntity<>(headers);
+    }
+}
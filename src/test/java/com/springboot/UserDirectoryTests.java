@@ -0,0 +1,67 @@
+package com.springboot;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static com.springboot.constant.SecurityConstant.JWT_TOKEN_HEADER;
+import static com.springboot.constant.SecurityConstant.TOKEN_PREFIX;
+import static com.springboot.constant.UserDirectoryConstant.LAST_LOGIN_DATE;
+import static com.springboot.constant.UserDirectoryConstant.LAST_LOGIN_DATE_DISPLAY;
+import static org.junit.jupiter.api.Assertions.*;
+
+// dang nhap khong cap version: ban co version (danh sach, /find, /changes) khong chua thoi diem dang nhap
+// nen ETag va cache van dung sau khi dang nhap, thoi diem dang nhap chi tra ve o response login
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class UserDirectoryTests {
+    private static final String PASSWORD = "directory-password";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void loginDoesNotChangeVersionedRepresentations() {
+        restTemplate.postForEntity("/user/register", Map.of("firstName", "Directory", "lastName", "Test", "username", "directory-login",
+                "email", "directory-login@example.com", "password", PASSWORD), Map.class);
+        ResponseEntity<Map> firstLogin = login();
+        assertNotNull(firstLogin.getBody().get(LAST_LOGIN_DATE));
+        String token = firstLogin.getHeaders().getFirst(JWT_TOKEN_HEADER);
+
+        ResponseEntity<String> before = restTemplate.exchange("/user", HttpMethod.GET, authorized(token, null), String.class);
+        String findBefore = restTemplate.exchange("/user/find/directory-login", HttpMethod.GET, authorized(token, null), String.class).getBody();
+        assertTrue(before.getBody().contains("\"username\":\"directory-login\""));
+        assertFalse(before.getBody().contains(LAST_LOGIN_DATE));
+        assertFalse(findBefore.contains(LAST_LOGIN_DATE));
+
+        ResponseEntity<Map> secondLogin = login();
+        assertNotEquals(firstLogin.getBody().get(LAST_LOGIN_DATE_DISPLAY), secondLogin.getBody().get(LAST_LOGIN_DATE_DISPLAY));
+        ResponseEntity<String> after = restTemplate.exchange("/user", HttpMethod.GET, authorized(token, before.getHeaders().getETag()), String.class);
+        assertEquals(HttpStatus.NOT_MODIFIED, after.getStatusCode());
+        assertEquals(findBefore, restTemplate.exchange("/user/find/directory-login", HttpMethod.GET, authorized(token, null), String.class).getBody());
+
+        ResponseEntity<String> changes = restTemplate.exchange("/user/changes?since=0", HttpMethod.GET, authorized(token, null), String.class);
+        assertTrue(changes.getBody().contains("\"username\":\"directory-login\""));
+        assertFalse(changes.getBody().contains(LAST_LOGIN_DATE));
+    }
+
+    private ResponseEntity<Map> login() {
+        ResponseEntity<Map> response = restTemplate.postForEntity("/user/login", Map.of("username", "directory-login", "password", PASSWORD), Map.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response;
+    }
+
+    private static HttpEntity<Void> authorized(String token, String eTag) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, TOKEN_PREFIX + token);
+        if (eTag != null) {
+            headers.setIfNoneMatch(eTag);
+        }
+        return new HttpEntity<>(headers);
+    }
+}
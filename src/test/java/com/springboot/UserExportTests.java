@@ -0,0 +1,70 @@
+package com.springboot;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.springboot.constant.SecurityConstant.JWT_TOKEN_HEADER;
+import static com.springboot.constant.SecurityConstant.TOKEN_PREFIX;
+import static org.junit.jupiter.api.Assertions.*;
+
+// export stream tren H2: fetch size theo dialect (MySQL dung Integer.MIN_VALUE, H2 tu choi gia tri am)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class UserExportTests {
+    private static final String PASSWORD = "export-password";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void csvExportContainsSelectedColumnsOnly() {
+        String token = registerAndLogin("export-csv");
+        ResponseEntity<String> response = export(token, "format=csv&columns=username,email", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        List<String> lines = Arrays.asList(response.getBody().split("\n"));
+        assertEquals("username,email", lines.get(0));
+        assertTrue(lines.contains("export-csv,export-csv@example.com"), response.getBody());
+        assertFalse(response.getBody().contains(PASSWORD));
+    }
+
+    @Test
+    void ndjsonExportWritesOneObjectPerLine() {
+        String token = registerAndLogin("export-ndjson");
+        ResponseEntity<String> response = export(token, "format=ndjson&columns=username,notLocked", String.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        String body = response.getBody();
+        List<Map> rows = body.lines().map(line -> {
+            try {
+                return objectMapper.readValue(line, Map.class);
+            } catch (Exception exception) {
+                throw new IllegalStateException(line, exception);
+            }
+        }).collect(Collectors.toList());
+        assertTrue(rows.contains(Map.of("username", "export-ndjson", "notLocked", true)), body);
+    }
+
+    private <T> ResponseEntity<T> export(String token, String query, Class<T> type) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, TOKEN_PREFIX + token);
+        return restTemplate.exchange("/user/export?" + query, HttpMethod.GET, new HttpEntity<>(headers), type);
+    }
+
+    private String registerAndLogin(String username) {
+        restTemplate.postForEntity("/user/register", Map.of("firstName", "Export", "lastName", "Test", "username", username,
+                "email", username + "@example.com", "password", PASSWORD), Map.class);
+        return restTemplate.postForEntity("/user/login", Map.of("username", username, "password", PASSWORD), Map.class)
+                .getHeaders().getFirst(JWT_TOKEN_HEADER);
+    }
+}
@@ -0,0 +1,75 @@
+package com.springboot;
+
+import com.springboot.entity.User;
+import com.springboot.entity.UserPrincipal;
+import com.springboot.enumeration.Role;
+import com.springboot.repository.UserRepository;
+import com.springboot.utility.JWTTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.*;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static com.springboot.constant.SecurityConstant.TOKEN_PREFIX;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class UserImportTests {
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private JWTTokenProvider jwtTokenProvider;
+    @Autowired
+    private UserRepository userRepository;
+
+    // dong NDJSON chi duoc dat cac cot cua CSV, truong khac cua User (id, anh, ngay dang nhap, trang thai) bi bo qua
+    @Test
+    void ndjsonRowOnlySetsImportColumns() {
+        String row = "{\"firstName\":\"Import\",\"lastName\":\"Test\",\"username\":\"import-ndjson\",\"email\":\"import-ndjson@example.com\","
+                + "\"password\":\"import-password\",\"role\":\"ROLE_HR\",\"id\":424242,\"userId\":\"forged-id\","
+                + "\"profileImageHash\":\"forged-hash\",\"lastLoginDate\":\"2020-01-01T00:00:00.000+00:00\","
+                + "\"lastLoginDateDisplay\":\"2020-01-01T00:00:00.000+00:00\",\"active\":false,\"notLocked\":false}";
+        Map result = importUsers(row, "application/x-ndjson").getBody();
+        assertEquals(1, result.get("imported"), String.valueOf(result));
+
+        User user = userRepository.findByUsername("import-ndjson");
+        assertNotEquals(424242L, user.getId());
+        assertNotEquals("forged-id", user.getUserId());
+        assertNull(user.getProfileImageHash());
+        assertNull(user.getLastLoginDate());
+        assertNull(user.getLastLoginDateDisplay());
+        assertTrue(user.isActive());
+        assertTrue(user.isNotLocked());
+        assertEquals(Role.ROLE_HR.name(), user.getRole());
+        assertNotEquals("import-password", user.getPassword());
+    }
+
+    @Test
+    void csvRowIsImported() {
+        Map result = importUsers("firstName,lastName,username,email,password,role\nImport,Csv,import-csv,import-csv@example.com,import-password,",
+                "text/csv").getBody();
+        assertEquals(1, result.get("imported"), String.valueOf(result));
+        assertEquals(Role.ROLE_USER.name(), userRepository.findByUsername("import-csv").getRole());
+    }
+
+    private ResponseEntity<Map> importUsers(String body, String contentType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.AUTHORIZATION, TOKEN_PREFIX + adminToken());
+        headers.setContentType(MediaType.parseMediaType(contentType));
+        return restTemplate.exchange("/user/import", HttpMethod.POST, new HttpEntity<>(body, headers), Map.class);
+    }
+
+    // token admin khong can user that trong DB, filter chi doc quyen trong token
+    private String adminToken() {
+        User admin = new User();
+        admin.setUsername("import-admin");
+        admin.setRole(Role.ROLE_SUPER_ADMIN.name());
+        admin.setAuthorities(Role.ROLE_SUPER_ADMIN.getAuthorities());
+        return jwtTokenProvider.generateJwtToken(new UserPrincipal(admin));
+    }
+}
@@ -0,0 +1,115 @@
+package com.springboot.audit;
+
+import com.springboot.entity.AuthenticationAuditRecord;
+import com.springboot.enumeration.AuthenticationAuditType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.springboot.constant.AuthenticationAuditConstant.MIN_SEGMENT_SIZE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuditJournalTests {
+    private static final int RECORDS = 20_000;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void queryReturnsExactTimeRangeAcrossSegments() throws IOException {
+        try (AuditJournalWriter writer = new AuditJournalWriter(folder, MIN_SEGMENT_SIZE)) {
+            for (int i = 0; i < RECORDS; i++) {
+                writer.append(record(i));
+            }
+        }
+        assertTrue(AuditJournalReader.listSegments(folder).size() > 3);
+
+        List<AuthenticationAuditRecord> records = query(5_000, 15_000, null);
+        assertEquals(10_000, records.size());
+        assertEquals(record(5_000), records.get(0));
+        assertEquals(record(14_999), records.get(records.size() - 1));
+        assertEquals(RECORDS / 10, query(0, Long.MAX_VALUE, "user-7").size());
+        assertTrue(query(RECORDS, Long.MAX_VALUE, null).isEmpty());
+    }
+
+    @Test
+    void reopenedWriterAppendsAfterLastRecord() throws IOException {
+        try (AuditJournalWriter writer = new AuditJournalWriter(folder, MIN_SEGMENT_SIZE)) {
+            writer.append(record(0));
+            writer.append(record(1));
+        }
+        try (AuditJournalWriter writer = new AuditJournalWriter(folder, MIN_SEGMENT_SIZE)) {
+            writer.append(record(2));
+        }
+        assertEquals(1, AuditJournalReader.listSegments(folder).size());
+        assertEquals(List.of(record(0), record(1), record(2)), query(0, Long.MAX_VALUE, null));
+    }
+
+    @Test
+    void retentionKeepsNewestSegment() throws IOException {
+        try (AuditJournalWriter writer = new AuditJournalWriter(folder, MIN_SEGMENT_SIZE)) {
+            for (int i = 0; i < RECORDS; i++) {
+                writer.append(record(i));
+            }
+        }
+        int segments = AuditJournalReader.listSegments(folder).size();
+        assertEquals(segments - 1, AuditJournalReader.deleteSegmentsBefore(folder, Long.MAX_VALUE));
+        assertEquals(1, AuditJournalReader.listSegments(folder).size());
+        assertEquals(record(RECORDS - 1), query(RECORDS - 1, RECORDS, null).get(0));
+    }
+
+    @Test
+    void ringBufferDeliversEveryAcceptedRecordOnce() throws InterruptedException {
+        AuditRingBuffer<Long> ringBuffer = new AuditRingBuffer<>(1024);
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong acceptedSum = new AtomicLong();
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long base = t * 1_000_000L;
+            producers.add(new Thread(() -> {
+                for (long i = 0; i < 100_000; i++) {
+                    if (ringBuffer.offer(base + i)) {
+                        accepted.incrementAndGet();
+                        acceptedSum.addAndGet(base + i);
+                    }
+                }
+            }));
+        }
+        producers.forEach(Thread::start);
+        AtomicInteger received = new AtomicInteger();
+        AtomicLong receivedSum = new AtomicLong();
+        while (producers.stream().anyMatch(Thread::isAlive) || !ringBuffer.isEmpty()) {
+            ringBuffer.drain(value -> {
+                received.incrementAndGet();
+                receivedSum.addAndGet(value);
+            }, 256);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        ringBuffer.drain(value -> {
+            received.incrementAndGet();
+            receivedSum.addAndGet(value);
+        }, Integer.MAX_VALUE);
+        assertEquals(accepted.get(), received.get());
+        assertEquals(acceptedSum.get(), receivedSum.get());
+    }
+
+    private List<AuthenticationAuditRecord> query(long from, long to, String username) throws IOException {
+        List<AuthenticationAuditRecord> records = new ArrayList<>();
+        AuditJournalReader.query(folder, from, to, username, records::add);
+        return records;
+    }
+
+    private static AuthenticationAuditRecord record(int i) {
+        AuthenticationAuditType type = i % 3 == 0 ? AuthenticationAuditType.SUCCESS : AuthenticationAuditType.BAD_CREDENTIALS;
+        String remoteAddress = i % 2 == 0 ? "10.0." + (i % 256) + ".1" : "2001:db8::" + Integer.toHexString(i);
+        return new AuthenticationAuditRecord(i, type, "user-" + i % 10, remoteAddress);
+    }
+}
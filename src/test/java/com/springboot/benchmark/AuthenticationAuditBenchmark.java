@@ -0,0 +1,88 @@
+package com.springboot.benchmark;
+
+import com.springboot.enumeration.AuthenticationAuditType;
+import com.springboot.service.AuthenticationAuditService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.springboot.constant.AuthenticationAuditConstant.DROPPED_METRIC;
+import static com.springboot.constant.AuthenticationAuditConstant.RECORDED_METRIC;
+
+// chi phi record() tren request thread so voi BCrypt (phan chinh cua /user/login), toc do ghi cua writer
+// va thoi gian truy van 1 khoang hep / toan bo journal
+// chay: mvn test -Dtest=AuthenticationAuditBenchmark -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AuthenticationAuditBenchmark {
+    private static final int THREADS = 4;
+    private static final int RECORDS_PER_THREAD = 250_000;
+    private static final int SAMPLE_EVERY = 100;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void recordCostAndQuerySpeed() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AuthenticationAuditService service = new AuthenticationAuditService(meterRegistry, folder.toString(), 65536, 64 * 1024 * 1024, 1000, Long.MAX_VALUE);
+        long start = System.currentTimeMillis();
+        List<long[]> samples = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            long[] threadSamples = new long[RECORDS_PER_THREAD / SAMPLE_EVERY];
+            samples.add(threadSamples);
+            String address = "10.0.0." + t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < RECORDS_PER_THREAD; i++) {
+                    long before = System.nanoTime();
+                    service.record(i % 5 == 0 ? AuthenticationAuditType.BAD_CREDENTIALS : AuthenticationAuditType.SUCCESS, "user-" + (i % 1000), address);
+                    if (i % SAMPLE_EVERY == 0) {
+                        threadSamples[i / SAMPLE_EVERY] = System.nanoTime() - before;
+                    }
+                    // nhip dang nhap thuc te thua hon nhieu, nghi 1 chut de writer theo kip nhu luc tai cao
+                    if (i % 64 == 0) {
+                        Thread.yield();
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        service.shutdown();
+        double writeSeconds = (System.currentTimeMillis() - start) / 1000.0;
+        long end = System.currentTimeMillis() + 1;
+
+        long[] latencies = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+        String hash = passwordEncoder.encode("password");
+        passwordEncoder.matches("password", hash);
+        long bcryptStart = System.nanoTime();
+        passwordEncoder.matches("password", hash);
+        long bcryptNanos = System.nanoTime() - bcryptStart;
+
+        long queryStart = System.nanoTime();
+        int all = service.query(0, end, null).size();
+        double fullScanMillis = (System.nanoTime() - queryStart) / 1e6;
+        long middle = start + (end - start) / 2;
+        queryStart = System.nanoTime();
+        int narrow = service.query(middle, middle + 10, null).size();
+        double narrowMillis = (System.nanoTime() - queryStart) / 1e6;
+
+        System.out.printf("record() p50 / p99 / max:   %d / %d / %d ns%n", latencies[latencies.length / 2],
+                latencies[(int) (latencies.length * 0.99)], latencies[latencies.length - 1]);
+        System.out.printf("BCrypt matches (login):     %d ns%n", bcryptNanos);
+        System.out.printf("written / dropped:          %.0f / %.0f in %.1f s%n", meterRegistry.counter(RECORDED_METRIC).count(),
+                meterRegistry.counter(DROPPED_METRIC).count(), writeSeconds);
+        System.out.printf("full scan:                  %d records in %.1f ms%n", all, fullScanMillis);
+        System.out.printf("10 ms range:                %d records in %.2f ms%n", narrow, narrowMillis);
+    }
+}
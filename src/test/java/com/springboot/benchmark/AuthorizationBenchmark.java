@@ -0,0 +1,121 @@
+package com.springboot.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.springboot.annotation.RequirePermission;
+import com.springboot.entity.PermissionAuthenticationToken;
+import com.springboot.enumeration.Permission;
+import com.springboot.enumeration.Role;
+import com.springboot.filter.PermissionInterceptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.expression.method.ExpressionBasedAnnotationAttributeFactory;
+import org.springframework.security.access.expression.method.ExpressionBasedPreInvocationAdvice;
+import org.springframework.security.access.intercept.aopalliance.MethodSecurityInterceptor;
+import org.springframework.security.access.method.DelegatingMethodSecurityMetadataSource;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.access.prepost.PreInvocationAuthorizationAdviceVoter;
+import org.springframework.security.access.prepost.PrePostAnnotationSecurityMetadataSource;
+import org.springframework.security.access.vote.AffirmativeBased;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// chi phi kiem tra quyen moi lan goi: @PreAuthorize (MethodSecurityInterceptor + SpEL nhu truoc day)
+// so voi @RequirePermission (PermissionInterceptor, mask tinh san)
+// chay: mvn test -Dtest=AuthorizationBenchmark -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class AuthorizationBenchmark {
+    private static final int WARM_UP_ITERATIONS = 2_000_000;
+    private static final int ITERATIONS = 5_000_000;
+
+    // ngoai Spring Boot logback mac dinh o muc DEBUG, log "Authorized ..." cua MethodSecurityInterceptor se lam sai so do
+    @BeforeAll
+    static void disableDebugLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void compareAuthorizationChecks() throws Exception {
+        int mask = Role.ROLE_ADMIN.getPermissionMask();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("admin", null, Permission.grantedAuthoritiesOf(mask)));
+        Controller spelController = spelProxy();
+        assertThrows(AccessDeniedException.class, () -> spelController.delete(1));
+        report("@PreAuthorize (SpEL)", () -> spelController.create(1));
+
+        Controller controller = new Controller();
+        PermissionInterceptor permissionInterceptor = new PermissionInterceptor();
+        HandlerMethod create = new HandlerMethod(controller, Controller.class.getMethod("create", int.class));
+        HandlerMethod delete = new HandlerMethod(controller, Controller.class.getMethod("delete", int.class));
+        SecurityContextHolder.getContext().setAuthentication(new PermissionAuthenticationToken("admin", mask));
+        assertThrows(AccessDeniedException.class, () -> permissionInterceptor.preHandle(null, null, delete));
+        report("@RequirePermission (mask)", () -> {
+            permissionInterceptor.preHandle(null, null, create);
+            return controller.create(1);
+        });
+        report("no check", () -> controller.create(1));
+    }
+
+    private static Controller spelProxy() throws Exception {
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        ExpressionBasedPreInvocationAdvice preInvocationAdvice = new ExpressionBasedPreInvocationAdvice();
+        preInvocationAdvice.setExpressionHandler(expressionHandler);
+        MethodSecurityInterceptor methodSecurityInterceptor = new MethodSecurityInterceptor();
+        // cache metadata theo method nhu GlobalMethodSecurityConfiguration
+        methodSecurityInterceptor.setSecurityMetadataSource(new DelegatingMethodSecurityMetadataSource(List.of(
+                new PrePostAnnotationSecurityMetadataSource(new ExpressionBasedAnnotationAttributeFactory(expressionHandler)))));
+        methodSecurityInterceptor.setAccessDecisionManager(new AffirmativeBased(List.of(new PreInvocationAuthorizationAdviceVoter(preInvocationAdvice))));
+        methodSecurityInterceptor.setAuthenticationManager(authentication -> authentication);
+        methodSecurityInterceptor.afterPropertiesSet();
+        ProxyFactory proxyFactory = new ProxyFactory(new Controller());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(methodSecurityInterceptor);
+        return (Controller) proxyFactory.getProxy();
+    }
+
+    private static void report(String scenario, Check check) throws Exception {
+        long sink = 0;
+        for (int i = 0; i < WARM_UP_ITERATIONS; i++) {
+            sink += check.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += check.run();
+        }
+        double nanos = (double) (System.nanoTime() - start) / ITERATIONS;
+        System.out.printf("%-28s %8.1f ns/op  (%d)%n", scenario, nanos, sink);
+    }
+
+    private interface Check {
+        int run() throws Exception;
+    }
+
+    public static class Controller {
+        @PreAuthorize("hasAuthority('user:create')")
+        @RequirePermission(Permission.CREATE)
+        public int create(int value) {
+            return value;
+        }
+
+        @PreAuthorize("hasAuthority('user:delete')")
+        @RequirePermission(Permission.DELETE)
+        public int delete(int value) {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.springboot.benchmark;
+
+import com.springboot.SpringJwtAngularApplication;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.springboot.constant.SecurityConstant.JWT_TOKEN_HEADER;
+import static com.springboot.constant.SecurityConstant.TOKEN_PREFIX;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.HttpHeaders.*;
+
+// 1 trang Angular goi 4 API co header Authorization, moi API can preflight neu trinh duyet chua cache ket qua
+// cu: khong Max-Age (trinh duyet cache 5 giay) va preflight di qua metrics, QueryCountFilter, Spring Security
+// moi: Max-Age 7200 va CorsPreflightFilter tra loi truoc chuoi security
+// client mo phong cache preflight cua trinh duyet (theo origin + method + URL) voi dong ho gia, moi trang cach nhau 30 giay
+// CPU la tong CPU cua cac thread Tomcat (http-nio-*-exec-*), client chay cung JVM nhung khong bi tinh
+// chay: mvn test -Dtest=CorsPreflightLoadTest -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CorsPreflightLoadTest {
+    private static final String ORIGIN_VALUE = "http://localhost:4200";
+    private static final String PASSWORD = "cors-load-password";
+    private static final int WARM_UP_PAGE_LOADS = 300;
+    private static final int PAGE_LOADS = 1_000;
+    private static final long PAGE_INTERVAL_SECONDS = 30;
+    // trinh duyet cache preflight 5 giay khi khong co Access-Control-Max-Age
+    private static final long DEFAULT_MAX_AGE_SECONDS = 5;
+    private static final int PREFLIGHTS = 20_000;
+    private static final String WORKER_THREAD_PREFIX = "http-nio-";
+    private static final String WORKER_THREAD_MARKER = "-exec-";
+
+    private final HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void preflightCachingReducesRoundTripsAndCpu() throws Exception {
+        Result legacy = run("legacy", "user.cors.max-age-seconds=0", "user.cors.preflight-filter.enabled=false");
+        Result current = run("current");
+        report("no Max-Age, security chain", legacy);
+        report("Max-Age, CorsPreflightFilter", current);
+        assertTrue(current.roundTripsPerPage < legacy.roundTripsPerPage);
+        assertTrue(current.preflightCpuMicros < legacy.preflightCpuMicros);
+    }
+
+    private Result run(String name, String... properties) throws Exception {
+        // properties cua builder chi la gia tri mac dinh, application.yml se de len nen truyen nhu tham so dong lenh
+        List<String> arguments = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:cors-" + name + ";DB_CLOSE_DELAY=-1",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "spring.jpa.show-sql=false",
+                "user.invalidation.transport=none",
+                "user.id.node-id=0"));
+        arguments.addAll(Arrays.asList(properties));
+        String[] args = arguments.stream().map(argument -> "--" + argument).toArray(String[]::new);
+        try (ServletWebServerApplicationContext context = (ServletWebServerApplicationContext) new SpringApplicationBuilder(SpringJwtAngularApplication.class).run(args)) {
+            String baseUrl = "http://localhost:" + context.getWebServer().getPort();
+            String token = login(baseUrl, name);
+            List<String> page = List.of("/user", "/user/find/" + name, "/user/changes?since=0", "/user/search?q=" + name);
+
+            Browser warmUp = new Browser(baseUrl, token);
+            for (int i = 0; i < WARM_UP_PAGE_LOADS; i++) {
+                warmUp.load(page);
+            }
+            Browser browser = new Browser(baseUrl, token);
+            long cpuBefore = workerCpuNanos();
+            long start = System.nanoTime();
+            for (int i = 0; i < PAGE_LOADS; i++) {
+                browser.load(page);
+            }
+            Result result = new Result();
+            result.pageMillis = (System.nanoTime() - start) / 1e6 / PAGE_LOADS;
+            result.pageCpuMicros = (workerCpuNanos() - cpuBefore) / 1e3 / PAGE_LOADS;
+            result.roundTripsPerPage = (double) browser.roundTrips / PAGE_LOADS;
+            result.preflightsPerPage = (double) browser.preflights / PAGE_LOADS;
+
+            // chi phi rieng 1 preflight tren server
+            cpuBefore = workerCpuNanos();
+            start = System.nanoTime();
+            for (int i = 0; i < PREFLIGHTS; i++) {
+                assertEquals(200, browser.preflight("/user").statusCode());
+            }
+            result.preflightMicros = (System.nanoTime() - start) / 1e3 / PREFLIGHTS;
+            result.preflightCpuMicros = (workerCpuNanos() - cpuBefore) / 1e3 / PREFLIGHTS;
+            return result;
+        }
+    }
+
+    private String login(String baseUrl, String username) throws Exception {
+        String credentials = "\"username\":\"" + username + "\",\"password\":\"" + PASSWORD + "\"";
+        HttpResponse<String> register = httpClient.send(json(baseUrl + "/user/register", "{\"firstName\":\"Cors\",\"lastName\":\"Load\","
+                + "\"email\":\"" + username + "@example.com\"," + credentials + "}"), HttpResponse.BodyHandlers.ofString());
+        assertEquals(201, register.statusCode(), register.body());
+        HttpResponse<String> login = httpClient.send(json(baseUrl + "/user/login", "{" + credentials + "}"), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, login.statusCode(), login.body());
+        return login.headers().firstValue(JWT_TOKEN_HEADER).orElseThrow();
+    }
+
+    private static HttpRequest json(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url)).header(CONTENT_TYPE, "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private static long workerCpuNanos() {
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (ThreadInfo thread : threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds())) {
+            if (thread != null && thread.getThreadName().startsWith(WORKER_THREAD_PREFIX) && thread.getThreadName().contains(WORKER_THREAD_MARKER)) {
+                total += Math.max(0, threadMXBean.getThreadCpuTime(thread.getThreadId()));
+            }
+        }
+        return total;
+    }
+
+    private static void report(String scenario, Result result) {
+        System.out.printf("%-30s %5.2f round trips/page (%4.2f preflights), %7.1f us CPU/page, %6.2f ms/page | preflight %6.1f us, %6.1f us CPU%n",
+                scenario, result.roundTripsPerPage, result.preflightsPerPage, result.pageCpuMicros, result.pageMillis,
+                result.preflightMicros, result.preflightCpuMicros);
+    }
+
+    private static final class Result {
+        private double roundTripsPerPage;
+        private double preflightsPerPage;
+        private double pageCpuMicros;
+        private double pageMillis;
+        private double preflightMicros;
+        private double preflightCpuMicros;
+    }
+
+    // cache preflight giong trinh duyet: het han theo Access-Control-Max-Age, dong ho tang PAGE_INTERVAL_SECONDS moi trang
+    private final class Browser {
+        private final String baseUrl;
+        private final String token;
+        private final Map<String, Long> preflightExpiry = new HashMap<>();
+        private long clockSeconds;
+        private long roundTrips;
+        private long preflights;
+
+        private Browser(String baseUrl, String token) {
+            this.baseUrl = baseUrl;
+            this.token = token;
+        }
+
+        private void load(List<String> page) throws Exception {
+            for (String path : page) {
+                Long expiry = preflightExpiry.get(path);
+                if (expiry == null || expiry <= clockSeconds) {
+                    HttpResponse<Void> preflight = preflight(path);
+                    assertEquals(200, preflight.statusCode());
+                    long maxAge = preflight.headers().firstValueAsLong(ACCESS_CONTROL_MAX_AGE).orElse(DEFAULT_MAX_AGE_SECONDS);
+                    preflightExpiry.put(path, clockSeconds + maxAge);
+                    roundTrips++;
+                    preflights++;
+                }
+                HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header(ORIGIN, ORIGIN_VALUE)
+                        .header(AUTHORIZATION, TOKEN_PREFIX + token)
+                        .GET().build(), HttpResponse.BodyHandlers.discarding());
+                assertEquals(200, response.statusCode());
+                roundTrips++;
+            }
+            clockSeconds += PAGE_INTERVAL_SECONDS;
+        }
+
+        private HttpResponse<Void> preflight(String path) throws Exception {
+            return httpClient.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .method("OPTIONS", HttpRequest.BodyPublishers.noBody())
+                    .header(ORIGIN, ORIGIN_VALUE)
+                    .header(ACCESS_CONTROL_REQUEST_METHOD, "GET")
+                    .header(ACCESS_CONTROL_REQUEST_HEADERS, "authorization")
+                    .build(), HttpResponse.BodyHandlers.discarding());
+        }
+    }
+}
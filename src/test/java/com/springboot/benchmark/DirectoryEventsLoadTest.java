@@ -0,0 +1,161 @@
+package com.springboot.benchmark;
+
+import com.springboot.entity.User;
+import com.springboot.entity.UserPrincipal;
+import com.springboot.enumeration.DirectoryEventType;
+import com.springboot.enumeration.Role;
+import com.springboot.service.DirectoryEventService;
+import com.springboot.utility.JWTTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.springboot.constant.SecurityConstant.TOKEN_PREFIX;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.jupiter.api.Assertions.*;
+
+// mo hang chuc nghin ket noi SSE rong va kiem tra so thread khong tang theo so ket noi
+// client dung 1 selector tren 1 thread, moi ket noi ton 2 file descriptor trong cung JVM (client + server)
+// chay: mvn test -Dtest=DirectoryEventsLoadTest -Dbenchmark=true -Dsse.connections=20000 (can ulimit -n > 2 * so ket noi)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:sse;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "user.id.node-id=0",
+        "server.tomcat.accept-count=1000",
+        "user.events.heartbeat-interval-ms=5000"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DirectoryEventsLoadTest {
+    private static final int CONNECTIONS = Integer.getInteger("sse.connections", 20_000);
+    private static final int MAX_THREADS = 300;
+    private static final long DELIVERY_TIMEOUT_MILLIS = 60_000;
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private JWTTokenProvider jwtTokenProvider;
+    @Autowired
+    private DirectoryEventService directoryEventService;
+
+    @Test
+    void idleConnectionsDoNotHoldThreads() throws Exception {
+        User user = new User();
+        user.setUserId("1");
+        user.setUsername("load");
+        user.setRole(Role.ROLE_ADMIN.name());
+        user.setActive(true);
+        user.setNotLocked(true);
+        String token = jwtTokenProvider.generateJwtToken(new UserPrincipal(user));
+        assertEquals(403, rejectedStatus());
+
+        int threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long start = System.nanoTime();
+        List<Connection> connections = new ArrayList<>(CONNECTIONS);
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                connections.add(open(selector, token));
+            }
+            awaitEvent(selector, connections, "event:" + DirectoryEventType.READY);
+            double connectSeconds = (System.nanoTime() - start) / 1e9;
+
+            System.gc();
+            int threadsConnected = ManagementFactory.getThreadMXBean().getThreadCount();
+            long heapUsed = Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory();
+            assertEquals(CONNECTIONS, directoryEventService.getSubscriberCount());
+            assertTrue(threadsConnected < MAX_THREADS, "threads: " + threadsConnected);
+
+            user.setUpdatedAt(new Date());
+            long publishStart = System.nanoTime();
+            directoryEventService.publish(DirectoryEventType.UPDATED, user);
+            awaitEvent(selector, connections, "event:" + DirectoryEventType.UPDATED);
+            double broadcastMillis = (System.nanoTime() - publishStart) / 1e6;
+
+            System.out.printf("connections:              %d%n", CONNECTIONS);
+            System.out.printf("connect + READY:          %.1f s%n", connectSeconds);
+            System.out.printf("threads before / after:   %d / %d%n", threadsBefore, threadsConnected);
+            System.out.printf("heap used:                %d MB%n", heapUsed / (1024 * 1024));
+            System.out.printf("broadcast to all clients: %.0f ms%n", broadcastMillis);
+        } finally {
+            for (Connection connection : connections) {
+                connection.channel.close();
+            }
+        }
+    }
+
+    private int rejectedStatus() throws IOException {
+        try (SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port))) {
+            channel.write(US_ASCII.encode("GET /user/events HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\nConnection: close\r\n\r\n"));
+            ByteBuffer buffer = ByteBuffer.allocate(64);
+            channel.read(buffer);
+            buffer.flip();
+            return Integer.parseInt(US_ASCII.decode(buffer).toString().substring(9, 12));
+        }
+    }
+
+    private Connection open(Selector selector, String token) throws IOException {
+        SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", port));
+        channel.write(US_ASCII.encode("GET /user/events HTTP/1.1\r\nHost: localhost\r\nAccept: text/event-stream\r\n"
+                + "Authorization: " + TOKEN_PREFIX + token + "\r\n\r\n"));
+        channel.configureBlocking(false);
+        Connection connection = new Connection(channel);
+        channel.register(selector, SelectionKey.OP_READ, connection);
+        return connection;
+    }
+
+    // doc tat ca ket noi tren 1 thread toi khi moi ket noi deu nhan duoc su kien
+    private void awaitEvent(Selector selector, List<Connection> connections, String marker) throws IOException {
+        connections.forEach(connection -> connection.received = false);
+        int remaining = connections.size();
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MILLIS;
+        while (remaining > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "clients without " + marker + ": " + remaining);
+            selector.select(1000);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Connection connection = (Connection) key.attachment();
+                buffer.clear();
+                int read = connection.channel.read(buffer);
+                assertTrue(read >= 0, "server closed a connection");
+                buffer.flip();
+                // giu lai duoi cua lan doc truoc phong truong hop marker bi cat doi
+                String text = connection.tail + US_ASCII.decode(buffer);
+                if (!connection.received && text.contains(marker)) {
+                    connection.received = true;
+                    remaining--;
+                }
+                connection.tail = text.substring(Math.max(0, text.length() - marker.length()));
+            }
+        }
+    }
+
+    private static class Connection {
+        private final SocketChannel channel;
+        private boolean received;
+        private String tail = "";
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.entity.HttpResponse;
+import com.springboot.entity.User;
+import com.springboot.entity.UserPrincipal;
+import com.springboot.enumeration.Role;
+import com.springboot.exception.ErrorResponseCache;
+import com.springboot.exception.entity.StacklessBadCredentialsException;
+import com.springboot.utility.JWTTokenProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.concurrent.Callable;
+
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+
+// chi phi phan xu ly loi cua 1 lan dang nhap that bai (nem exception qua ~100 frame nhu filter chain + tao body)
+// truoc / sau khi bo stack trace va cache body, so voi phan tao response cua 1 lan dang nhap thanh cong (JWT + JSON user)
+// BCrypt (~80 ms) co trong ca 2 truong hop nen khong tinh o day
+// chay: mvn test -Dtest=ErrorPathBenchmark -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ErrorPathBenchmark {
+    private static final int STACK_DEPTH = 100;
+    private static final int ITERATIONS = 200_000;
+    private static final String INCORRECT_CREDENTIALS = "Username / password incorrect. Please try again";
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void compareFailureAndSuccessPaths() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        ErrorResponseCache errorResponseCache = new ErrorResponseCache(objectMapper);
+        JWTTokenProvider jwtTokenProvider = new JWTTokenProvider();
+        ReflectionTestUtils.setField(jwtTokenProvider, "secret", "benchmark-secret");
+        User user = createUser();
+
+        System.out.println("scenario                               ns/op    bytes/op");
+        report("failure, stack trace + new body", () -> {
+            try {
+                throwAt(STACK_DEPTH, () -> new BadCredentialsException("Bad credentials"));
+                return null;
+            } catch (BadCredentialsException exception) {
+                return objectMapper.writeValueAsBytes(new HttpResponse(BAD_REQUEST.value(), BAD_REQUEST, BAD_REQUEST.getReasonPhrase().toUpperCase(), INCORRECT_CREDENTIALS));
+            }
+        });
+        report("failure, stackless + cached body", () -> {
+            try {
+                throwAt(STACK_DEPTH, () -> new StacklessBadCredentialsException("Bad credentials"));
+                return null;
+            } catch (BadCredentialsException exception) {
+                return errorResponseCache.body(HttpStatus.BAD_REQUEST, INCORRECT_CREDENTIALS);
+            }
+        });
+        report("success, JWT + user JSON", () -> {
+            jwtTokenProvider.generateJwtToken(new UserPrincipal(user));
+            return objectMapper.writeValueAsBytes(user);
+        });
+    }
+
+    private static void throwAt(int depth, Callable<RuntimeException> exception) throws Exception {
+        if (depth == 0) {
+            throw exception.call();
+        }
+        throwAt(depth - 1, exception);
+    }
+
+    private static void report(String scenario, Callable<byte[]> task) throws Exception {
+        for (int i = 0; i < ITERATIONS; i++) {
+            task.call();
+        }
+        long bytes = THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+        long start = System.nanoTime();
+        long size = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            size += task.call().length;
+        }
+        double nanos = (double) (System.nanoTime() - start) / ITERATIONS;
+        long allocated = (THREAD_MX_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId()) - bytes) / ITERATIONS;
+        System.out.printf("%-36s %8.0f %10d   (%d)%n", scenario, nanos, allocated, size / ITERATIONS);
+    }
+
+    private static User createUser() {
+        User user = new User();
+        user.setId(1L);
+        user.setUserId("1000000000000000001");
+        user.setFirstName("First");
+        user.setLastName("Last");
+        user.setUsername("user");
+        user.setEmail("user@example.com");
+        user.setJoinDate(new Date());
+        user.setLastLoginDate(new Date());
+        user.setActive(true);
+        user.setNotLocked(true);
+        user.setRole(Role.ROLE_USER.name());
+        user.setAuthorities(Role.ROLE_USER.getAuthorities());
+        return user;
+    }
+}
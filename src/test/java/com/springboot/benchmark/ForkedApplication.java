@@ -0,0 +1,182 @@
+package com.springboot.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.springboot.constant.SecurityConstant.JWT_TOKEN_HEADER;
+import static com.springboot.constant.SecurityConstant.TOKEN_PREFIX;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// ung dung chay trong process rieng (JVM hoac file native) tren DB H2 dang file, dung cho cac benchmark khoi dong
+class ForkedApplication implements AutoCloseable {
+    private static final String MAIN_CLASS = "com.springboot.SpringJwtAngularApplication";
+    private static final String CLASSES_DIRECTORY = "target/classes";
+    private static final long STARTUP_TIMEOUT_MILLIS = 180_000;
+
+    private final Process process;
+    private final long startNanos;
+    private final int port;
+
+    private ForkedApplication(Process process, long startNanos, int port) {
+        this.process = process;
+        this.startNanos = startNanos;
+        this.port = port;
+    }
+
+    // lenh chay ban JVM: target/classes dong goi thanh jar (CDS khong archive class nap tu thu muc),
+    // bo test-classes (entity chi dung cho test) va devtools (tu restart context)
+    static List<String> jvmCommand(Path workDir, List<String> jvmArguments) throws IOException {
+        Path applicationJar = workDir.resolve("app.jar");
+        if (Files.notExists(applicationJar)) {
+            packageClasses(applicationJar);
+        }
+        String testClasspath = System.getProperty("surefire.test.class.path", System.getProperty("java.class.path"));
+        String classpath = applicationJar + File.pathSeparator + Arrays.stream(testClasspath.split(File.pathSeparator))
+                .filter(entry -> !entry.endsWith("classes") && !entry.contains("spring-boot-devtools"))
+                .collect(Collectors.joining(File.pathSeparator));
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArguments);
+        command.addAll(List.of("-cp", classpath, MAIN_CLASS));
+        return command;
+    }
+
+    static ForkedApplication start(Path workDir, String name, List<String> command, String databaseUrl, List<String> arguments) throws IOException {
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        List<String> fullCommand = new ArrayList<>(command);
+        fullCommand.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.datasource.url=" + databaseUrl,
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--management.endpoint.health.probes.enabled=true",
+                "--user.id.node-id=0"));
+        fullCommand.addAll(arguments);
+        long startNanos = System.nanoTime();
+        Process process = new ProcessBuilder(fullCommand).redirectErrorStream(true)
+                .redirectOutput(workDir.resolve(name + ".log").toFile()).start();
+        return new ForkedApplication(process, startNanos, port);
+    }
+
+    long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    void awaitExit() throws InterruptedException {
+        process.waitFor();
+    }
+
+    // doi readiness probe bao UP nhu load balancer
+    void awaitReady() throws InterruptedException {
+        while (true) {
+            assertTrue(process.isAlive(), "application exited");
+            assertTrue(elapsedMillis() < STARTUP_TIMEOUT_MILLIS, "application did not become ready");
+            try {
+                if (request("GET", "/actuator/health/readiness", null, null).status == 200) {
+                    return;
+                }
+            } catch (IOException exception) {
+                // chua mo cong
+            }
+            Thread.sleep(10);
+        }
+    }
+
+    // bo nho thuc te cua process (Linux), bao gom heap, metaspace, code cache va thread stack
+    long residentSetKilobytes() throws IOException {
+        for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(process.pid()), "status"))) {
+            if (line.startsWith("VmRSS:")) {
+                return Long.parseLong(line.replaceAll("\\D", ""));
+            }
+        }
+        return -1;
+    }
+
+    // tra ve JWT, null neu dang nhap that bai
+    String login(String username, String password) throws IOException {
+        Response response = request("POST", "/user/login", "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}", null);
+        return response.status == 200 ? response.token : null;
+    }
+
+    int post(String path, String body) throws IOException {
+        return request("POST", path, body, null).status;
+    }
+
+    int get(String path, String token) throws IOException {
+        return request("GET", path, null, token).status;
+    }
+
+    private Response request(String method, String path, String body, String token) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestMethod(method);
+        if (token != null) {
+            connection.setRequestProperty("Authorization", TOKEN_PREFIX + token);
+        }
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream outputStream = connection.getOutputStream()) {
+                outputStream.write(body.getBytes(UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream inputStream = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (inputStream != null) {
+                inputStream.readAllBytes();
+            }
+        }
+        return new Response(status, connection.getHeaderField(JWT_TOKEN_HEADER));
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        process.waitFor();
+    }
+
+    // can ca entry thu muc, component scan cua Spring dua vao chung de liet ke package
+    private static void packageClasses(Path jar) throws IOException {
+        Path classes = Path.of(CLASSES_DIRECTORY);
+        try (JarOutputStream jarOutputStream = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : (Iterable<Path>) files.filter(file -> !file.equals(classes))::iterator) {
+                String name = classes.relativize(file).toString().replace(File.separatorChar, '/');
+                boolean directory = Files.isDirectory(file);
+                jarOutputStream.putNextEntry(new JarEntry(directory ? name + "/" : name));
+                if (!directory) {
+                    Files.copy(file, jarOutputStream);
+                }
+                jarOutputStream.closeEntry();
+            }
+        }
+    }
+
+    private static class Response {
+        private final int status;
+        private final String token;
+
+        Response(int status, String token) {
+            this.status = status;
+            this.token = token;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.springboot.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// so sanh ban JVM va file native (mvn -Pnative package): thoi gian toi readiness, RSS, throughput on dinh
+// throughput do tren GET /user/find/{username} co JWT (filter JWT + Hibernate + Jackson) sau 1 khoang lam nong
+// chay: mvn test -Dtest=NativeImageBenchmark -Dbenchmark=true [-Dnative.executable=target/spring-jwt-angular]
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class NativeImageBenchmark {
+    private static final String USERNAME = "native";
+    private static final String PASSWORD = "native-password";
+    private static final Path NATIVE_EXECUTABLE = Path.of(System.getProperty("native.executable", "target/spring-jwt-angular"));
+    private static final int CLIENT_THREADS = 4;
+    private static final long WARM_UP_MILLIS = 20_000;
+    private static final long MEASURE_MILLIS = 20_000;
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void compareWithNativeExecutable() throws Exception {
+        String databaseUrl = "jdbc:h2:file:" + workDir.resolve("db").toAbsolutePath();
+        // tao schema va user dung de login, khong tinh vao ket qua
+        try (ForkedApplication app = ForkedApplication.start(workDir, "setup", ForkedApplication.jvmCommand(workDir, List.of()), databaseUrl, List.of())) {
+            app.awaitReady();
+            assertEquals(201, app.post("/user/register", "{\"firstName\":\"Native\",\"lastName\":\"Bench\",\"username\":\"" + USERNAME
+                    + "\",\"email\":\"native@example.com\",\"password\":\"" + PASSWORD + "\"}"));
+        }
+
+        System.out.println("mode      ready ms   RSS ready MB   RSS load MB   req/s");
+        measure("jvm", ForkedApplication.jvmCommand(workDir, List.of()), databaseUrl);
+        if (Files.isExecutable(NATIVE_EXECUTABLE)) {
+            measure("native", List.of(NATIVE_EXECUTABLE.toAbsolutePath().toString()), databaseUrl);
+        } else {
+            System.out.println("native    (not found: " + NATIVE_EXECUTABLE + ", build with mvn -Pnative -DskipTests package on GraalVM)");
+        }
+    }
+
+    private void measure(String mode, List<String> command, String databaseUrl) throws Exception {
+        try (ForkedApplication app = ForkedApplication.start(workDir, mode, command, databaseUrl, List.of())) {
+            app.awaitReady();
+            long readyMillis = app.elapsedMillis();
+            long readyRss = app.residentSetKilobytes();
+            String token = app.login(USERNAME, PASSWORD);
+            assertNotNull(token);
+            load(app, token, WARM_UP_MILLIS);
+            long requests = load(app, token, MEASURE_MILLIS);
+            long loadRss = app.residentSetKilobytes();
+            System.out.printf("%-8s %9d %14d %13d %7.0f%n", mode, readyMillis, readyRss / 1024, loadRss / 1024,
+                    requests * 1000.0 / MEASURE_MILLIS);
+        }
+    }
+
+    private static long load(ForkedApplication app, String token, long durationMillis) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENT_THREADS);
+        long deadline = System.currentTimeMillis() + durationMillis;
+        try {
+            List<Future<Long>> clients = new ArrayList<>();
+            for (int i = 0; i < CLIENT_THREADS; i++) {
+                clients.add(executor.submit(() -> {
+                    long count = 0;
+                    while (System.currentTimeMillis() < deadline) {
+                        assertEquals(200, app.get("/user/find/" + USERNAME, token));
+                        count++;
+                    }
+                    return count;
+                }));
+            }
+            long total = 0;
+            for (Future<Long> client : clients) {
+                total += client.get();
+            }
+            return total;
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
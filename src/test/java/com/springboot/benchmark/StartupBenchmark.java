@@ -0,0 +1,83 @@
+package com.springboot.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// do thoi gian tu luc khoi dong JVM toi request login dau tien va toi khi p99 on dinh
+// moi che do chay trong 1 JVM rieng tren cung DB H2 dang file: mac dinh, profile prod, profile prod + AppCDS
+// chay: mvn test -Dtest=StartupBenchmark -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StartupBenchmark {
+    private static final String USERNAME = "startup";
+    private static final String PASSWORD = "startup-password";
+    private static final int WINDOWS = 30;
+    private static final int REQUESTS_PER_WINDOW = 20;
+    private static final int STEADY_WINDOWS = 5;
+    private static final double STEADY_TOLERANCE = 1.2;
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void compareStartupModes() throws Exception {
+        String databaseUrl = "jdbc:h2:file:" + workDir.resolve("db").toAbsolutePath() + ";MODE=MySQL";
+        List<String> prod = List.of("--spring.profiles.active=prod");
+        // tao schema (Flyway cua profile prod) va user dung de login, khong tinh vao ket qua
+        try (ForkedApplication app = ForkedApplication.start(workDir, "setup", ForkedApplication.jvmCommand(workDir, List.of()), databaseUrl, prod)) {
+            app.awaitReady();
+            assertEquals(201, app.post("/user/register", "{\"firstName\":\"Startup\",\"lastName\":\"Bench\",\"username\":\"" + USERNAME
+                    + "\",\"email\":\"startup@example.com\",\"password\":\"" + PASSWORD + "\"}"));
+        }
+        String archive = workDir.resolve("app.jsa").toString();
+        try (ForkedApplication app = ForkedApplication.start(workDir, "training",
+                ForkedApplication.jvmCommand(workDir, List.of("-XX:ArchiveClassesAtExit=" + archive, "-Xlog:cds=off")),
+                databaseUrl, List.of("--spring.profiles.active=prod", "--startup.training-run=true"))) {
+            app.awaitExit();
+        }
+
+        System.out.println("mode               first login ms   p99 steady ms   time to steady ms");
+        measure("default", databaseUrl, List.of(), List.of());
+        measure("prod", databaseUrl, List.of(), prod);
+        measure("prod + AppCDS", databaseUrl, List.of("-XX:SharedArchiveFile=" + archive, "-Xlog:cds=off"), prod);
+    }
+
+    private void measure(String mode, String databaseUrl, List<String> jvmArguments, List<String> arguments) throws Exception {
+        try (ForkedApplication app = ForkedApplication.start(workDir, mode, ForkedApplication.jvmCommand(workDir, jvmArguments), databaseUrl, arguments)) {
+            app.awaitReady();
+            assertNotNull(app.login(USERNAME, PASSWORD));
+            long firstRequestMillis = app.elapsedMillis();
+            double[] windowP99 = new double[WINDOWS];
+            long[] windowEnd = new long[WINDOWS];
+            for (int window = 0; window < WINDOWS; window++) {
+                long[] latencies = new long[REQUESTS_PER_WINDOW];
+                for (int i = 0; i < REQUESTS_PER_WINDOW; i++) {
+                    long start = System.nanoTime();
+                    assertNotNull(app.login(USERNAME, PASSWORD));
+                    latencies[i] = System.nanoTime() - start;
+                }
+                Arrays.sort(latencies);
+                windowP99[window] = latencies[(int) Math.ceil(REQUESTS_PER_WINDOW * 0.99) - 1] / 1e6;
+                windowEnd[window] = app.elapsedMillis();
+            }
+            double[] lastWindows = Arrays.copyOfRange(windowP99, WINDOWS - STEADY_WINDOWS, WINDOWS);
+            Arrays.sort(lastWindows);
+            double steadyP99 = lastWindows[STEADY_WINDOWS / 2];
+            // on dinh tu cua so ma tu do ve sau moi cua so deu nam trong nguong so voi p99 cuoi
+            // (khong lay cua so dau tien lot nguong: 1 cua so nhanh ngau nhien giua luc JIT chua xong se bao on dinh qua som)
+            int steadyWindow = WINDOWS - 1;
+            while (steadyWindow > 0 && windowP99[steadyWindow - 1] <= steadyP99 * STEADY_TOLERANCE) {
+                steadyWindow--;
+            }
+            long timeToSteady = windowEnd[steadyWindow];
+            System.out.printf("%-18s %14d %15.1f %19d%n", mode, firstRequestMillis, steadyP99, timeToSteady);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.springboot.benchmark;
+
+import com.springboot.entity.BulkUserResult;
+import com.springboot.entity.BulkUserSelection;
+import com.springboot.entity.User;
+import com.springboot.enumeration.BulkUserAction;
+import com.springboot.enumeration.Role;
+import com.springboot.repository.UserRepository;
+import com.springboot.service.UserBulkService;
+import com.springboot.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+// khoa / doi role 50k user: tung user qua updateUser (nhu /user/update) so voi UserBulkService
+// chay: mvn test -Dtest=UserBulkBenchmark -Dbenchmark=true
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulk;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "user.id.node-id=0"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserBulkBenchmark {
+    private static final int USERS = 50_000;
+    private static final int ONE_BY_ONE_SAMPLE = 500;
+    private static final int INSERT_CHUNK_SIZE = 1_000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserBulkService userBulkService;
+
+    @Test
+    void compareOneByOneAndBulk() throws Exception {
+        List<String> usernames = createUsers();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ONE_BY_ONE_SAMPLE; i++) {
+            String username = usernames.get(i);
+            userService.updateUser(username, "First", "Last", username, username + "@example.com", Role.ROLE_USER.name(), false, true, null);
+        }
+        double oneByOneMillis = (System.nanoTime() - start) / 1e6 / ONE_BY_ONE_SAMPLE;
+
+        BulkUserSelection byFilter = new BulkUserSelection();
+        byFilter.setNotLocked(true);
+        BulkUserResult lock = userBulkService.apply(BulkUserAction.LOCK, null, byFilter);
+        BulkUserSelection byUsernames = new BulkUserSelection();
+        byUsernames.setUsernames(usernames);
+        BulkUserResult role = userBulkService.apply(BulkUserAction.ROLE, Role.ROLE_HR.name(), byUsernames);
+        BulkUserResult unlock = userBulkService.apply(BulkUserAction.UNLOCK, null, byUsernames);
+
+        System.out.printf("one by one (/user/update):   %.2f ms/user, ~%.0f s for %d users%n", oneByOneMillis, oneByOneMillis * USERS / 1000, USERS);
+        report("bulk lock (filter)", lock);
+        report("bulk role (usernames)", role);
+        report("bulk unlock (usernames)", unlock);
+    }
+
+    private static void report(String scenario, BulkUserResult result) {
+        System.out.printf("%-28s %6d updated, %6d tokens revoked in %5d ms%n", scenario, result.getUpdated(), result.getTokensRevoked(), result.getElapsedMillis());
+    }
+
+    private List<String> createUsers() {
+        List<String> usernames = new ArrayList<>(USERS);
+        List<User> chunk = new ArrayList<>(INSERT_CHUNK_SIZE);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUserId(String.valueOf(i));
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setUsername("bulk" + i);
+            user.setPassword("password");
+            user.setEmail("bulk" + i + "@example.com");
+            user.setJoinDate(new Date());
+            user.setActive(true);
+            user.setNotLocked(true);
+            user.setRole(Role.ROLE_USER.name());
+            user.setAuthorities(Role.ROLE_USER.getAuthorities());
+            user.setUpdatedAt(new Date());
+            chunk.add(user);
+            usernames.add(user.getUsername());
+            if (chunk.size() == INSERT_CHUNK_SIZE) {
+                userRepository.saveAll(chunk);
+                chunk.clear();
+            }
+        }
+        return usernames;
+    }
+}
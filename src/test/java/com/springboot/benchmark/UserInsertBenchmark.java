@@ -0,0 +1,111 @@
+package com.springboot.benchmark;
+
+import com.springboot.benchmark.legacy.LegacyIdUser;
+import com.springboot.entity.User;
+import com.springboot.enumeration.Role;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.Date;
+import java.util.function.IntFunction;
+
+// so sanh toc do insert giua cach sinh id cu (bang sequence, increment 1) va pooled-lo + JDBC batch
+// chay: mvn test -Dtest=UserInsertBenchmark -Dbenchmark=true
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false"
+})
+@Import(UserInsertBenchmark.LegacyEntityConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserInsertBenchmark {
+    private static final int ROWS = 20_000;
+    private static final int BULK_CHUNK_SIZE = 500;
+
+    // them LegacyIdUser vao cac entity cua ung dung, chi trong context cua benchmark nay
+    // nap bang @Import, khong danh dau @TestConfiguration de component scan ngoai test (SpringApplicationBuilder) khong nhat phai
+    @EntityScan(basePackageClasses = {User.class, LegacyIdUser.class})
+    static class LegacyEntityConfiguration {
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareInsertThroughput() {
+        IntFunction<Object> legacyUser = i -> {
+            LegacyIdUser user = new LegacyIdUser();
+            user.setUserId(String.valueOf(i));
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setUsername("legacy" + i);
+            user.setPassword("password");
+            user.setEmail("legacy" + i + "@example.com");
+            user.setJoinDate(new Date());
+            user.setRole(Role.ROLE_USER.name());
+            return user;
+        };
+        IntFunction<Object> pooledUser = i -> {
+            User user = new User();
+            user.setUserId(String.valueOf(i));
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setUsername("pooled" + i);
+            user.setPassword("password");
+            user.setEmail("pooled" + i + "@example.com");
+            user.setJoinDate(new Date());
+            user.setRole(Role.ROLE_USER.name());
+            user.setAuthorities(Role.ROLE_USER.getAuthorities());
+            return user;
+        };
+        // lam nong JIT va bang sequence truoc khi do
+        insertOnePerTransaction(legacyUser, 0, 2_000);
+        insertOnePerTransaction(pooledUser, 0, 2_000);
+
+        System.out.println("scenario                              rows/s");
+        report("register, AUTO (table, increment 1)", () -> insertOnePerTransaction(legacyUser, 10_000, ROWS));
+        report("register, pooled-lo + batching", () -> insertOnePerTransaction(pooledUser, 10_000, ROWS));
+        report("bulk, AUTO (table, increment 1)", () -> insertInChunks(legacyUser, 100_000, ROWS));
+        report("bulk, pooled-lo + batching", () -> insertInChunks(pooledUser, 100_000, ROWS));
+    }
+
+    private void report(String scenario, Runnable insert) {
+        long start = System.nanoTime();
+        insert.run();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-36s %7.0f%n", scenario, ROWS / seconds);
+    }
+
+    private void insertOnePerTransaction(IntFunction<Object> factory, int offset, int rows) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int i = 0; i < rows; i++) {
+            int index = offset + i;
+            transactionTemplate.executeWithoutResult(status -> entityManager.persist(factory.apply(index)));
+        }
+    }
+
+    private void insertInChunks(IntFunction<Object> factory, int offset, int rows) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        for (int from = 0; from < rows; from += BULK_CHUNK_SIZE) {
+            int chunkStart = from;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = chunkStart; i < Math.min(chunkStart + BULK_CHUNK_SIZE, rows); i++) {
+                    entityManager.persist(factory.apply(offset + i));
+                }
+                entityManager.flush();
+                entityManager.clear();
+            });
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.springboot.benchmark;
+
+import com.springboot.entity.User;
+import com.springboot.entity.UserSearchResult;
+import com.springboot.repository.UserRepository;
+import com.springboot.service.UserSearchService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// do latency tim kiem tren index nhieu user, repository gia tra user tu bo nho nen chi do index + xep hang
+// 1M user: index ~450MB heap, cong them ~1GB cho chinh cac User gia, can -Xmx4g tro len, may nho hon thi giam -Dsearch.users
+// chay: mvn test -Dtest=UserSearchBenchmark -Dbenchmark=true -DargLine=-Xmx4g
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserSearchBenchmark {
+    private static final int USERS = Integer.getInteger("search.users", 1_000_000);
+    private static final int WARM_UP_QUERIES = 2_000;
+    private static final int QUERIES = 2_000;
+    private static final String[] SYLLABLES = { "an", "bo", "ca", "do", "el", "fa", "gi", "ha", "jo", "ka", "li", "ma",
+            "ne", "ol", "pa", "ri", "sa", "th", "um", "va", "wi", "xu", "yo", "ze" };
+
+    @Test
+    void searchLatency() {
+        Random random = new Random(42);
+        User[] users = new User[USERS + 1];
+        for (int i = 1; i <= USERS; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setFirstName(name(random, 2));
+            user.setLastName(name(random, 3));
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            users[i] = user;
+        }
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        UserSearchService searchService = new UserSearchService(repository(users));
+        long start = System.nanoTime();
+        for (int i = 1; i <= USERS; i++) {
+            searchService.index(users[i]);
+        }
+        long indexMillis = (System.nanoTime() - start) / 1_000_000;
+        System.gc();
+        System.out.printf("index %d users: %d ms, index heap %d MB%n", USERS, indexMillis,
+                (runtime.totalMemory() - runtime.freeMemory() - heapBefore) / (1024 * 1024));
+
+        System.out.println("query                          hits   p50 us   p99 us   max us");
+        report(searchService, "exact username", i -> "user" + (1 + i * 7919 % USERS));
+        report(searchService, "first + last name", i -> users[1 + i * 7919 % USERS].getFirstName() + " " + users[1 + i * 7919 % USERS].getLastName());
+        report(searchService, "prefix (4 chars)", i -> users[1 + i * 7919 % USERS].getLastName().substring(0, 4));
+        report(searchService, "typo in last name", i -> typo(users[1 + i * 7919 % USERS].getLastName()));
+        report(searchService, "short prefix (2 chars)", i -> SYLLABLES[i % SYLLABLES.length]);
+    }
+
+    private static void report(UserSearchService searchService, String scenario, QueryFactory queries) {
+        for (int i = 0; i < WARM_UP_QUERIES; i++) {
+            searchService.search(queries.query(i), 0, 20);
+        }
+        long[] nanos = new long[QUERIES];
+        long hits = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            String query = queries.query(WARM_UP_QUERIES + i);
+            long start = System.nanoTime();
+            UserSearchResult result = searchService.search(query, 0, 20);
+            nanos[i] = System.nanoTime() - start;
+            hits += result.getTotal();
+        }
+        Arrays.sort(nanos);
+        assertTrue(hits > 0);
+        System.out.printf("%-28s %7d %8.1f %8.1f %8.1f%n", scenario, hits / QUERIES,
+                nanos[QUERIES / 2] / 1e3, nanos[QUERIES * 99 / 100] / 1e3, nanos[QUERIES - 1] / 1e3);
+    }
+
+    private static String name(Random random, int syllables) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    // doi 1 ky tu o giua
+    private static String typo(String name) {
+        char[] chars = name.toCharArray();
+        int index = chars.length / 2;
+        chars[index] = chars[index] == 'x' ? 'q' : 'x';
+        return new String(chars);
+    }
+
+    private static UserRepository repository(User[] users) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("findAllById")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    List<User> found = new ArrayList<>();
+                    for (Object id : (Iterable<?>) args[0]) {
+                        found.add(users[((Long) id).intValue()]);
+                    }
+                    return found;
+                });
+    }
+
+    private interface QueryFactory {
+        String query(int index);
+    }
+}
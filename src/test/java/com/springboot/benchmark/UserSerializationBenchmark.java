@@ -0,0 +1,104 @@
+package com.springboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.entity.User;
+import com.springboot.enumeration.Role;
+import com.springboot.service.UserJsonCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+// so sanh CPU serialize danh sach user (Jackson moi lan / cache theo user / cache ca danh sach)
+// va so byte tren duong truyen voi cac muc nen gzip
+// chay: mvn test -Dtest=UserSerializationBenchmark -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserSerializationBenchmark {
+    private static final int USERS = 10_000;
+    private static final int ITERATIONS = 50;
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    @Test
+    void compareSerialization() throws Exception {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<User> users = createUsers();
+        UserJsonCache userJsonCache = new UserJsonCache(objectMapper, 6, DataSize.ofKilobytes(2));
+        assertArrayEquals(objectMapper.writeValueAsBytes(users), userJsonCache.toJsonArray(users));
+
+        System.out.println("scenario                        cpu ms/op");
+        report("jackson, every request", () -> objectMapper.writeValueAsBytes(users));
+        report("cached per user", () -> userJsonCache.toJsonArray(users));
+        report("cached list (same version)", () -> userJsonCache.getUserList(1, () -> users).getJson());
+
+        byte[] json = objectMapper.writeValueAsBytes(users);
+        System.out.println();
+        System.out.println("encoding        bytes     cpu ms/op");
+        System.out.printf("identity   %10d%n", json.length);
+        for (int level : new int[]{1, 6, 9}) {
+            byte[] gzip = gzip(json, level);
+            double millis = cpuMillisPerOp(() -> gzip(json, level));
+            System.out.printf("gzip -%d    %10d  %10.2f%n", level, gzip.length, millis);
+        }
+    }
+
+    private void report(String scenario, Callable<byte[]> serializer) throws Exception {
+        System.out.printf("%-30s %10.2f%n", scenario, cpuMillisPerOp(serializer));
+    }
+
+    private double cpuMillisPerOp(Callable<byte[]> task) throws Exception {
+        // lam nong JIT truoc khi do
+        for (int i = 0; i < ITERATIONS; i++) {
+            task.call();
+        }
+        long start = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            task.call();
+        }
+        return (THREAD_MX_BEAN.getCurrentThreadCpuTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    private static byte[] gzip(byte[] json, int level) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(outputStream) {{
+            def.setLevel(level);
+        }}) {
+            gzipOutputStream.write(json);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static List<User> createUsers() {
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setId((long) i);
+            user.setUserId(String.format("%019d", 1_000_000_000L + i));
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setProfileImageUrl("http://localhost:8080/user/image/profile/user" + i);
+            user.setJoinDate(new Date());
+            user.setLastLoginDate(new Date());
+            user.setLastLoginDateDisplay(new Date());
+            user.setUpdatedAt(new Date(i));
+            user.setRole(Role.ROLE_USER.name());
+            user.setAuthorities(Role.ROLE_USER.getAuthorities());
+            user.setActive(true);
+            user.setNotLocked(true);
+            users.add(user);
+        }
+        return users;
+    }
+}
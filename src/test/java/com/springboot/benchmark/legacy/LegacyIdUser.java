@@ -0,0 +1,32 @@
+package com.springboot.benchmark.legacy;
+
+import lombok.Data;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+
+import javax.persistence.*;
+import java.util.Date;
+
+// ban sao cua User voi cach sinh id cu (GenerationType.AUTO tren MySQL: bang sequence, moi id 1 lan doc-ghi)
+// nam o package rieng, chi UserInsertBenchmark dang ky qua @EntityScan
+@Entity
+@Table(name = "legacy_id_user")
+@Data
+public class LegacyIdUser {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "legacy_id_generator")
+    @GenericGenerator(name = "legacy_id_generator", strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator", parameters = {
+            @Parameter(name = "sequence_name", value = "legacy_sequence"),
+            @Parameter(name = "force_table_use", value = "true"),
+            @Parameter(name = "increment_size", value = "1")
+    })
+    private Long id;
+    private String userId;
+    private String firstName;
+    private String lastName;
+    private String username;
+    private String password;
+    private String email;
+    private Date joinDate;
+    private String role;
+}
@@ -0,0 +1,52 @@
+package com.springboot.datasource;
+
+import org.junit.jupiter.api.function.Executable;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// assert so cau SQL cua 1 doan code (goi service, MockMvc...) chay tren thread hien tai
+// so cau tang len (them truy van thua, N+1) thi test fail kem danh sach shape da chay
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static QueryStatistics assertQueryCount(int expected, Executable action) throws Throwable {
+        QueryStatistics statistics = run(action);
+        if (statistics.getStatements() != expected) {
+            fail("Expected " + expected + " statements but was " + statistics.getStatements() + describe(statistics));
+        }
+        return statistics;
+    }
+
+    public static QueryStatistics assertMaxQueryCount(int max, Executable action) throws Throwable {
+        QueryStatistics statistics = run(action);
+        if (statistics.getStatements() > max) {
+            fail("Expected at most " + max + " statements but was " + statistics.getStatements() + describe(statistics));
+        }
+        return statistics;
+    }
+
+    // cung 1 shape chay tu 2 lan tro len
+    public static void assertNoRepeatedQueries(QueryStatistics statistics) {
+        Map<String, Integer> repeated = statistics.getRepeated(2);
+        if (!repeated.isEmpty()) {
+            fail("Repeated statements: " + repeated);
+        }
+    }
+
+    private static QueryStatistics run(Executable action) throws Throwable {
+        try (QueryStatistics statistics = QueryStatistics.start()) {
+            action.execute();
+            return statistics;
+        }
+    }
+
+    private static String describe(QueryStatistics statistics) {
+        StringBuilder description = new StringBuilder();
+        statistics.getShapes().forEach((shape, count) -> description.append(System.lineSeparator()).append(count).append(" x ").append(shape));
+        return description.toString();
+    }
+}
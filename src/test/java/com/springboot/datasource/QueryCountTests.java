@@ -0,0 +1,109 @@
+package com.springboot.datasource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.entity.User;
+import com.springboot.entity.UserPrincipal;
+import com.springboot.enumeration.Role;
+import com.springboot.utility.JWTTokenProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.Map;
+
+import static com.springboot.constant.SecurityConstant.TOKEN_PREFIX;
+import static com.springboot.datasource.QueryCountAssertions.*;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// so cau SQL cua cac endpoint ghi chinh, MockMvc chay request tren thread cua test nen dem duoc
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class QueryCountTests {
+    private static final String PASSWORD = "query-count-password";
+
+    @Autowired
+    private WebApplicationContext context;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private JWTTokenProvider jwtTokenProvider;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+    }
+
+    @Test
+    void registerAndLogin() throws Throwable {
+        // 2 cau kiem tra trung username/email + insert
+        assertNoRepeatedQueries(assertQueryCount(3, () -> register("query-register")));
+        // doc user + cap nhat lan dang nhap cuoi
+        assertQueryCount(2, () -> mockMvc.perform(json(post("/user/login"), Map.of("username", "query-register", "password", PASSWORD)))
+                .andExpect(status().isOk()));
+        assertQueryCount(1, () -> mockMvc.perform(authorized(get("/user/find/query-register"))).andExpect(status().isOk()));
+    }
+
+    @Test
+    void updateLoadsCurrentUserOnce() throws Throwable {
+        register("query-update");
+        // doc user hien tai 1 lan (username/email khong doi) + update
+        QueryStatistics statistics = assertQueryCount(2, () -> mockMvc.perform(authorized(post("/user/update"))
+                .param("currentUsername", "query-update")
+                .param("firstName", "Changed")
+                .param("lastName", "Name")
+                .param("username", "query-update")
+                .param("email", "query-update@example.com")
+                .param("role", Role.ROLE_USER.name())
+                .param("isNonLocked", "true")
+                .param("isActive", "true"))
+                .andExpect(status().isOk()));
+        assertNoRepeatedQueries(statistics);
+    }
+
+    @Test
+    void addWithProfileImageInsertsOnce() throws Throwable {
+        MockMultipartFile image = new MockMultipartFile("profileImage", "avatar.png", MediaType.IMAGE_PNG_VALUE, new byte[]{1, 2, 3});
+        // 2 cau kiem tra trung + 1 insert da kem anh, khong update lai
+        assertQueryCount(3, () -> mockMvc.perform(authorized(multipart("/user/add").file(image))
+                .param("firstName", "Query")
+                .param("lastName", "Add")
+                .param("username", "query-add")
+                .param("email", "query-add@example.com")
+                .param("password", PASSWORD)
+                .param("role", Role.ROLE_USER.name())
+                .param("isNonLocked", "true")
+                .param("isActive", "true"))
+                .andExpect(status().isOk()));
+    }
+
+    private void register(String username) throws Exception {
+        mockMvc.perform(json(post("/user/register"), Map.of("firstName", "Query", "lastName", "Count", "username", username,
+                "email", username + "@example.com", "password", PASSWORD))).andExpect(status().is2xxSuccessful());
+    }
+
+    private MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, Object body) throws Exception {
+        return request.contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsBytes(body));
+    }
+
+    // token admin khong can user that trong DB, filter chi doc quyen trong token
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder request) {
+        User admin = new User();
+        admin.setUsername("query-admin");
+        admin.setRole(Role.ROLE_SUPER_ADMIN.name());
+        admin.setAuthorities(Role.ROLE_SUPER_ADMIN.getAuthorities());
+        return request.header(HttpHeaders.AUTHORIZATION, TOKEN_PREFIX + jwtTokenProvider.generateJwtToken(new UserPrincipal(admin)));
+    }
+}
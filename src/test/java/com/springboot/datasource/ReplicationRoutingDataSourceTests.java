@@ -0,0 +1,99 @@
+package com.springboot.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicationRoutingDataSourceTests {
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    private final DataSource primary = new DriverManagerDataSource(PRIMARY_URL + ";DB_CLOSE_DELAY=-1", "sa", "");
+    private final DataSource replica = new DriverManagerDataSource(REPLICA_URL + ";DB_CLOSE_DELAY=-1", "sa", "");
+
+    @BeforeEach
+    void setUp() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readWriteTransactionGoesToPrimary() throws SQLException {
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(primary, replica, new ReplicaLagGuard(0));
+        assertEquals(PRIMARY_URL, urlOf(routing));
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() throws SQLException {
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(primary, replica, new ReplicaLagGuard(0));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(REPLICA_URL, urlOf(routing));
+    }
+
+    @Test
+    void readOnlyTransactionRightAfterWriteGoesToPrimary() throws SQLException {
+        ReplicaLagGuard replicaLagGuard = new ReplicaLagGuard(60_000);
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(primary, replica, replicaLagGuard);
+        authenticate("writer");
+        replicaLagGuard.markWrite();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(PRIMARY_URL, urlOf(routing));
+    }
+
+    @Test
+    void otherClientsKeepReadingReplicaAfterWrite() throws SQLException {
+        ReplicaLagGuard replicaLagGuard = new ReplicaLagGuard(60_000);
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(primary, replica, replicaLagGuard);
+        authenticate("writer");
+        replicaLagGuard.markWrite();
+        authenticate("reader");
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(REPLICA_URL, urlOf(routing));
+        // doc dung chung (cache, con tro version) luon di primary
+        assertEquals(PRIMARY_URL, ReplicaLagGuard.readFromPrimary(() -> uncheckedUrlOf(routing)));
+        assertEquals(REPLICA_URL, urlOf(routing));
+    }
+
+    @Test
+    void unavailableReplicaFallsBackToPrimary() throws SQLException {
+        DataSource brokenReplica = new DriverManagerDataSource("jdbc:h2:mem:replica;UNKNOWN_SETTING=1", "sa", "");
+        ReplicationRoutingDataSource routing = new ReplicationRoutingDataSource(primary, brokenReplica, new ReplicaLagGuard(0));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertEquals(PRIMARY_URL, urlOf(routing));
+        assertFalse(routing.isReplicaHealthy());
+    }
+
+    private void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(username, null, Collections.emptyList()));
+    }
+
+    private String uncheckedUrlOf(DataSource dataSource) {
+        try {
+            return urlOf(dataSource);
+        } catch (SQLException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private String urlOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.springboot.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.exception.ErrorResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+
+import static com.springboot.constant.ConcurrencyLimitConstant.GROUP_TAG;
+import static com.springboot.constant.ConcurrencyLimitConstant.IN_FLIGHT_METRIC;
+import static org.junit.jupiter.api.Assertions.*;
+
+// request async (StreamingResponseBody) phai giu slot toi khi body ghi xong
+class ConcurrencyLimitFilterTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(meterRegistry, new ErrorResponseCache(new ObjectMapper()),
+            true, 1, 1, 1, 500, 0.2, 0);
+
+    @Test
+    void synchronousRequestReleasesSlotWhenFilterReturns() throws Exception {
+        filter.doFilter(request(), new MockHttpServletResponse(), (request, response) -> { });
+        assertEquals(0, readInFlight());
+    }
+
+    @Test
+    void asyncRequestHoldsSlotUntilComplete() throws Exception {
+        MockHttpServletRequest request = request();
+        filter.doFilter(request, new MockHttpServletResponse(), startAsync());
+        assertEquals(1, readInFlight());
+        // limit = 1: request thu hai bi tu choi trong luc export dang chay
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(request(), rejected, (servletRequest, servletResponse) -> fail("limit exceeded"));
+        assertEquals(503, rejected.getStatus());
+
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(0, readInFlight());
+    }
+
+    @Test
+    void asyncTimeoutReleasesSlotOnce() throws Exception {
+        MockHttpServletRequest request = request();
+        filter.doFilter(request, new MockHttpServletResponse(), startAsync());
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        asyncContext.getListeners().forEach(listener -> {
+            try {
+                listener.onTimeout(null);
+            } catch (Exception exception) {
+                throw new IllegalStateException(exception);
+            }
+        });
+        asyncContext.complete();
+        assertEquals(0, readInFlight());
+    }
+
+    private static FilterChain startAsync() {
+        return (request, response) -> request.startAsync();
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/export");
+        request.setServletPath("/user/export");
+        request.setAsyncSupported(true);
+        return request;
+    }
+
+    private double readInFlight() {
+        return meterRegistry.get(IN_FLIGHT_METRIC).tag(GROUP_TAG, "bulk").gauge().value();
+    }
+}
@@ -0,0 +1,73 @@
+package com.springboot.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.http.HttpHeaders.*;
+
+// HttpURLConnection (TestRestTemplate) khong cho gui header Origin nen dung java.net.http
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class CorsPreflightFilterTests {
+    private static final String ALLOWED_ORIGIN = "http://localhost:4200";
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @Test
+    void preflightIsAnsweredWithCachedHeaders() throws Exception {
+        HttpResponse<String> response = preflight(ALLOWED_ORIGIN, "GET", "authorization, if-none-match");
+        assertEquals(200, response.statusCode());
+        assertEquals(ALLOWED_ORIGIN, response.headers().firstValue(ACCESS_CONTROL_ALLOW_ORIGIN).orElse(null));
+        assertEquals("true", response.headers().firstValue(ACCESS_CONTROL_ALLOW_CREDENTIALS).orElse(null));
+        assertEquals("7200", response.headers().firstValue(ACCESS_CONTROL_MAX_AGE).orElse(null));
+        assertTrue(response.headers().firstValue(ACCESS_CONTROL_ALLOW_HEADERS).orElse("").contains("Authorization"));
+        assertTrue(response.headers().allValues(VARY).contains(ORIGIN));
+        assertTrue(response.body().isEmpty());
+    }
+
+    @Test
+    void invalidPreflightIsRejected() throws Exception {
+        assertEquals(403, preflight(ALLOWED_ORIGIN, "PATCH", null).statusCode());
+        assertEquals(403, preflight(ALLOWED_ORIGIN, "GET", "authorization, x-unknown").statusCode());
+        // origin la di tiep vao CorsFilter cua Spring Security
+        HttpResponse<String> unknownOrigin = preflight("http://evil.example.com", "GET", null);
+        assertEquals(403, unknownOrigin.statusCode());
+        assertTrue(unknownOrigin.headers().firstValue(ACCESS_CONTROL_ALLOW_ORIGIN).isEmpty());
+    }
+
+    @Test
+    void actualRequestGetsHeadersOnce() throws Exception {
+        HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(uri("/actuator/health"))
+                .header(ORIGIN, ALLOWED_ORIGIN).GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        assertEquals(1, response.headers().allValues(ACCESS_CONTROL_ALLOW_ORIGIN).size());
+        assertTrue(response.headers().firstValue(ACCESS_CONTROL_EXPOSE_HEADERS).orElse("").contains("Jwt-Token"));
+        assertEquals(1, response.headers().allValues(VARY).stream().filter(ORIGIN::equals).count());
+    }
+
+    private HttpResponse<String> preflight(String origin, String method, String headers) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri("/user"))
+                .method("OPTIONS", HttpRequest.BodyPublishers.noBody())
+                .header(ORIGIN, origin)
+                .header(ACCESS_CONTROL_REQUEST_METHOD, method);
+        if (headers != null) {
+            request.header(ACCESS_CONTROL_REQUEST_HEADERS, headers);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,106 @@
+package com.springboot.filter;
+
+import com.springboot.annotation.RequirePermission;
+import com.springboot.entity.PermissionAuthenticationToken;
+import com.springboot.entity.User;
+import com.springboot.enumeration.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+
+import java.util.List;
+
+import static com.springboot.enumeration.Permission.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermissionInterceptorTests {
+    private final PermissionInterceptor permissionInterceptor = new PermissionInterceptor();
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void handlerWithoutAnnotationIsAllowed() throws Exception {
+        assertEquals(0, permissionInterceptor.requiredMask(handler(Controller.class, "open")));
+        assertTrue(permissionInterceptor.preHandle(null, null, handler(Controller.class, "open")));
+        // handler khong phai controller method (tai nguyen tinh...)
+        assertTrue(permissionInterceptor.preHandle(null, null, new Object()));
+    }
+
+    @Test
+    void multipleRequiredPermissionsMustAllBePresent() throws Exception {
+        HandlerMethod handler = handler(Controller.class, "createAndDelete");
+        assertEquals(CREATE.getBit() | DELETE.getBit(), permissionInterceptor.requiredMask(handler));
+        authenticate(CREATE.getBit() | READ.getBit());
+        assertThrows(AccessDeniedException.class, () -> permissionInterceptor.preHandle(null, null, handler));
+        authenticate(CREATE.getBit() | DELETE.getBit());
+        assertTrue(permissionInterceptor.preHandle(null, null, handler));
+    }
+
+    @Test
+    void classAnnotationAppliesUnlessMethodOverrides() throws Exception {
+        assertEquals(UPDATE.getBit(), permissionInterceptor.requiredMask(handler(UpdateController.class, "update")));
+        assertEquals(DELETE.getBit(), permissionInterceptor.requiredMask(handler(UpdateController.class, "delete")));
+    }
+
+    @Test
+    void unknownRoleHasNoPermissions() throws Exception {
+        User user = new User();
+        user.setRole("ROLE_REMOVED");
+        assertEquals(0, user.getPermissionMask());
+        authenticate(user.getPermissionMask());
+        assertThrows(AccessDeniedException.class, () -> permissionInterceptor.preHandle(null, null, handler(Controller.class, "read")));
+        assertTrue(permissionInterceptor.preHandle(null, null, handler(Controller.class, "open")));
+
+        // authentication kieu authorities voi role la cung khong co quyen
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("legacy", null,
+                List.of(new SimpleGrantedAuthority("ROLE_REMOVED"))));
+        assertEquals(0, PermissionInterceptor.permissionMask(SecurityContextHolder.getContext().getAuthentication()));
+        assertThrows(AccessDeniedException.class, () -> permissionInterceptor.preHandle(null, null, handler(Controller.class, "read")));
+    }
+
+    @Test
+    void missingAuthenticationIsDenied() throws Exception {
+        assertThrows(AccessDeniedException.class, () -> permissionInterceptor.preHandle(null, null, handler(Controller.class, "read")));
+        authenticate(Role.ROLE_USER.getPermissionMask());
+        assertTrue(permissionInterceptor.preHandle(null, null, handler(Controller.class, "read")));
+    }
+
+    private static void authenticate(int permissionMask) {
+        SecurityContextHolder.getContext().setAuthentication(new PermissionAuthenticationToken("user", permissionMask));
+    }
+
+    private static HandlerMethod handler(Class<?> type, String name) throws Exception {
+        Object bean = type.getDeclaredConstructor().newInstance();
+        return new HandlerMethod(bean, type.getMethod(name));
+    }
+
+    public static class Controller {
+        public void open() {
+        }
+
+        @RequirePermission(READ)
+        public void read() {
+        }
+
+        @RequirePermission({CREATE, DELETE})
+        public void createAndDelete() {
+        }
+    }
+
+    @RequirePermission(UPDATE)
+    public static class UpdateController {
+        public void update() {
+        }
+
+        @RequirePermission(DELETE)
+        public void delete() {
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.springboot.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.entity.InvalidationMessage;
+import com.springboot.repository.CacheInvalidationRepository;
+import com.springboot.repository.TokenRevocationRepository;
+import com.springboot.service.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// nhieu node trong cung 1 JVM: moi node co bus, transport va TokenRevocationService rieng, dung chung DB H2
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class CacheInvalidationBusTests {
+    private static final long TIMEOUT_MILLIS = 5_000;
+
+    @Autowired
+    private CacheInvalidationRepository cacheInvalidationRepository;
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    @AfterEach
+    void stopNodes() throws IOException {
+        for (Node node : nodes) {
+            node.close();
+        }
+    }
+
+    @Test
+    void databaseTransportPropagatesTokenRevocations() throws Exception {
+        Node first = databaseNode("db-a");
+        Node second = databaseNode("db-b");
+        Node third = databaseNode("db-c");
+        Date issuedAt = new Date(System.currentTimeMillis() - 1_000);
+
+        first.tokenRevocationService.revokeTokens("invalidation-user");
+
+        assertTrue(first.tokenRevocationService.isRevoked("invalidation-user", issuedAt));
+        waitFor(() -> second.tokenRevocationService.isRevoked("invalidation-user", issuedAt)
+                && third.tokenRevocationService.isRevoked("invalidation-user", issuedAt));
+    }
+
+    @Test
+    void changesInOneBatchAreCoalesced() throws Exception {
+        Node sender = databaseNode("db-sender");
+        Node receiver = databaseNode("db-receiver");
+
+        for (int i = 0; i < 100; i++) {
+            sender.bus.invalidateUser(1L);
+            sender.bus.invalidateTokens(List.of("coalesced-user"));
+        }
+        sender.bus.invalidateUser(2L);
+
+        waitFor(() -> !receiver.receivedFrom(sender).isEmpty());
+        Thread.sleep(500);
+        List<InvalidationMessage> messages = receiver.receivedFrom(sender);
+        assertEquals(1, messages.size());
+        assertEquals(Set.of(1L, 2L), messages.get(0).getUserIds());
+        assertEquals(Set.of("coalesced-user"), messages.get(0).getUsernames());
+        assertFalse(messages.get(0).isFlushAll());
+    }
+
+    @Test
+    void lostMulticastMessageTriggersFullFlush() throws Exception {
+        int port = ThreadLocalRandom.current().nextInt(40_000, 50_000);
+        String interfaceName = NetworkInterface.getByInetAddress(InetAddress.getLoopbackAddress()).getName();
+        DroppingTransport droppingTransport = new DroppingTransport(new MulticastInvalidationTransport("239.255.42.99", port, interfaceName, 0));
+        Node sender = node("mc-sender", droppingTransport, 200);
+        Node receiver = node("mc-receiver", new MulticastInvalidationTransport("239.255.42.99", port, interfaceName, 0), 200);
+
+        sender.bus.invalidateUser(1L);
+        waitFor(() -> receiver.receivedFrom(sender).size() == 1);
+        // message cuoi bi mat, heartbeat tiep theo mang sequence moi nen ben nhan van phat hien
+        droppingTransport.dropNext.set(true);
+        sender.bus.invalidateUser(2L);
+        waitFor(() -> receiver.receivedFrom(sender).size() == 2);
+        sender.bus.invalidateUser(3L);
+        waitFor(() -> receiver.receivedFrom(sender).size() == 3);
+
+        List<InvalidationMessage> messages = receiver.receivedFrom(sender);
+        assertEquals(Set.of(1L), messages.get(0).getUserIds());
+        assertTrue(messages.get(1).isFlushAll());
+        assertEquals(Set.of(3L), messages.get(2).getUserIds());
+        assertFalse(messages.get(2).isFlushAll());
+    }
+
+    private Node databaseNode(String name) throws IOException {
+        return node(name, new DatabaseInvalidationTransport(cacheInvalidationRepository, 50, 600_000), 0);
+    }
+
+    private Node node(String name, InvalidationTransport transport, long heartbeatMillis) throws IOException {
+        Node node = new Node(name, transport, heartbeatMillis);
+        nodes.add(node);
+        return node;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "timed out");
+            Thread.sleep(20);
+        }
+    }
+
+    private class Node {
+        private final InvalidationTransport transport;
+        private final CacheInvalidationBus bus;
+        private final TokenRevocationService tokenRevocationService;
+        private final List<InvalidationMessage> received = new CopyOnWriteArrayList<>();
+
+        Node(String name, InvalidationTransport transport, long heartbeatMillis) throws IOException {
+            this.transport = transport;
+            this.bus = new CacheInvalidationBus(name, transport, objectMapper, new SimpleMeterRegistry(), 20, heartbeatMillis, 1000);
+            this.tokenRevocationService = new TokenRevocationService(tokenRevocationRepository, bus);
+            bus.start(message -> {
+                received.add(message);
+                tokenRevocationService.onCacheInvalidation(message);
+            });
+        }
+
+        // bo message cua node khac (vi du bus cua chinh ung dung) cung ghi vao bang
+        List<InvalidationMessage> receivedFrom(Node sender) {
+            return received.stream().filter(message -> sender.bus.getNode().equals(message.getNode())).collect(Collectors.toList());
+        }
+
+        void close() throws IOException {
+            bus.close();
+            transport.close();
+        }
+    }
+
+    private static class DroppingTransport implements InvalidationTransport {
+        private final InvalidationTransport delegate;
+        private final AtomicBoolean dropNext = new AtomicBoolean();
+
+        DroppingTransport(InvalidationTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void start(Consumer<byte[]> receiver) throws IOException {
+            delegate.start(receiver);
+        }
+
+        @Override
+        public void publish(byte[] message) throws IOException {
+            if (!dropNext.compareAndSet(true, false)) {
+                delegate.publish(message);
+            }
+        }
+
+        @Override
+        public int maxMessageBytes() {
+            return delegate.maxMessageBytes();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.springboot.logging;
+
+import org.junit.jupiter.api.Test;
+
+import static com.springboot.constant.LoggingConstant.SAMPLING_WINDOW_NANOS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SamplingTurboFilterTests {
+    private static final String KEY = "com.springboot.Test INFO";
+
+    @Test
+    void keepsRateThenSamples() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRatePerSecond(3);
+        filter.setSampleRate(10);
+        filter.roll(KEY, 0);
+        int accepted = 0;
+        for (int i = 0; i < 25; i++) {
+            if (filter.tryAcquire(KEY)) {
+                accepted++;
+            }
+        }
+        // 3 dong dau + dong thu 13 va 23
+        assertEquals(5, accepted);
+    }
+
+    @Test
+    void newWindowReportsSuppressedAndResetsQuota() {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRatePerSecond(2);
+        filter.setSampleRate(1000);
+        filter.roll(KEY, 0);
+        for (int i = 0; i < 10; i++) {
+            filter.tryAcquire(KEY);
+        }
+        assertEquals(0, filter.roll(KEY, SAMPLING_WINDOW_NANOS - 1));
+        assertEquals(8, filter.roll(KEY, SAMPLING_WINDOW_NANOS));
+        assertEquals(true, filter.tryAcquire(KEY));
+    }
+}
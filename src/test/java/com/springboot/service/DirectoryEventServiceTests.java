@@ -0,0 +1,170 @@
+package com.springboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.springboot.entity.User;
+import com.springboot.enumeration.DirectoryEventType;
+import com.springboot.event.EventStream;
+import com.springboot.invalidation.CacheInvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.springboot.constant.DirectoryEventConstant.SLOW_CONSUMERS_METRIC;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+// subscriber tren EventStream gia: dieu khien duoc khi nao socket "ghi duoc"
+class DirectoryEventServiceTests {
+    private static final long COALESCE_MILLIS = 50;
+    private static final long SLOW_CONSUMER_TIMEOUT_MILLIS = 200;
+    private static final long AWAIT_MILLIS = 5_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final DirectoryVersionService directoryVersionService = new DirectoryVersionService(null, new CacheInvalidationBus(), 0);
+    private DirectoryEventService service;
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void eventsForSameUserAreCoalesced() throws Exception {
+        service = service(16);
+        FakeStream stream = subscribe();
+        await(() -> stream.text().contains("event:READY"));
+        for (int i = 1; i <= 5; i++) {
+            service.publish(DirectoryEventType.UPDATED, user("1", i));
+        }
+        service.publish(DirectoryEventType.UPDATED, user("2", 10));
+        await(() -> stream.text().contains("\"userId\":\"2\""));
+        String text = stream.text();
+        // user 1 chi con ban cuoi (version 5), user 2 van duoc gui
+        assertEquals(2, count(text, "event:UPDATED"), text);
+        assertTrue(text.contains("id:5\n"), text);
+        assertFalse(text.contains("password"), text);
+    }
+
+    @Test
+    void bufferOverflowDisconnectsSubscriber() throws Exception {
+        service = service(2);
+        FakeStream stream = subscribe();
+        await(() -> stream.text().contains("event:READY"));
+        stream.ready = false;
+        for (int i = 1; i <= 3; i++) {
+            service.publish(DirectoryEventType.UPDATED, user(String.valueOf(i), i));
+        }
+        await(() -> stream.closed);
+        assertEquals(0, service.getSubscriberCount());
+        assertEquals(1, meterRegistry.counter(SLOW_CONSUMERS_METRIC).count());
+    }
+
+    @Test
+    void slowConsumerDoesNotDelayOthersAndIsDisconnected() throws Exception {
+        service = service(16);
+        FakeStream slow = subscribe();
+        FakeStream fast = subscribe();
+        await(() -> slow.text().contains("event:READY") && fast.text().contains("event:READY"));
+        slow.ready = false;
+        long start = System.nanoTime();
+        service.publish(DirectoryEventType.UPDATED, user("1", 1));
+        await(() -> fast.text().contains("event:UPDATED"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < SLOW_CONSUMER_TIMEOUT_MILLIS);
+        // khong doi toi heartbeat tiep theo moi ngat
+        await(() -> slow.closed);
+        assertFalse(fast.closed);
+        assertEquals(1, service.getSubscriberCount());
+    }
+
+    @Test
+    void blockedSubscriberResumesWhenWritable() throws Exception {
+        service = service(16);
+        FakeStream stream = subscribe();
+        await(() -> stream.text().contains("event:READY"));
+        stream.ready = false;
+        service.publish(DirectoryEventType.UPDATED, user("1", 1));
+        Thread.sleep(COALESCE_MILLIS * 2);
+        assertFalse(stream.text().contains("event:UPDATED"));
+        stream.becomeWritable();
+        await(() -> stream.text().contains("event:UPDATED"));
+        assertFalse(stream.closed);
+    }
+
+    private DirectoryEventService service(int bufferSize) {
+        return new DirectoryEventService(new ObjectMapper(), directoryVersionService,
+                new TokenRevocationService(null, new CacheInvalidationBus()), meterRegistry,
+                bufferSize, COALESCE_MILLIS, 60_000, SLOW_CONSUMER_TIMEOUT_MILLIS, 2);
+    }
+
+    private FakeStream subscribe() {
+        FakeStream stream = new FakeStream();
+        service.subscribe("subscriber", new Date(), stream);
+        return stream;
+    }
+
+    private static User user(String userId, long version) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setUsername("user" + userId);
+        user.setPassword("$2a$10$secret-hash");
+        user.setUpdatedAt(new Date(version));
+        return user;
+    }
+
+    private static int count(String text, String marker) {
+        int count = 0;
+        for (int index = text.indexOf(marker); index >= 0; index = text.indexOf(marker, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met");
+            Thread.sleep(5);
+        }
+    }
+
+    private static class FakeStream implements EventStream {
+        private final StringBuffer written = new StringBuffer();
+        private volatile boolean ready = true;
+        private volatile boolean closed;
+        private Runnable onWritable;
+
+        @Override
+        public void start(Runnable onWritable, Runnable onClosed) {
+            this.onWritable = onWritable;
+        }
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void write(byte[] bytes) {
+            assertTrue(ready, "write while not ready");
+            written.append(new String(bytes, UTF_8));
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        void becomeWritable() {
+            ready = true;
+            onWritable.run();
+        }
+
+        String text() {
+            return written.toString();
+        }
+    }
+}
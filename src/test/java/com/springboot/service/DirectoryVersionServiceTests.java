@@ -0,0 +1,79 @@
+package com.springboot.service;
+
+import com.springboot.entity.User;
+import com.springboot.invalidation.CacheInvalidationBus;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryVersionServiceTests {
+
+    @Test
+    void versionsIncreaseMonotonically() {
+        DirectoryVersionService service = new DirectoryVersionService(null, new CacheInvalidationBus(), 0);
+        long previous = service.currentVersion();
+        for (int i = 0; i < 10_000; i++) {
+            User user = new User();
+            service.stamp(user);
+            assertTrue(user.getUpdatedAt().getTime() > previous);
+            previous = user.getUpdatedAt().getTime();
+            assertEquals(previous, service.currentVersion());
+        }
+    }
+
+    @Test
+    void currentVersionStaysBelowUnfinishedTransaction() {
+        DirectoryVersionService service = new DirectoryVersionService(null, new CacheInvalidationBus(), 0);
+        long slow = service.begin(1);
+        long fast = service.begin(5);
+        service.finish(fast, true);
+        // thay doi cua fast da commit nhung slow chua, client khong duoc nhay qua slow
+        assertEquals(slow - 1, service.currentVersion());
+        service.finish(slow, true);
+        assertEquals(fast + 4, service.currentVersion());
+    }
+
+    @Test
+    void onlyCommittedChangesArePublished() {
+        List<Long> published = new ArrayList<>();
+        CacheInvalidationBus bus = new CacheInvalidationBus() {
+            @Override
+            public void directoryChanged(long version) {
+                published.add(version);
+            }
+        };
+        DirectoryVersionService service = new DirectoryVersionService(null, bus, 0);
+        User rolledBack = new User();
+        completeTransaction(() -> service.stamp(rolledBack), TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertTrue(published.isEmpty());
+        assertEquals(rolledBack.getUpdatedAt().getTime(), service.currentVersion());
+        User committed = new User();
+        completeTransaction(() -> service.stamp(committed), TransactionSynchronization.STATUS_COMMITTED);
+        assertEquals(List.of(committed.getUpdatedAt().getTime()), published);
+    }
+
+    @Test
+    void purgedThroughOnlyMovesForward() {
+        DirectoryVersionService service = new DirectoryVersionService(null, new CacheInvalidationBus(), 1000);
+        long initial = service.getPurgedThrough();
+        service.markPurged(initial - 1);
+        assertEquals(initial, service.getPurgedThrough());
+        service.markPurged(initial + 1);
+        assertEquals(initial + 1, service.getPurgedThrough());
+    }
+
+    private static void completeTransaction(Runnable work, int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(status));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
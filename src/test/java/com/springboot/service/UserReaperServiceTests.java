@@ -0,0 +1,101 @@
+package com.springboot.service;
+
+import com.springboot.entity.User;
+import com.springboot.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.springboot.constant.UserReaperConstant.REAPER_RUN_METRIC;
+import static org.junit.jupiter.api.Assertions.*;
+
+// reaper bi gioi han toc do (10 user/giay, batch 10 = ~1 giay moi lan chay) chay cung luc voi 1 job @Scheduled khac
+// DB rieng vi cau hinh reaper khac cac test dung profile test
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reaper;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "user.reaper.interval-ms=100",
+        "user.reaper.retention-ms=0",
+        "user.reaper.batch-size=10",
+        "user.reaper.max-users-per-second=10"
+})
+@ActiveProfiles("test")
+@Import(UserReaperServiceTests.TickerConfiguration.class)
+class UserReaperServiceTests {
+    private static final int USERS = 20;
+    private static final long TICK_MILLIS = 50;
+    private static final long MAX_TICK_GAP_MILLIS = 400;
+    private static final long AWAIT_MILLIS = 15_000;
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private Ticker ticker;
+
+    static class TickerConfiguration {
+        @Bean
+        Ticker ticker() {
+            return new Ticker();
+        }
+    }
+
+    static class Ticker {
+        private final List<Long> ticks = new CopyOnWriteArrayList<>();
+
+        @Scheduled(fixedRate = TICK_MILLIS)
+        public void tick() {
+            ticks.add(System.nanoTime());
+        }
+    }
+
+    @Test
+    void otherScheduledJobsKeepRunningWhileReaping() throws Exception {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setUserId("reaper-" + i);
+            user.setUsername("reaper-" + i);
+            user.setEmail("reaper-" + i + "@example.com");
+            user.setDeletedAt(new Date(System.currentTimeMillis() - 1_000));
+            users.add(user);
+        }
+        long start = System.nanoTime();
+        userRepository.saveAll(users);
+        long deadline = System.currentTimeMillis() + AWAIT_MILLIS;
+        while (userRepository.countSoftDeleted() > 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "soft-deleted users were not purged");
+            Thread.sleep(20);
+        }
+        long end = System.nanoTime();
+
+        // 1 thread scheduler: job khac dung yen trong ca lan chay cua reaper (~1 giay)
+        long previous = start;
+        long maxGap = 0;
+        for (long tick : ticker.ticks) {
+            if (tick > start && tick < end) {
+                maxGap = Math.max(maxGap, tick - previous);
+                previous = tick;
+            }
+        }
+        maxGap = Math.max(maxGap, end - previous);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(maxGap) < MAX_TICK_GAP_MILLIS, "scheduler stalled for " + TimeUnit.NANOSECONDS.toMillis(maxGap) + " ms");
+
+        // 2 batch duoc chia cho it nhat 2 lan chay, khong lan nao xoa het backlog mot luc
+        Timer runTimer = meterRegistry.get(REAPER_RUN_METRIC).timer();
+        assertTrue(runTimer.count() >= 2);
+        assertTrue(runTimer.max(TimeUnit.MILLISECONDS) < 1_500, "run took " + runTimer.max(TimeUnit.MILLISECONDS) + " ms");
+    }
+}
@@ -0,0 +1,134 @@
+package com.springboot.service;
+
+import com.springboot.entity.User;
+import com.springboot.entity.UserSearchResult;
+import com.springboot.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.springboot.constant.UserSearchConstant.INDEX_LOAD_PAGE_SIZE;
+import static com.springboot.constant.UserSearchConstant.MIN_DEAD_POSTINGS_TO_COMPACT;
+import static org.junit.jupiter.api.Assertions.*;
+
+// context dung chung voi cac test profile test, moi test dung ten rieng vi index dung chung
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class UserSearchServiceTests {
+    @Autowired
+    private UserSearchService userSearchService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void rebuildLoadsEveryKeysetPage() {
+        int count = INDEX_LOAD_PAGE_SIZE * 2 + 50;
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            users.add(user("Paged", "Keyset" + i, "keyset-user-" + i));
+        }
+        userRepository.saveAll(users);
+        userSearchService.buildIndex();
+        assertEquals(count, userSearchService.search("keyset", 0, 10).getTotal());
+        // user cuoi cung (trang keyset cuoi) khop chinh xac nen dung dau
+        assertEquals("keyset-user-" + (count - 1), usernames(userSearchService.search("keyset" + (count - 1), 0, 10)).get(0));
+    }
+
+    @Test
+    void prefixAndTypoMatchesAreRanked() {
+        index(user("Jonathan", "Searchwell", "search-jonathan"));
+        index(user("Jonas", "Searchwell", "search-jonas"));
+        index(user("Maria", "Searchwell", "search-maria"));
+        assertEquals(List.of("search-jonas", "search-jonathan"), usernames(userSearchService.search("searchwell jona", 0, 10)));
+        // sai chinh ta van tim ra qua trigram, xep tren ket qua gan dung hon
+        assertEquals("search-jonathan", usernames(userSearchService.search("searchwell jonathn", 0, 10)).get(0));
+        assertEquals(List.of("search-maria"), usernames(userSearchService.search("SEARCHWELL Maria", 0, 10)));
+    }
+
+    @Test
+    void resultsArePaginated() {
+        for (int i = 0; i < 5; i++) {
+            index(user("Pager", "Paginated", "paginated-" + i));
+        }
+        UserSearchResult first = userSearchService.search("paginated", 0, 2);
+        UserSearchResult last = userSearchService.search("paginated", 2, 2);
+        assertEquals(5, first.getTotal());
+        assertEquals(List.of("paginated-0", "paginated-1"), usernames(first));
+        assertEquals(List.of("paginated-4"), usernames(last));
+        // page * size vuot Integer.MAX_VALUE: trang rong, khong tran so
+        UserSearchResult beyond = userSearchService.search("paginated", 100_000_000, 100);
+        assertEquals(5, beyond.getTotal());
+        assertTrue(beyond.getUsers().isEmpty());
+    }
+
+    @Test
+    void updatedUserIsFoundOnlyByNewTerms() {
+        User user = index(user("Renamed", "Kowalczyk", "renamed-user"));
+        user.setLastName("Zimmermann");
+        index(user);
+        assertEquals(0, userSearchService.search("kowalczyk", 0, 10).getTotal());
+        assertEquals(List.of("renamed-user"), usernames(userSearchService.search("zimmermann", 0, 10)));
+    }
+
+    // sua lai nhieu lan cho so posting chet vuot so posting song de chay buoc don posting
+    @Test
+    void reindexedUsersSurviveCompaction() {
+        int count = MIN_DEAD_POSTINGS_TO_COMPACT / 2;
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = user("Compacted", "Oyelaran", "compacted-user-" + i);
+            user.setId(-1_000_000L - i);
+            users.add(user);
+        }
+        users.forEach(userSearchService::index);
+        for (String lastName : List.of("Tshabalala", "Huamanchumo")) {
+            users.forEach(user -> user.setLastName(lastName));
+            users.forEach(userSearchService::index);
+        }
+        assertEquals(0, userSearchService.search("oyelaran", 0, 10).getTotal());
+        assertEquals(0, userSearchService.search("tshabalala", 0, 10).getTotal());
+        assertEquals(count, userSearchService.search("huamanchumo", 0, 10).getTotal());
+        users.forEach(user -> userSearchService.remove(user.getId()));
+        assertEquals(0, userSearchService.search("huamanchumo", 0, 10).getTotal());
+    }
+
+    @Test
+    void removedUserIsNoLongerFound() {
+        User user = index(user("Removed", "Searchgone", "search-removed"));
+        assertEquals(1, userSearchService.search("searchgone", 0, 10).getTotal());
+        userSearchService.removeAfterCommit(user.getId());
+        assertEquals(0, userSearchService.search("searchgone", 0, 10).getTotal());
+    }
+
+    private User index(User user) {
+        User saved = userRepository.save(user);
+        userSearchService.indexAfterCommit(saved);
+        return saved;
+    }
+
+    private static User user(String firstName, String lastName, String username) {
+        User user = new User();
+        user.setUserId(username);
+        user.setFirstName(firstName);
+        user.setLastName(lastName);
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPassword("not-a-real-hash");
+        user.setRole("ROLE_USER");
+        user.setActive(true);
+        user.setNotLocked(true);
+        user.setJoinDate(new Date());
+        user.setUpdatedAt(new Date());
+        return user;
+    }
+
+    private static List<String> usernames(UserSearchResult result) {
+        return result.getUsers().stream().map(User::getUsername).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,124 @@
+package com.springboot.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static com.springboot.constant.FileConstant.TEMP_FILE_PREFIX;
+import static com.springboot.constant.FileConstant.TEMP_FILE_SUFFIX;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingBlobStorageTests {
+    private static final String KEY = "ab/cd/abcdef.jpg";
+    private static final int BLOB_SIZE = 256 * 1024;
+    private static final int READERS = 8;
+
+    @TempDir
+    Path root;
+
+    @Test
+    void blobIsCachedAfterFirstRead() throws Exception {
+        LocalBlobStorage remote = remote(KEY);
+        CachingBlobStorage storage = new CachingBlobStorage(remote, root.resolve("cache"), Long.MAX_VALUE);
+        assertEquals(BLOB_SIZE, read(storage, KEY).length);
+        assertEquals(BLOB_SIZE, storage.getCachedBytes());
+        // doc lan sau lay tu cache, khong can storage goc
+        remote.delete(KEY);
+        assertEquals(BLOB_SIZE, read(storage, KEY).length);
+    }
+
+    @Test
+    void concurrentMissesCountBlobOnce() throws Exception {
+        LocalBlobStorage remote = remote(KEY);
+        ExecutorService executor = Executors.newFixedThreadPool(READERS);
+        try {
+            for (int round = 0; round < 20; round++) {
+                Path cacheRoot = root.resolve("cache-" + round);
+                CachingBlobStorage storage = new CachingBlobStorage(remote, cacheRoot, Long.MAX_VALUE);
+                CyclicBarrier barrier = new CyclicBarrier(READERS);
+                List<Future<byte[]>> reads = new ArrayList<>();
+                for (int i = 0; i < READERS; i++) {
+                    reads.add(executor.submit(() -> {
+                        barrier.await();
+                        return read(storage, KEY);
+                    }));
+                }
+                for (Future<byte[]> read : reads) {
+                    assertArrayEquals(content(), read.get());
+                }
+                assertEquals(BLOB_SIZE, storage.getCachedBytes());
+                assertEquals(List.of(cacheRoot.resolve(KEY)), files(cacheRoot));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void leftoverTempFilesAreRemovedOnStartup() throws Exception {
+        Path cacheRoot = root.resolve("cache");
+        Path directory = Files.createDirectories(cacheRoot.resolve("ab/cd"));
+        Files.write(directory.resolve(TEMP_FILE_PREFIX + "123" + TEMP_FILE_SUFFIX), new byte[1024]);
+        Files.write(directory.resolve("abcdef.jpg"), content());
+        CachingBlobStorage storage = new CachingBlobStorage(remote(), cacheRoot, Long.MAX_VALUE);
+        assertEquals(BLOB_SIZE, storage.getCachedBytes());
+        assertEquals(List.of(cacheRoot.resolve(KEY)), files(cacheRoot));
+    }
+
+    @Test
+    void leastRecentlyUsedBlobsAreEvicted() throws Exception {
+        String[] keys = { "aa/aa/1.jpg", "bb/bb/2.jpg", "cc/cc/3.jpg" };
+        CachingBlobStorage storage = new CachingBlobStorage(remote(keys), root.resolve("cache"), BLOB_SIZE * 2L);
+        read(storage, keys[0]);
+        Files.setLastModifiedTime(root.resolve("cache").resolve(keys[0]), FileTime.fromMillis(0));
+        read(storage, keys[1]);
+        read(storage, keys[2]);
+        // vuot 2 blob: xoa toi khi con duoi 90% dung luong, blob cu nhat di truoc
+        assertEquals(BLOB_SIZE, storage.getCachedBytes());
+        assertFalse(Files.exists(root.resolve("cache").resolve(keys[0])));
+        assertEquals(1, files(root.resolve("cache")).size());
+    }
+
+    private LocalBlobStorage remote(String... keys) throws IOException {
+        LocalBlobStorage remote = new LocalBlobStorage(root.resolve("remote"));
+        Path source = Files.write(Files.createDirectories(root.resolve("source")).resolve("blob"), content());
+        for (String key : keys) {
+            remote.put(key, source);
+        }
+        return remote;
+    }
+
+    private static byte[] read(BlobStorage storage, String key) throws IOException {
+        try (InputStream inputStream = storage.get(key)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static byte[] content() {
+        byte[] content = new byte[BLOB_SIZE];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        return content;
+    }
+
+    private static List<Path> files(Path directory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.filter(Files::isRegularFile).forEach(files::add);
+        }
+        return files;
+    }
+}
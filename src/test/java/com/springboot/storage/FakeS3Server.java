@@ -0,0 +1,265 @@
+package com.springboot.storage;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// S3 gia trong JVM (path-style: /<bucket>/<key>) du cho S3BlobStorage: put/head/get/delete, multipart, list v2
+// khong kiem tra chu ky; body aws-chunked (SDK ky tung chunk khi endpoint la http) duoc giai ma truoc khi luu
+class FakeS3Server implements AutoCloseable {
+    private static final String STREAMING_PAYLOAD = "STREAMING-";
+    private static final String XML = "application/xml";
+
+    private final HttpServer server;
+    private final String bucket;
+    private final Map<String, StoredObject> objects = new ConcurrentSkipListMap<>();
+    private final Map<String, SortedMap<Integer, byte[]>> uploads = new ConcurrentHashMap<>();
+    private final AtomicInteger uploadIds = new AtomicInteger();
+    // so part cua cac lan upload multipart da hoan tat, theo thu tu
+    private final List<Integer> completedUploadParts = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger putObjectRequests = new AtomicInteger();
+
+    FakeS3Server(String bucket) throws IOException {
+        this.bucket = bucket;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    URI endpoint() {
+        return URI.create("http://localhost:" + server.getAddress().getPort());
+    }
+
+    List<Integer> getCompletedUploadParts() {
+        return completedUploadParts;
+    }
+
+    int getPutObjectRequests() {
+        return putObjectRequests.get();
+    }
+
+    boolean hasPendingUploads() {
+        return !uploads.isEmpty();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String prefix = "/" + bucket;
+            if (!path.startsWith(prefix)) {
+                error(exchange, 404, "NoSuchBucket");
+                return;
+            }
+            String key = path.length() > prefix.length() + 1 ? path.substring(prefix.length() + 1) : "";
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            // luon doc het body: HttpServer dong ket noi neu body chua doc xong, SDK se gap loi o request sau roi retry
+            byte[] body = readBody(exchange);
+            switch (exchange.getRequestMethod()) {
+                case "PUT":
+                    if (query.containsKey("uploadId")) {
+                        uploadPart(exchange, query, body);
+                    } else {
+                        putObject(exchange, key, body);
+                    }
+                    break;
+                case "POST":
+                    if (query.containsKey("uploads")) {
+                        createUpload(exchange, key);
+                    } else {
+                        completeUpload(exchange, key, query.get("uploadId"));
+                    }
+                    break;
+                case "HEAD":
+                    StoredObject head = objects.get(key);
+                    if (head != null) {
+                        exchange.getResponseHeaders().set("ETag", head.eTag);
+                    }
+                    exchange.sendResponseHeaders(head == null ? 404 : 200, -1);
+                    break;
+                case "GET":
+                    if (key.isEmpty()) {
+                        list(exchange);
+                    } else {
+                        getObject(exchange, key);
+                    }
+                    break;
+                case "DELETE":
+                    if (query.containsKey("uploadId")) {
+                        uploads.remove(query.get("uploadId"));
+                    } else {
+                        objects.remove(key);
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                    break;
+                default:
+                    error(exchange, 405, "MethodNotAllowed");
+            }
+        }
+    }
+
+    private void putObject(HttpExchange exchange, String key, byte[] body) throws IOException {
+        putObjectRequests.incrementAndGet();
+        StoredObject object = new StoredObject(body);
+        objects.put(key, object);
+        exchange.getResponseHeaders().set("ETag", object.eTag);
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    private void getObject(HttpExchange exchange, String key) throws IOException {
+        StoredObject object = objects.get(key);
+        if (object == null) {
+            error(exchange, 404, "NoSuchKey");
+            return;
+        }
+        exchange.getResponseHeaders().set("ETag", object.eTag);
+        exchange.getResponseHeaders().set("Content-Type", "image/jpeg");
+        exchange.sendResponseHeaders(200, object.content.length);
+        exchange.getResponseBody().write(object.content);
+    }
+
+    private void createUpload(HttpExchange exchange, String key) throws IOException {
+        String uploadId = "upload-" + uploadIds.incrementAndGet();
+        uploads.put(uploadId, new ConcurrentSkipListMap<>());
+        xml(exchange, "<InitiateMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key + "</Key><UploadId>"
+                + uploadId + "</UploadId></InitiateMultipartUploadResult>");
+    }
+
+    private void uploadPart(HttpExchange exchange, Map<String, String> query, byte[] content) throws IOException {
+        SortedMap<Integer, byte[]> parts = uploads.get(query.get("uploadId"));
+        if (parts == null) {
+            error(exchange, 404, "NoSuchUpload");
+            return;
+        }
+        parts.put(Integer.parseInt(query.get("partNumber")), content);
+        exchange.getResponseHeaders().set("ETag", md5ETag(content));
+        exchange.sendResponseHeaders(200, -1);
+    }
+
+    // ghep cac part theo so thu tu; ETag dang <md5>-<so part> nhu S3 nen SDK khong kiem tra md5
+    private void completeUpload(HttpExchange exchange, String key, String uploadId) throws IOException {
+        SortedMap<Integer, byte[]> parts = uploads.remove(uploadId);
+        if (parts == null) {
+            error(exchange, 404, "NoSuchUpload");
+            return;
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        parts.values().forEach(content::writeBytes);
+        StoredObject object = new StoredObject(content.toByteArray(), "\"" + md5Hex(content.toByteArray()) + "-" + parts.size() + "\"");
+        objects.put(key, object);
+        completedUploadParts.add(parts.size());
+        xml(exchange, "<CompleteMultipartUploadResult><Bucket>" + bucket + "</Bucket><Key>" + key + "</Key><ETag>"
+                + object.eTag + "</ETag></CompleteMultipartUploadResult>");
+    }
+
+    private void list(HttpExchange exchange) throws IOException {
+        StringBuilder body = new StringBuilder("<ListBucketResult><Name>").append(bucket).append("</Name><KeyCount>")
+                .append(objects.size()).append("</KeyCount><IsTruncated>false</IsTruncated>");
+        objects.forEach((key, object) -> body.append("<Contents><Key>").append(key).append("</Key><LastModified>")
+                .append(object.lastModified).append("</LastModified><ETag>").append(object.eTag).append("</ETag><Size>")
+                .append(object.content.length).append("</Size></Contents>"));
+        xml(exchange, body.append("</ListBucketResult>").toString());
+    }
+
+    private static void error(HttpExchange exchange, int status, String code) throws IOException {
+        byte[] body = ("<Error><Code>" + code + "</Code><Message>" + code + "</Message></Error>").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", XML);
+        exchange.sendResponseHeaders(status, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static void xml(HttpExchange exchange, String xml) throws IOException {
+        byte[] body = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + xml).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", XML);
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        try (InputStream inputStream = exchange.getRequestBody()) {
+            byte[] body = inputStream.readAllBytes();
+            String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+            return contentSha256 != null && contentSha256.startsWith(STREAMING_PAYLOAD) ? decodeAwsChunked(body) : body;
+        }
+    }
+
+    // moi chunk: <size hex>;chunk-signature=<sig>\r\n<data>\r\n, ket thuc bang chunk size 0
+    private static byte[] decodeAwsChunked(byte[] body) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream(body.length);
+        int position = 0;
+        while (position < body.length) {
+            int lineEnd = position;
+            while (body[lineEnd] != '\r') {
+                lineEnd++;
+            }
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0], 16);
+            if (size == 0) {
+                break;
+            }
+            content.write(body, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return content.toByteArray();
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String parameter : rawQuery.split("&")) {
+                String[] pair = parameter.split("=", 2);
+                query.put(pair[0], pair.length > 1 ? pair[1] : "");
+            }
+        }
+        return query;
+    }
+
+    private static String md5ETag(byte[] content) {
+        return "\"" + md5Hex(content) + "\"";
+    }
+
+    private static String md5Hex(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(content);
+            StringBuilder hex = new StringBuilder();
+            for (byte value : digest) {
+                hex.append(String.format("%02x", value));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static class StoredObject {
+        private final byte[] content;
+        private final String eTag;
+        private final Instant lastModified = Instant.now();
+
+        StoredObject(byte[] content) {
+            this(content, md5ETag(content));
+        }
+
+        StoredObject(byte[] content, String eTag) {
+            this.content = content;
+            this.eTag = eTag;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.springboot.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// S3BlobStorage qua SDK that (client nhu BlobStorageConfiguration) toi S3 gia trong JVM
+class S3BlobStorageTests {
+    private static final String BUCKET = "profile-images";
+    private static final String KEY = "ab/cd/abcdef.jpg";
+    private static final int PART_SIZE = 64 * 1024;
+
+    @TempDir
+    Path root;
+
+    private FakeS3Server server;
+    private S3BlobStorage storage;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = new FakeS3Server(BUCKET);
+        S3Client s3Client = S3Client.builder()
+                .region(Region.US_EAST_1)
+                .endpointOverride(server.endpoint())
+                .httpClientBuilder(ApacheHttpClient.builder())
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("access", "secret")))
+                // khong retry de loi cua S3 gia khong bi che
+                .overrideConfiguration(configuration -> configuration.retryPolicy(RetryPolicy.none()))
+                .build();
+        storage = new S3BlobStorage(s3Client, BUCKET, PART_SIZE);
+    }
+
+    @AfterEach
+    void stop() {
+        storage.close();
+        server.close();
+    }
+
+    @Test
+    void smallBlobIsUploadedInOneRequest() throws Exception {
+        byte[] content = content(PART_SIZE);
+        storage.put(KEY, file(content));
+        assertEquals(1, server.getPutObjectRequests());
+        assertTrue(server.getCompletedUploadParts().isEmpty());
+        assertTrue(storage.exists(KEY));
+        assertArrayEquals(content, read(KEY));
+    }
+
+    @Test
+    void largeBlobIsUploadedInParts() throws Exception {
+        // 3 part day + 1 part le
+        byte[] content = content(PART_SIZE * 3 + 1234);
+        storage.put(KEY, file(content));
+        assertEquals(0, server.getPutObjectRequests());
+        assertEquals(List.of(4), server.getCompletedUploadParts());
+        assertFalse(server.hasPendingUploads());
+        assertArrayEquals(content, read(KEY));
+    }
+
+    @Test
+    void deletedBlobIsGone() throws Exception {
+        storage.put(KEY, file(content(1024)));
+        storage.put("ef/01/ef0123.jpg", file(content(2048)));
+        storage.delete(KEY);
+        assertFalse(storage.exists(KEY));
+        assertThrows(NoSuchFileException.class, () -> read(KEY));
+        List<String> keys = new ArrayList<>();
+        storage.forEach(blob -> keys.add(blob.getKey()));
+        assertEquals(List.of("ef/01/ef0123.jpg"), keys);
+    }
+
+    @Test
+    void missingKeyIsReported() throws Exception {
+        assertFalse(storage.exists(KEY));
+        assertThrows(NoSuchFileException.class, () -> read(KEY));
+        // xoa key khong ton tai khong loi, giong S3
+        storage.delete(KEY);
+    }
+
+    private byte[] read(String key) throws IOException {
+        try (InputStream inputStream = storage.get(key)) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private Path file(byte[] content) throws IOException {
+        return Files.write(Files.createTempFile(root, "blob", ".jpg"), content);
+    }
+
+    private static byte[] content(int size) {
+        byte[] content = new byte[size];
+        new Random(size).nextBytes(content);
+        return content;
+    }
+}
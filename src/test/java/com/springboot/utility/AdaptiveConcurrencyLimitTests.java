@@ -0,0 +1,64 @@
+package com.springboot.utility;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimitTests {
+    private static final long MILLIS = 1_000_000L;
+
+    @Test
+    void steadyLatencyUnderLoadRaisesLimit() {
+        // cua so = 0 de moi lan release du mau la tinh lai limit
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, 0, 0.2, 0);
+        runWindows(limit, 20, 5 * MILLIS, false);
+        assertTrue(limit.getLimit() > 10, "limit = " + limit.getLimit());
+    }
+
+    @Test
+    void risingLatencyLowersLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 2, 100, 0, 0.2, 0);
+        runWindows(limit, 5, 5 * MILLIS, false);
+        int before = limit.getLimit();
+        runWindows(limit, 20, 100 * MILLIS, false);
+        assertTrue(limit.getLimit() < before * 0.75, before + " -> " + limit.getLimit());
+    }
+
+    @Test
+    void droppedRequestsDecreaseLimitMultiplicatively() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(40, 2, 100, 0, 0.2, 0);
+        runWindows(limit, 5, 5 * MILLIS, true);
+        assertTrue(limit.getLimit() <= 40 * 0.9 * 0.9 * 0.9, "limit = " + limit.getLimit());
+        runWindows(limit, 100, 5 * MILLIS, true);
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void priorityRequestsUseReservedCapacity() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(10, 2, 100, Long.MAX_VALUE, 0.2, 0.2);
+        for (int i = 0; i < 8; i++) {
+            assertTrue(limit.tryAcquire(false));
+        }
+        assertFalse(limit.tryAcquire(false));
+        assertTrue(limit.tryAcquire(true));
+        assertTrue(limit.tryAcquire(true));
+        assertFalse(limit.tryAcquire(true));
+        limit.release(MILLIS, false);
+        assertFalse(limit.tryAcquire(false));
+        assertTrue(limit.tryAcquire(true));
+        assertEquals(10, limit.getInFlight());
+    }
+
+    // moi cua so: chiem het limit roi release voi cung 1 rtt
+    private static void runWindows(AdaptiveConcurrencyLimit limit, int windows, long rttNanos, boolean dropped) {
+        for (int w = 0; w < windows; w++) {
+            int acquired = 0;
+            while (limit.tryAcquire(true)) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(rttNanos, dropped);
+            }
+        }
+    }
+}
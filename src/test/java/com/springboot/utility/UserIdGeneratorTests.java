@@ -0,0 +1,63 @@
+package com.springboot.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserIdGeneratorTests {
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 500_000;
+
+    @Test
+    void concurrentGenerationHasNoDuplicates() throws Exception {
+        UserIdGenerator generator = new UserIdGenerator(7);
+        Set<Long> ids = ConcurrentHashMap.newKeySet(THREADS * IDS_PER_THREAD);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(executor.submit(() -> {
+                long previous = -1;
+                for (int i = 0; i < IDS_PER_THREAD; i++) {
+                    long id = generator.nextId();
+                    if (id <= previous) {
+                        return false;
+                    }
+                    previous = id;
+                    ids.add(id);
+                }
+                return true;
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get(), "ids must increase within a thread");
+        }
+        executor.shutdown();
+        assertEquals(THREADS * IDS_PER_THREAD, ids.size());
+    }
+
+    @Test
+    void userIdsAreFixedWidthAndOrdered() {
+        UserIdGenerator generator = new UserIdGenerator(1);
+        String first = generator.nextUserId();
+        String second = generator.nextUserId();
+        assertEquals(19, first.length());
+        assertTrue(first.compareTo(second) < 0);
+        assertEquals(1, (Long.parseLong(second) >>> UserIdGenerator.SEQUENCE_BITS) & UserIdGenerator.MAX_NODE_ID);
+    }
+
+    // thieu cau hinh (-1) hoac vuot 10 bit thi khong khoi dong, khong tu suy ra tu hostname
+    @Test
+    void nodeIdMustBeConfigured() {
+        assertThrows(IllegalStateException.class, () -> new UserIdGenerator(-1));
+        assertThrows(IllegalStateException.class, () -> new UserIdGenerator(UserIdGenerator.MAX_NODE_ID + 1));
+        assertEquals(UserIdGenerator.MAX_NODE_ID, new UserIdGenerator(UserIdGenerator.MAX_NODE_ID).getNodeId());
+    }
+}